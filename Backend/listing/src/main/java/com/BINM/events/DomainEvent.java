@@ -0,0 +1,11 @@
+package com.BINM.events;
+
+/**
+ * Zdarzenie domenowe opublikowane przez ApplicationEventPublisher, dla którego istnieje DomainEventHandler,
+ * trafia do outbox_event w tej samej transakcji (OutboxWriter), a stamtąd OutboxRelay doręcza je paczkami
+ * do każdego DomainEventHandler - raz na klaster, nie raz na replikę. Zdarzenia potrzebne każdej replice
+ * oznacza ReplicatedDomainEvent. Rekord musi dać się odtworzyć z JSON. Zwykłe @EventListener dla tych samych
+ * zdarzeń działają dalej bez zmian.
+ */
+public interface DomainEvent {
+}
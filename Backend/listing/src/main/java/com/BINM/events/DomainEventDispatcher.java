@@ -0,0 +1,97 @@
+package com.BINM.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Doręcza paczkę zdarzeń do każdego DomainEventHandler, który przyjmuje ich typ - jedno wywołanie handle
+ * na handler i paczkę, w kolejności z listy. Błąd jednego handlera nie blokuje pozostałych; wywołujący dostaje
+ * pozycje, których nie udało się doręczyć, i ponawia tylko je.
+ */
+@Component
+@Slf4j
+class DomainEventDispatcher {
+
+    private final List<HandlerRoute> routes;
+
+    DomainEventDispatcher(ObjectProvider<DomainEventHandler<?>> handlers, MeterRegistry meterRegistry) {
+        this.routes = handlers.orderedStream().map(h -> new HandlerRoute(h, meterRegistry)).toList();
+    }
+
+    boolean accepts(Class<?> eventClass) {
+        return routes.stream().anyMatch(route -> route.accepts(eventClass));
+    }
+
+    int handlerCount() {
+        return routes.size();
+    }
+
+    /**
+     * @return Indeksy zdarzeń, których co najmniej jeden handler nie obsłużył, z opisem pierwszego błędu.
+     */
+    Map<Integer, String> dispatch(List<? extends DomainEvent> events) {
+        Map<Integer, String> failures = new TreeMap<>();
+        for (HandlerRoute route : routes) {
+            List<Integer> matching = IntStream.range(0, events.size())
+                    .filter(i -> route.accepts(events.get(i).getClass()))
+                    .boxed()
+                    .toList();
+            if (matching.isEmpty()) continue;
+            try {
+                route.deliver(matching.stream().<DomainEvent>map(events::get).toList());
+            } catch (RuntimeException e) {
+                log.warn("Domain event handler {} failed on {} events", route.name(), matching.size(), e);
+                for (Integer i : matching) {
+                    failures.putIfAbsent(i, route.name() + ": " + e);
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static final class HandlerRoute {
+
+        private final DomainEventHandler<?> handler;
+        private final Counter delivered;
+        private final Counter failed;
+        private final Timer batches;
+
+        HandlerRoute(DomainEventHandler<?> handler, MeterRegistry meterRegistry) {
+            this.handler = handler;
+            this.delivered = Counter.builder("events.delivered").tag("handler", handler.name()).register(meterRegistry);
+            this.failed = Counter.builder("events.failed").tag("handler", handler.name()).register(meterRegistry);
+            this.batches = Timer.builder("events.batch").tag("handler", handler.name()).register(meterRegistry);
+        }
+
+        String name() {
+            return handler.name();
+        }
+
+        boolean accepts(Class<?> eventClass) {
+            return handler.eventType().isAssignableFrom(eventClass);
+        }
+
+        void deliver(List<DomainEvent> events) {
+            try {
+                batches.record(() -> handle(handler, events));
+                delivered.increment(events.size());
+            } catch (RuntimeException e) {
+                failed.increment(events.size());
+                throw e;
+            }
+        }
+
+        private static <E extends DomainEvent> void handle(DomainEventHandler<E> handler, List<DomainEvent> events) {
+            handler.handle(events.stream().map(handler.eventType()::cast).toList());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.BINM.events;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Odbiorca paczek zdarzeń jednego typu, wywoływany przez OutboxRelay. Wewnątrz paczki zdarzenia są w kolejności
+ * zapisu, między paczkami kolejność nie jest gwarantowana. Błąd jednego handlera nie blokuje pozostałych -
+ * ponawiane są tylko jego wiersze.
+ */
+public interface DomainEventHandler<E extends DomainEvent> {
+
+    /** Nazwa kolejki w logach i metrykach (tag handler). */
+    String name();
+
+    Class<E> eventType();
+
+    /**
+     * Obsługuje paczkę zdarzeń - najlepiej jednym zapytaniem dla całej paczki.
+     * Po błędzie (i po awarii instancji w trakcie) zdarzenia wracają ponownie - także do handlerów,
+     * które obsłużyły je za pierwszym razem - więc obsługa musi być idempotentna.
+     */
+    void handle(List<E> events);
+
+    static <E extends DomainEvent> DomainEventHandler<E> of(String name, Class<E> eventType, Consumer<List<E>> handle) {
+        return new DomainEventHandler<>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Class<E> eventType() {
+                return eventType;
+            }
+
+            @Override
+            public void handle(List<E> events) {
+                handle.accept(events);
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.BINM.events;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Wiersz outboxa - zdarzenie domenowe zapisane w transakcji, która je opublikowała.
+ * Kolejność zapisu wyznacza id. Wiersze zapisuje OutboxWriter, doręcza do handlerów OutboxRelay, a czyta każda
+ * replika przez OutboxTailer (JdbcTemplate); encja opisuje tylko schemat tabeli.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_pending_id", columnList = "pending, id"),
+        @Index(name = "idx_outbox_created", columnList = "created_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Pełna nazwa klasy zdarzenia. */
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "payload", columnDefinition = "text", nullable = false)
+    private String payload;
+
+    /**
+     * Czy czeka na doręczenie do DomainEventHandler. Doręczony wiersz zostaje do sprzątania, żeby przeczytały go
+     * repliki; wiersze sprzed dodania kolumny (ddl-auto) dostają true.
+     */
+    @Column(name = "pending", columnDefinition = "boolean not null default true")
+    private boolean pending;
+
+    /** Instancja, która opublikowała zdarzenie - jej OutboxTailer pomija wiersz. */
+    @Column(name = "origin", columnDefinition = "varchar(255) not null default ''")
+    private String origin;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    /** Od kiedy wiersz można pobrać - przesuwane przy pobraniu (dzierżawa) i po błędzie (odstęp ponowienia). */
+    @Column(name = "available_at", nullable = false)
+    private OffsetDateTime availableAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+}
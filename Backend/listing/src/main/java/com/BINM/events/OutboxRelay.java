@@ -0,0 +1,325 @@
+package com.BINM.events;
+
+import com.BINM.jobs.service.JobFacade;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Doręcza oczekujące wiersze outbox_event (pending) do DomainEventHandler - raz na klaster.
+ * Paczka jest pobierana jednym UPDATE ... RETURNING na wierszach wybranych przez FOR UPDATE SKIP LOCKED
+ * i dostaje dzierżawę (available_at przesunięte o lease), więc kilka wątków i kilka replik opróżnia tabelę
+ * równolegle bez duplikatów, a paczka padniętej instancji wraca do obiegu po upływie dzierżawy.
+ * Doręczone wiersze tracą pending i zostają przez retention dla OutboxTailer, potem usuwa je purge;
+ * po błędzie handlera wiersz wraca z wykładniczym odstępem, a po max-attempts zostaje w tabeli z last_error
+ * do ręcznej analizy przez dead-retention. Doręczenie jest co najmniej jednokrotne.
+ * <p>
+ * Kolejność id jest zachowana tylko wewnątrz jednej paczki. Paczki kilku wątków i kilku replik przetwarzane są
+ * równolegle, a ponowienie po błędzie przychodzi po zdarzeniach zapisanych później - handler nie może zakładać
+ * kolejności między paczkami ani dla zdarzeń jednego ogłoszenia, więc obsługa musi być idempotentna
+ * i niezależna od kolejności (jak DELETE ulubionych po liście id).
+ * <p>
+ * Nie ma kolejek w pamięci ani blokowania producentów: zaległości czekają w tabeli, a relay sam dozuje pracę
+ * (najwyżej batch-size × workers zdarzeń w toku na replikę). Zapis ogłoszenia nie zwalnia, gdy handler
+ * nie nadąża, a zaległość przeżywa restart i jest widoczna w events.outbox.pending.
+ */
+@Component
+@Slf4j
+class OutboxRelay {
+
+    // Najpierw najstarsze; attempts liczone przy pobraniu, więc przerwane doręczenie też się liczy
+    private static final String CLAIM_SQL = """
+            UPDATE outbox_event o SET available_at = now() + make_interval(secs => ?), attempts = o.attempts + 1
+            WHERE o.id IN (
+                SELECT id FROM outbox_event
+                WHERE pending AND available_at <= now() AND attempts < ?
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING o.id, o.event_type, o.payload, o.created_at, o.attempts""";
+    private static final String DONE_SQL = "UPDATE outbox_event SET pending = false WHERE id IN (%s)";
+    private static final String PURGE_SQL =
+            "DELETE FROM outbox_event WHERE NOT pending AND created_at < now() - make_interval(secs => ?)";
+    private static final String PURGE_DEAD_SQL =
+            "DELETE FROM outbox_event WHERE pending AND attempts >= ? AND created_at < now() - make_interval(secs => ?)";
+    private static final String BACKLOG_SQL = "SELECT count(*) FROM outbox_event WHERE pending AND attempts < ?";
+    private static final String PURGE_JOB = "outbox-purge";
+    private static final String RETRY_SQL =
+            "UPDATE outbox_event SET available_at = now() + make_interval(secs => ?), attempts = ?, last_error = ? WHERE id = ?";
+
+    private record ClaimedRow(long id, String eventType, String payload, OffsetDateTime createdAt, int attempts) {
+    }
+
+    private record Decoded(ClaimedRow row, DomainEvent event) {
+    }
+
+    private static final RowMapper<ClaimedRow> ROW_MAPPER = (rs, i) -> new ClaimedRow(
+            rs.getLong("id"), rs.getString("event_type"), rs.getString("payload"),
+            rs.getObject("created_at", OffsetDateTime.class), rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final JobFacade jobFacade;
+    private final DomainEventDispatcher dispatcher;
+
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    private final Duration purgeInterval;
+    private final Duration deadRetention;
+    private final Duration backlogRefresh;
+
+    private final Semaphore signal = new Semaphore(0);
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    // -1 dopóki zaległość nie została policzona albo ostatnie liczenie się nie powiodło
+    private final AtomicLong backlog = new AtomicLong(-1);
+    private final AtomicLong backlogCountedAt;
+
+    private final Counter relayed;
+    private final Counter retries;
+    private final Counter dead;
+    private final Timer lag;
+
+    OutboxRelay(JdbcTemplate jdbcTemplate,
+                ObjectMapper objectMapper,
+                PlatformTransactionManager transactionManager,
+                JobFacade jobFacade,
+                DomainEventDispatcher dispatcher,
+                MeterRegistry meterRegistry,
+                @Value("${events.outbox.relay-enabled:true}") boolean enabled,
+                @Value("${events.outbox.workers:2}") int workers,
+                @Value("${events.outbox.batch-size:500}") int batchSize,
+                @Value("${events.outbox.poll-interval:PT1S}") Duration pollInterval,
+                @Value("${events.outbox.lease:PT1M}") Duration lease,
+                @Value("${events.outbox.max-attempts:10}") int maxAttempts,
+                @Value("${events.outbox.retry-backoff:PT1S}") Duration retryBackoff,
+                @Value("${events.outbox.retention:PT1H}") Duration retention,
+                @Value("${events.outbox.purge-interval:PT10M}") Duration purgeInterval,
+                @Value("${events.outbox.dead-retention:P7D}") Duration deadRetention,
+                @Value("${events.outbox.backlog-refresh:PT15S}") Duration backlogRefresh) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.jobFacade = jobFacade;
+        this.dispatcher = dispatcher;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+        this.purgeInterval = purgeInterval;
+        this.deadRetention = deadRetention;
+        this.backlogRefresh = backlogRefresh;
+        this.backlogCountedAt = new AtomicLong(System.nanoTime() - backlogRefresh.toNanos());
+        this.relayed = Counter.builder("events.outbox.relayed").register(meterRegistry);
+        this.retries = Counter.builder("events.outbox.retries").register(meterRegistry);
+        this.dead = Counter.builder("events.outbox.dead").register(meterRegistry);
+        this.lag = Timer.builder("events.outbox.lag").register(meterRegistry);
+        Gauge.builder("events.outbox.pending", this, OutboxRelay::backlog).register(meterRegistry);
+    }
+
+    // Dopiero po starcie kontekstu - handlery korzystają z fasad innych modułów
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) return;
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name("outbox-relay-" + i).start(this::work));
+        }
+        log.info("Outbox relay started with {} workers and {} handlers", workers, dispatcher.handlerCount());
+    }
+
+    /**
+     * Kończy bieżące paczki bez przerywania handlerów. Paczka, która nie zdąży, wróci po upływie dzierżawy.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        signal.release(threads.size());
+        for (Thread thread : threads) {
+            try {
+                thread.join(Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+    }
+
+    void wakeUp() {
+        signal.release();
+    }
+
+    // Czy zdarzenie tego typu ma odbiorcę - bez niego OutboxWriter nie oznacza wiersza jako oczekującego
+    boolean accepts(Class<?> eventClass) {
+        return dispatcher.accepts(eventClass);
+    }
+
+    // Jedna replika na okres; retention musi być dłuższe niż gap-timeout OutboxTailer
+    @Scheduled(fixedDelayString = "${events.outbox.purge-interval:PT10M}")
+    public void purge() {
+        jobFacade.runExclusive(PURGE_JOB, purgeInterval, () -> {
+            int delivered = jdbcTemplate.update(PURGE_SQL, retention.toMillis() / 1000.0);
+            int dead = jdbcTemplate.update(PURGE_DEAD_SQL, maxAttempts, deadRetention.toMillis() / 1000.0);
+            if (dead > 0) log.info("Purged {} undelivered outbox events older than {}", dead, deadRetention);
+            return delivered + dead;
+        });
+    }
+
+    /**
+     * Pobiera i doręcza jedną paczkę. Zwraca liczbę pobranych wierszy - pełna paczka oznacza, że w tabeli
+     * prawdopodobnie czeka więcej.
+     */
+    int relayOnce() {
+        List<ClaimedRow> claimed = tx.execute(status -> jdbcTemplate.query(CLAIM_SQL, ROW_MAPPER,
+                lease.toMillis() / 1000.0, maxAttempts, batchSize));
+        if (claimed == null || claimed.isEmpty()) return 0;
+
+        // RETURNING nie gwarantuje kolejności
+        List<ClaimedRow> rows = new ArrayList<>(claimed);
+        rows.sort(Comparator.comparingLong(ClaimedRow::id));
+
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<Decoded> decoded = new ArrayList<>(rows.size());
+        for (ClaimedRow row : rows) {
+            try {
+                decoded.add(new Decoded(row, decode(row)));
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                // Ponowienie nic tu nie zmieni - od razu do wierszy martwych
+                failures.put(row.id(), "Cannot decode " + row.eventType() + ": " + e.getMessage());
+            }
+        }
+        List<Long> undecodable = List.copyOf(failures.keySet());
+
+        dispatcher.dispatch(decoded.stream().map(Decoded::event).toList())
+                .forEach((i, error) -> failures.putIfAbsent(decoded.get(i).row().id(), error));
+
+        List<Long> done = new ArrayList<>(rows.size());
+        OffsetDateTime now = OffsetDateTime.now();
+        for (ClaimedRow row : rows) {
+            if (failures.containsKey(row.id())) continue;
+            done.add(row.id());
+            lag.record(Duration.between(row.createdAt(), now));
+        }
+        tx.executeWithoutResult(status -> {
+            if (!done.isEmpty()) {
+                jdbcTemplate.update(DONE_SQL.formatted(String.join(", ", Collections.nCopies(done.size(), "?"))),
+                        done.toArray());
+            }
+            if (!failures.isEmpty()) {
+                jdbcTemplate.batchUpdate(RETRY_SQL, retryArgs(rows, failures, undecodable));
+            }
+        });
+        relayed.increment(done.size());
+        return rows.size();
+    }
+
+    // Zdarzenia czekające na doręczenie, bez martwych wierszy; odczyt metryki nie dotyka bazy
+    double backlog() {
+        long count = backlog.get();
+        return count < 0 ? Double.NaN : count;
+    }
+
+    /**
+     * Przelicza zaległość z pętli relay, najwyżej raz na backlog-refresh na replikę - count(*) nie zależy
+     * od częstotliwości odczytu metryki ani od liczby wątków.
+     */
+    void refreshBacklog() {
+        long now = System.nanoTime();
+        long countedAt = backlogCountedAt.get();
+        if (now - countedAt < backlogRefresh.toNanos() || !backlogCountedAt.compareAndSet(countedAt, now)) return;
+        try {
+            Long count = jdbcTemplate.queryForObject(BACKLOG_SQL, Long.class, maxAttempts);
+            backlog.set(count != null ? count : 0);
+        } catch (DataAccessException e) {
+            backlog.set(-1);
+            log.warn("Cannot count outbox backlog", e);
+        }
+    }
+
+    private List<Object[]> retryArgs(List<ClaimedRow> rows, Map<Long, String> failures, List<Long> undecodable) {
+        List<Object[]> args = new ArrayList<>(failures.size());
+        for (ClaimedRow row : rows) {
+            String error = failures.get(row.id());
+            if (error == null) continue;
+            int attempts = undecodable.contains(row.id()) ? Math.max(row.attempts(), maxAttempts) : row.attempts();
+            if (attempts >= maxAttempts) {
+                dead.increment();
+                log.error("Outbox event {} ({}) left undelivered after {} attempts: {}", row.id(), row.eventType(), attempts, error);
+            } else {
+                retries.increment();
+            }
+            Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+            args.add(new Object[]{delay.toMillis() / 1000.0, attempts, error, row.id()});
+        }
+        return args;
+    }
+
+    // Pola usunięte z rekordu zdarzenia nie blokują wierszy zapisanych przed wdrożeniem
+    private DomainEvent decode(ClaimedRow row) throws IOException, ClassNotFoundException {
+        Class<? extends DomainEvent> type = Class.forName(row.eventType()).asSubclass(DomainEvent.class);
+        return objectMapper.readerFor(type)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(row.payload());
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                refreshBacklog();
+                if (relayOnce() < batchSize) awaitSignal();
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, retrying in {}", pollInterval, e);
+                awaitSignal();
+            }
+        }
+    }
+
+    private void awaitSignal() {
+        try {
+            if (signal.tryAcquire(pollInterval.toNanos(), TimeUnit.NANOSECONDS)) signal.drainPermits();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.BINM.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rozsyła zdarzenia ReplicatedDomainEvent do każdej repliki - w przeciwieństwie do OutboxRelay, który doręcza
+ * raz na klaster. Każda instancja czyta outbox_event po id (id &gt; ostatnio widziane) i publikuje u siebie
+ * ReplicatedEvent dla zdarzeń zapisanych przez inne instancje, więc indeks wyszukiwania, cache i podpowiedzi
+ * nadążają za zmianami z całego klastra z opóźnieniem rzędu tail-interval.
+ * <p>
+ * Id nadawane są przy INSERT, a widoczne dopiero po commicie, więc wiersz o mniejszym id może pojawić się
+ * później. Pominięte id są pamiętane jako luki i odpytywane ponownie do upływu gap-timeout - potem uznajemy,
+ * że transakcja została wycofana. Kolejność nie jest gwarantowana (luka przychodzi po nowszych zdarzeniach),
+ * a po starcie ostatnie gap-timeout jest odtwarzane ponownie, więc listenery muszą być idempotentne.
+ */
+@Component
+@Slf4j
+class OutboxTailer {
+
+    // Zapas na transakcje, które w chwili startu jeszcze nie zatwierdziły swoich wierszy
+    private static final String START_SQL =
+            "SELECT coalesce(max(id), 0) FROM outbox_event WHERE created_at < now() - make_interval(secs => ?)";
+    private static final String TAIL_SQL =
+            "SELECT id, event_type, payload, origin FROM outbox_event WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String GAPS_SQL = "SELECT id, event_type, payload, origin FROM outbox_event WHERE id IN (%s)";
+    private static final int MAX_GAPS = 10_000;
+
+    private record TailedRow(long id, String eventType, String payload, String origin) {
+    }
+
+    private static final RowMapper<TailedRow> ROW_MAPPER = (rs, i) -> new TailedRow(
+            rs.getLong("id"), rs.getString("event_type"), rs.getString("payload"), rs.getString("origin"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration tailInterval;
+
+    // Identyfikator tej instancji na czas działania procesu - po restarcie stan w pamięci i tak jest budowany od nowa
+    private final String origin = UUID.randomUUID().toString();
+    private long lastSeen = -1;
+    // id luki -> System.nanoTime() jej wykrycia
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private final Counter replayed;
+    private final Counter expiredGaps;
+
+    OutboxTailer(JdbcTemplate jdbcTemplate,
+                 ObjectMapper objectMapper,
+                 ApplicationEventPublisher eventPublisher,
+                 MeterRegistry meterRegistry,
+                 @Value("${events.outbox.tail-enabled:true}") boolean enabled,
+                 @Value("${events.outbox.batch-size:500}") int batchSize,
+                 @Value("${events.outbox.gap-timeout:PT1M}") Duration gapTimeout,
+                 @Value("${events.outbox.tail-interval:PT1S}") Duration tailInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.tailInterval = tailInterval;
+        this.replayed = Counter.builder("events.outbox.replayed").register(meterRegistry);
+        this.expiredGaps = Counter.builder("events.outbox.gaps.expired").register(meterRegistry);
+        Gauge.builder("events.outbox.gaps", gaps, Map::size).register(meterRegistry);
+    }
+
+    String origin() {
+        return origin;
+    }
+
+    // Czy zdarzenie trzeba zapisać dla pozostałych replik, nawet gdy żaden DomainEventHandler go nie obsługuje
+    boolean replicates(Class<?> eventClass) {
+        return enabled && ReplicatedDomainEvent.class.isAssignableFrom(eventClass);
+    }
+
+    // Własny wątek jak w OutboxRelay - odczyt nie czeka za przebudowami i przeglądami na schedulerze @Scheduled
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) return;
+        running = true;
+        thread = Thread.ofVirtual().name("outbox-tailer").start(this::work);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Odczytuje luki i wszystkie nowe wiersze, publikując zdarzenia innych instancji.
+     * Zwraca liczbę odczytanych wierszy (także własnych). Wywoływane tylko z wątku outbox-tailer.
+     */
+    int tailOnce() {
+        if (lastSeen < 0) {
+            Long start = jdbcTemplate.queryForObject(START_SQL, Long.class, gapTimeout.toMillis() / 1000.0);
+            lastSeen = start != null ? start : 0;
+        }
+        int read = 0;
+        if (!gaps.isEmpty()) {
+            List<Long> ids = List.copyOf(gaps.keySet());
+            List<TailedRow> found = jdbcTemplate.query(
+                    GAPS_SQL.formatted(String.join(", ", Collections.nCopies(ids.size(), "?"))), ROW_MAPPER, ids.toArray());
+            found.forEach(row -> gaps.remove(row.id()));
+            replay(found);
+            read += found.size();
+            long now = System.nanoTime();
+            int before = gaps.size();
+            gaps.values().removeIf(noticed -> now - noticed > gapTimeout.toNanos());
+            expiredGaps.increment(before - gaps.size());
+        }
+        while (true) {
+            List<TailedRow> rows = jdbcTemplate.query(TAIL_SQL, ROW_MAPPER, lastSeen, batchSize);
+            long now = System.nanoTime();
+            for (TailedRow row : rows) {
+                for (long id = lastSeen + 1; id < row.id() && gaps.size() < MAX_GAPS; id++) {
+                    gaps.put(id, now);
+                }
+                lastSeen = Math.max(lastSeen, row.id());
+            }
+            replay(rows);
+            read += rows.size();
+            if (rows.size() < batchSize) return read;
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                tailOnce();
+            } catch (RuntimeException e) {
+                log.warn("Outbox tailing failed, retrying in {}", tailInterval, e);
+            }
+            try {
+                Thread.sleep(tailInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Błąd jednego zdarzenia nie zatrzymuje reszty - stan w pamięci i tak jest okresowo przebudowywany z bazy
+    private void replay(List<TailedRow> rows) {
+        List<TailedRow> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingLong(TailedRow::id));
+        for (TailedRow row : sorted) {
+            if (origin.equals(row.origin())) continue;
+            try {
+                ReplicatedDomainEvent event = decode(row);
+                if (event == null) continue;
+                eventPublisher.publishEvent(new ReplicatedEvent<>(event));
+                replayed.increment();
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                log.warn("Cannot replay outbox event {} ({})", row.id(), row.eventType(), e);
+            }
+        }
+    }
+
+    // Zdarzenia tylko dla DomainEventHandler (np. ListingFinishedEvent) nie mają listenerów na replikach
+    private ReplicatedDomainEvent decode(TailedRow row) throws IOException, ClassNotFoundException {
+        Class<?> type = Class.forName(row.eventType());
+        if (!ReplicatedDomainEvent.class.isAssignableFrom(type)) return null;
+        return objectMapper.readerFor(type)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(row.payload());
+    }
+}
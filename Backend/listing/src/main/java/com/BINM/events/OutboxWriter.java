@@ -0,0 +1,111 @@
+package com.BINM.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zapisuje DomainEvent do outbox_event w transakcji, która je opublikowała - zdarzenie istnieje wtedy
+ * i tylko wtedy, gdy zmiana stanu została zatwierdzona. Zapisywane są tylko zdarzenia, które ktoś odczyta:
+ * obsługiwane przez DomainEventHandler (wiersz oczekuje na OutboxRelay) albo ReplicatedDomainEvent
+ * (czytane przez OutboxTailer pozostałych replik); reszta kończy się na zwykłych listenerach.
+ * Zdarzenia jednej transakcji zbierane są w pamięci i wstawiane jednym batchem tuż przed commitem, więc ścieżka
+ * zapisu płaci jeden round-trip niezależnie od liczby zdarzeń. Po commicie budzi OutboxRelay, żeby nie czekał
+ * na kolejny odstęp odpytywania. Bez transakcji zdarzenie jest zapisywane od razu.
+ */
+@Component
+class OutboxWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO outbox_event (event_type, payload, pending, origin, created_at, available_at, attempts)
+            VALUES (?, ?, ?, ?, now(), now(), 0)""";
+
+    private record OutboxRow(DomainEvent event, boolean pending) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay relay;
+    private final OutboxTailer tailer;
+    private final Counter written;
+
+    OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, OutboxRelay relay, OutboxTailer tailer,
+                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.relay = relay;
+        this.tailer = tailer;
+        this.written = Counter.builder("events.outbox.written").register(meterRegistry);
+    }
+
+    @EventListener
+    public void onDomainEvent(DomainEvent event) {
+        boolean pending = relay.accepts(event.getClass());
+        if (!pending && !tailer.replicates(event.getClass())) return;
+        OutboxRow row = new OutboxRow(event, pending);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            insert(List.of(row));
+            if (pending) relay.wakeUp();
+            return;
+        }
+        PendingEvents buffered = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (buffered == null) {
+            buffered = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, buffered);
+            TransactionSynchronizationManager.registerSynchronization(buffered);
+        }
+        // Zdarzenie opublikowane przez inną synchronizację już po naszym beforeCommit - transakcja wciąż trwa
+        if (buffered.flushed) {
+            insert(List.of(row));
+        } else {
+            buffered.rows.add(row);
+        }
+    }
+
+    private void insert(List<OutboxRow> outboxRows) {
+        List<Object[]> rows = new ArrayList<>(outboxRows.size());
+        for (OutboxRow row : outboxRows) {
+            rows.add(new Object[]{row.event().getClass().getName(), serialize(row.event()), row.pending(), tailer.origin()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        written.increment(outboxRows.size());
+    }
+
+    // Błąd serializacji wycofuje transakcję wywołującego - lepsze niż zmiana stanu bez zdarzenia
+    private String serialize(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize domain event " + event.getClass().getName(), e);
+        }
+    }
+
+    private final class PendingEvents implements TransactionSynchronization {
+
+        private final List<OutboxRow> rows = new ArrayList<>();
+        private boolean flushed;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushed = true;
+            if (!rows.isEmpty()) insert(rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+            if (status == STATUS_COMMITTED && rows.stream().anyMatch(OutboxRow::pending)) relay.wakeUp();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.BINM.events;
+
+/**
+ * Zdarzenie, od którego zależy stan trzymany w pamięci każdej repliki (indeks wyszukiwania, cache, podpowiedzi).
+ * Poza doręczeniem do DomainEventHandler (raz na klaster) OutboxTailer odtwarza je na każdej pozostałej replice
+ * jako ReplicatedEvent - lokalne listenery instancji, która je opublikowała, dostają je bezpośrednio.
+ */
+public interface ReplicatedDomainEvent extends DomainEvent {
+}
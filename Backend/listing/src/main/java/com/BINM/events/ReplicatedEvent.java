@@ -0,0 +1,19 @@
+package com.BINM.events;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * Zdarzenie opublikowane na innej replice i odczytane z outboxa przez OutboxTailer. Listenery stanu w pamięci
+ * nasłuchują go obok zwykłego zdarzenia ({@code @EventListener} na {@code ReplicatedEvent<ListingChangedEvent>}).
+ * Nie jest DomainEvent, więc nie wraca do outboxa, a listenery zapisujące do bazy go nie widzą.
+ * Kolejność między replikami nie jest gwarantowana, a to samo zdarzenie może przyjść ponownie - obsługa
+ * musi być idempotentna i niezależna od kolejności (unieważnienie, przeładowanie z bazy).
+ */
+public record ReplicatedEvent<E extends ReplicatedDomainEvent>(E event) implements ResolvableTypeProvider {
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forInstance(event));
+    }
+}
@@ -0,0 +1,32 @@
+package com.BINM.interactions.config;
+
+import com.BINM.events.DomainEventHandler;
+import com.BINM.interactions.model.EntityType;
+import com.BINM.interactions.service.InteractionFacade;
+import com.BINM.listing.listing.event.ListingFinishedEvent;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sprzątanie ulubionych po zakończonych, usuniętych i wygasłych ogłoszeniach - asynchronicznie z outboxa,
+ * jedno DELETE na paczkę zdarzeń zamiast jednego na ogłoszenie w transakcji wywołującego.
+ */
+@Configuration
+public class InteractionEventHandlers {
+
+    @Bean
+    DomainEventHandler<ListingFinishedEvent> finishedListingFavoritesCleanup(InteractionFacade interactionFacade) {
+        return DomainEventHandler.of("favorites-finished-listings", ListingFinishedEvent.class, events ->
+                interactionFacade.removeAllFavoritesForEntities(
+                        events.stream().map(e -> e.listingId().toString()).distinct().toList(), EntityType.LISTING));
+    }
+
+    @Bean
+    DomainEventHandler<ListingsExpiredEvent> expiredListingFavoritesCleanup(InteractionFacade interactionFacade) {
+        return DomainEventHandler.of("favorites-expired-listings", ListingsExpiredEvent.class, events ->
+                interactionFacade.removeAllFavoritesForEntities(
+                        events.stream().flatMap(e -> e.publicIds().stream()).map(Object::toString).distinct().toList(),
+                        EntityType.LISTING));
+    }
+}
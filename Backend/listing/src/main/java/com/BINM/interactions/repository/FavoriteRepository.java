@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,4 +23,8 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @Modifying
     @Query("DELETE FROM Favorite f WHERE f.entityId = :entityId AND f.entityType = :entityType")
     void deleteAllByEntityIdAndEntityType(@Param("entityId") String entityId, @Param("entityType") EntityType entityType);
+
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.entityId IN :entityIds AND f.entityType = :entityType")
+    int deleteAllByEntityIdInAndEntityType(@Param("entityIds") Collection<String> entityIds, @Param("entityType") EntityType entityType);
 }
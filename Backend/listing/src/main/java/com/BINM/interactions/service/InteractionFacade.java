@@ -4,6 +4,8 @@ import com.BINM.interactions.model.EntityType;
 import com.BINM.listing.listing.dto.ListingCoverDto;
 import org.springframework.data.domain.Page;
 
+import java.util.Collection;
+
 public interface InteractionFacade {
 
     void addFavorite(String userId, String entityId, EntityType entityType);
@@ -15,4 +17,10 @@ public interface InteractionFacade {
     Page<ListingCoverDto> getFavouritesListings(String userId, int page, int size);
 
     void removeAllFavoritesForEntity(String entityId, EntityType entityType);
+
+    /**
+     * Usuwa ulubione wszystkich podanych encji jednym zapytaniem.
+     * @return Liczba usuniętych wpisów.
+     */
+    int removeAllFavoritesForEntities(Collection<String> entityIds, EntityType entityType);
 }
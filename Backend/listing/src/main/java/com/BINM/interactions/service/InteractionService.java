@@ -4,15 +4,14 @@ import com.BINM.interactions.model.EntityType;
 import com.BINM.interactions.model.Favorite;
 import com.BINM.interactions.repository.FavoriteRepository;
 import com.BINM.listing.listing.dto.ListingCoverDto;
-import com.BINM.listing.listing.event.ListingFinishedEvent;
 import com.BINM.listing.listing.service.ListingFacade;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -83,8 +82,10 @@ public class InteractionService implements InteractionFacade {
         favoriteRepository.deleteAllByEntityIdAndEntityType(entityId, entityType);
     }
 
-    @EventListener
-    public void handleListingFinished(ListingFinishedEvent event) {
-        this.removeAllFavoritesForEntity(event.listingId().toString(), EntityType.LISTING);
+    @Override
+    @Transactional
+    public int removeAllFavoritesForEntities(Collection<String> entityIds, EntityType entityType) {
+        if (entityIds.isEmpty()) return 0;
+        return favoriteRepository.deleteAllByEntityIdInAndEntityType(entityIds, entityType);
     }
 }
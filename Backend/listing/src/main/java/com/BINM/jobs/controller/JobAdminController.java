@@ -0,0 +1,24 @@
+package com.BINM.jobs.controller;
+
+import com.BINM.jobs.dto.JobRunDto;
+import com.BINM.jobs.service.JobFacade;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/jobs")
+@RequiredArgsConstructor
+public class JobAdminController {
+
+    private final JobFacade jobFacade;
+
+    @GetMapping("/{jobName}/runs")
+    @ResponseStatus(HttpStatus.OK)
+    public List<JobRunDto> getRecentRuns(@PathVariable String jobName,
+                                         @RequestParam(defaultValue = "20") int limit) {
+        return jobFacade.getRecentRuns(jobName, limit);
+    }
+}
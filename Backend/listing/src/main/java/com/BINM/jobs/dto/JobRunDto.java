@@ -0,0 +1,15 @@
+package com.BINM.jobs.dto;
+
+import java.time.OffsetDateTime;
+
+public record JobRunDto(
+        String jobName,
+        Integer partition,
+        String owner,
+        OffsetDateTime startedAt,
+        long durationMs,
+        String status,
+        int items,
+        String error
+) {
+}
@@ -0,0 +1,33 @@
+package com.BINM.jobs.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Dzierżawa zadania (albo jednej partycji zadania) - kto je wykonuje i do kiedy.
+ * Wiersze zapisuje tylko JobLeaseRepository.tryAcquire/release, porównując czas zegarem bazy.
+ */
+@Entity
+@Table(name = "job_lease")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+
+    @Id
+    @Column(name = "name", length = 128)
+    private String name;
+
+    @Column(name = "owner", nullable = false)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private OffsetDateTime leaseUntil;
+
+    @Column(name = "acquired_at", nullable = false)
+    private OffsetDateTime acquiredAt;
+}
@@ -0,0 +1,55 @@
+package com.BINM.jobs.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Historia wykonań zadań - jeden wiersz na przebieg (albo na partycję przebiegu partycjonowanego).
+ */
+@Entity
+@Table(name = "job_run", indexes = {
+        @Index(name = "idx_job_run_name_started", columnList = "job_name, started_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 128)
+    private String jobName;
+
+    // null dla zadań niepartycjonowanych
+    @Column(name = "partition_no")
+    private Integer partition;
+
+    @Column(name = "owner", nullable = false)
+    private String owner;
+
+    @Column(name = "started_at", nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "finished_at", nullable = false)
+    private OffsetDateTime finishedAt;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobRunStatus status;
+
+    // Liczba przetworzonych elementów (np. wygaszonych ogłoszeń)
+    @Column(name = "items", nullable = false)
+    private int items;
+
+    @Column(columnDefinition = "text")
+    private String error;
+}
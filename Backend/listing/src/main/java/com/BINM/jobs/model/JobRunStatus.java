@@ -0,0 +1,6 @@
+package com.BINM.jobs.model;
+
+public enum JobRunStatus {
+    SUCCEEDED,
+    FAILED
+}
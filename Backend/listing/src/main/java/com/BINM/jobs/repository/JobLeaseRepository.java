@@ -0,0 +1,28 @@
+package com.BINM.jobs.repository;
+
+import com.BINM.jobs.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Zdobywa wolną (albo wygasłą) dzierżawę lub przedłuża własną; 1 = dzierżawa nasza, 0 = trzyma ją ktoś inny.
+    // Czas liczony zegarem bazy, więc rozjechane zegary instancji nie dają dwóch właścicieli naraz.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO job_lease (name, owner, lease_until, acquired_at) " +
+                   "VALUES (:name, :owner, now() + :seconds * interval '1 second', now()) " +
+                   "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until, " +
+                   "    acquired_at = CASE WHEN job_lease.owner = EXCLUDED.owner THEN job_lease.acquired_at ELSE now() END " +
+                   "WHERE job_lease.owner = EXCLUDED.owner OR job_lease.lease_until < now()",
+           nativeQuery = true)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("seconds") long seconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE job_lease SET lease_until = now() WHERE name = :name AND owner = :owner", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,181 @@
+package com.BINM.jobs.service;
+
+import com.BINM.jobs.dto.JobRunDto;
+import com.BINM.jobs.model.JobRun;
+import com.BINM.jobs.model.JobRunStatus;
+import com.BINM.jobs.repository.JobLeaseRepository;
+import com.BINM.jobs.repository.JobRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+
+@Service
+@Slf4j
+class JobCoordinator implements JobFacade {
+    private static final String HISTORY_PURGE_JOB = "job-history-purge";
+    private static final int MAX_RECENT_RUNS = 100;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    //Repo
+    private final JobLeaseRepository jobLeaseRepository;
+    private final JobRunRepository jobRunRepository;
+
+    private final MeterRegistry meterRegistry;
+    private final String owner;
+    private final Duration historyRetention;
+    // Ostatnia odpowiedź bazy w isLeader i do kiedy (System.nanoTime) można jej ufać
+    private final Map<String, LeaderCheck> leaderChecks = new ConcurrentHashMap<>();
+
+    private record LeaderCheck(boolean leader, long validUntilNanos) {
+    }
+
+    JobCoordinator(JobLeaseRepository jobLeaseRepository,
+                   JobRunRepository jobRunRepository,
+                   MeterRegistry meterRegistry,
+                   @Value("${jobs.instance-id:}") String instanceId,
+                   @Value("${jobs.history-retention:P14D}") Duration historyRetention) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.jobRunRepository = jobRunRepository;
+        this.meterRegistry = meterRegistry;
+        this.owner = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+        this.historyRetention = historyRetention;
+    }
+
+    @Override
+    public OptionalInt runExclusive(String jobName, Duration period, IntSupplier task) {
+        if (!acquire(jobName, period)) {
+            skipped(jobName);
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(execute(jobName, null, jobName, task));
+    }
+
+    // Granice partycji liczone z maxId w chwili startu; replika startująca później może mieć nieco szerszą
+    // ostatnią partycję - zadania muszą więc znosić podwójne przetworzenie pojedynczych wierszy
+    @Override
+    public int runPartitioned(String jobName, Duration period, long minId, long maxId, int partitions, PartitionTask task) {
+        if (maxId < minId || partitions < 1) return 0;
+        long width = Math.ceilDiv(maxId - minId + 1, partitions);
+        // Losowy start - repliki uruchomione naraz nie walczą po kolei o te same dzierżawy
+        int start = ThreadLocalRandom.current().nextInt(partitions);
+        int total = 0;
+        for (int i = 0; i < partitions; i++) {
+            int partition = (start + i) % partitions;
+            long fromId = minId + partition * width;
+            if (fromId > maxId) continue;
+            long toId = Math.min(fromId + width, maxId + 1);
+            String leaseName = jobName + "#" + partition;
+            if (!acquire(leaseName, period)) {
+                skipped(jobName);
+                continue;
+            }
+            total += execute(jobName, partition, leaseName, () -> task.run(fromId, toId));
+        }
+        return total;
+    }
+
+    @Override
+    public boolean isLeader(String jobName, Duration lease) {
+        long now = System.nanoTime();
+        LeaderCheck check = leaderChecks.get(jobName);
+        if (check != null && now - check.validUntilNanos() < 0) return check.leader();
+        boolean leader = acquire(jobName, lease);
+        // Lider odnawia dzierżawę w połowie jej trwania, więc nie traci jej między sprawdzeniami
+        leaderChecks.put(jobName, new LeaderCheck(leader, now + lease.toNanos() / 2));
+        if (check != null && check.leader() != leader) {
+            log.info("Instance {} {} leadership of {}", owner, leader ? "took" : "lost", jobName);
+        }
+        return leader;
+    }
+
+    @Override
+    public List<JobRunDto> getRecentRuns(String jobName, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_RECENT_RUNS));
+        return jobRunRepository.findByJobNameOrderByStartedAtDesc(jobName, Limit.of(size)).stream()
+                .map(r -> new JobRunDto(r.getJobName(), r.getPartition(), r.getOwner(), r.getStartedAt(),
+                        r.getDurationMs(), r.getStatus().name(), r.getItems(), r.getError()))
+                .toList();
+    }
+
+    @Scheduled(cron = "${jobs.history-purge-cron:0 15 4 * * *}")
+    public void purgeHistory() {
+        runExclusive(HISTORY_PURGE_JOB, Duration.ofHours(12),
+                () -> jobRunRepository.deleteStartedBefore(OffsetDateTime.now().minus(historyRetention)));
+    }
+
+    private int execute(String jobName, Integer partition, String leaseName, IntSupplier task) {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        long started = System.nanoTime();
+        try {
+            int items = task.getAsInt();
+            record(jobName, partition, startedAt, System.nanoTime() - started, JobRunStatus.SUCCEEDED, items, null);
+            return items;
+        } catch (RuntimeException e) {
+            // Zwolniona od razu - następna replika nie czeka do końca okresu
+            jobLeaseRepository.release(leaseName, owner);
+            record(jobName, partition, startedAt, System.nanoTime() - started, JobRunStatus.FAILED, 0, e);
+            throw e;
+        }
+    }
+
+    private void record(String jobName, Integer partition, OffsetDateTime startedAt, long nanos,
+                        JobRunStatus status, int items, RuntimeException error) {
+        Timer.builder("jobs.run").tag("job", jobName).tag("outcome", status.name().toLowerCase())
+                .register(meterRegistry).record(Duration.ofNanos(nanos));
+        try {
+            jobRunRepository.save(JobRun.builder()
+                    .jobName(jobName)
+                    .partition(partition)
+                    .owner(owner)
+                    .startedAt(startedAt)
+                    .finishedAt(OffsetDateTime.now())
+                    .durationMs(Duration.ofNanos(nanos).toMillis())
+                    .status(status)
+                    .items(items)
+                    .error(error == null ? null : truncate(String.valueOf(error)))
+                    .build());
+        } catch (RuntimeException e) {
+            // Brak wpisu w historii nie może przerwać zadania ani przykryć jego błędu
+            log.warn("Failed to record run of job {}", jobName, e);
+        }
+    }
+
+    private boolean acquire(String leaseName, Duration lease) {
+        return jobLeaseRepository.tryAcquire(leaseName, owner, Math.max(1, lease.toSeconds())) == 1;
+    }
+
+    private void skipped(String jobName) {
+        Counter.builder("jobs.skipped").tag("job", jobName).register(meterRegistry).increment();
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_ERROR_LENGTH ? value : value.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
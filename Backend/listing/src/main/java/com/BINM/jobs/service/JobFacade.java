@@ -0,0 +1,53 @@
+package com.BINM.jobs.service;
+
+import com.BINM.jobs.dto.JobRunDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+
+/**
+ * Koordynacja zadań okresowych między instancjami backendu. Dzierżawy trzymane są w tabeli job_lease,
+ * więc przy N replikach zadanie zmieniające dane wykonuje się raz, a duże zadania dzielą się między replikami.
+ * Każde wykonanie trafia do historii (job_run) i do metryki jobs.run.
+ */
+public interface JobFacade {
+
+    /**
+     * Wykonuje zadanie, jeśli ta instancja zdobędzie dzierżawę jobName. Po sukcesie dzierżawa zostaje
+     * do końca okresu (period), więc pozostałe repliki pomijają ten przebieg; po błędzie jest zwalniana,
+     * żeby inna replika mogła spróbować od razu.
+     *
+     * @param period odstęp między przebiegami zadania.
+     * @param task   zadanie zwracające liczbę przetworzonych elementów.
+     * @return Wynik zadania albo pusty, gdy wykonuje je inna instancja.
+     */
+    OptionalInt runExclusive(String jobName, Duration period, IntSupplier task);
+
+    /**
+     * Dzieli przedział id [minId, maxId] na partitions równych zakresów; każda partycja ma własną dzierżawę,
+     * więc repliki uruchomione w tym samym okresie biorą różne partycje zamiast powtarzać całą pracę.
+     *
+     * @return Liczba elementów przetworzonych przez tę instancję.
+     */
+    int runPartitioned(String jobName, Duration period, long minId, long maxId, int partitions, PartitionTask task);
+
+    /**
+     * Czy ta instancja jest liderem dla jobName - zdobywa albo przedłuża dzierżawę o długości lease.
+     * Wynik jest pamiętany przez pół dzierżawy, więc częste wywołania nie obciążają bazy.
+     */
+    boolean isLeader(String jobName, Duration lease);
+
+    List<JobRunDto> getRecentRuns(String jobName, int limit);
+
+    @FunctionalInterface
+    interface PartitionTask {
+        /**
+         * @param fromId początek zakresu (włącznie).
+         * @param toId   koniec zakresu (wyłącznie).
+         * @return Liczba przetworzonych elementów.
+         */
+        int run(long fromId, long toId);
+    }
+}
@@ -2,9 +2,11 @@ package com.BINM.listing.attribute.service;
 
 import com.BINM.listing.attribute.dto.*;
 import com.BINM.listing.attribute.model.AttributeDefinition;
+import com.BINM.listing.attribute.model.AttributeOption;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public interface AttributeFacade {
     AttributeDefinitionDto createAttribute(AttributeCreateRequest req);
@@ -14,4 +16,5 @@ public interface AttributeFacade {
     AttributeDefinitionDto updateAttribute(Long id, AttributeUpdateRequest req);
     List<AttributeDefinitionDto> getEffectiveDefinitions(Long categoryId);
     public Map<String, AttributeDefinition> getEffectiveDefinitionsByKey(Long categoryId);
+    Optional<AttributeOption> findOption(Long attributeId, String value);
 }
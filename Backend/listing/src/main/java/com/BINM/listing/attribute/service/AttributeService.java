@@ -7,6 +7,8 @@ import com.BINM.listing.attribute.model.AttributeOption;
 import com.BINM.listing.attribute.model.AttributeType;
 import com.BINM.listing.attribute.repostiory.AttributeDefinitionRepository;
 import com.BINM.listing.attribute.repostiory.AttributeOptionRepository;
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
 import com.BINM.listing.category.model.Category;
 import com.BINM.listing.category.repository.CategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -15,7 +17,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +27,8 @@ class AttributeService implements AttributeFacade {
     private final AttributeOptionRepository optionRepository;
     //Maper
     private final AttributeMapper attributeMapper;
+    //Catalog
+    private final CatalogSnapshotHolder catalog;
 
     @Transactional
     public AttributeDefinitionDto createAttribute(AttributeCreateRequest req) {
@@ -56,6 +59,7 @@ class AttributeService implements AttributeFacade {
                 savedOptions.add(optionRepository.save(opt));
             }
         }
+        catalog.refreshAfterCommit();
         return attributeMapper.toDto(def, savedOptions);
     }
 
@@ -75,6 +79,7 @@ class AttributeService implements AttributeFacade {
                 .sortOrder(req.sortOrder() != null ? req.sortOrder() : 0)
                 .build();
         opt = optionRepository.save(opt);
+        catalog.refreshAfterCommit();
 
         return attributeMapper.toOptionDto(opt);
     }
@@ -88,6 +93,7 @@ class AttributeService implements AttributeFacade {
         if (req.sortOrder() != null) opt.setSortOrder(req.sortOrder());
         
         opt = optionRepository.save(opt);
+        catalog.refreshAfterCommit();
         return attributeMapper.toOptionDto(opt);
     }
 
@@ -97,6 +103,7 @@ class AttributeService implements AttributeFacade {
              throw new EntityNotFoundException("Option not found");
         }
         optionRepository.deleteById(optionId);
+        catalog.refreshAfterCommit();
     }
 
     @Transactional
@@ -111,52 +118,27 @@ class AttributeService implements AttributeFacade {
         if (req.active() != null) def.setActive(req.active());
 
         def = definitionRepository.save(def);
+        catalog.refreshAfterCommit();
         List<AttributeOption> options = optionRepository.findByAttributeIdOrderBySortOrderAscIdAsc(def.getId());
         return attributeMapper.toDto(def, options);
     }
 
-    @Transactional(readOnly = true)
     public List<AttributeDefinitionDto> getEffectiveDefinitions(Long categoryId) {
-        List<Category> path = getPathEntities(categoryId);
-        Map<String, AttributeDefinition> byKey = new LinkedHashMap<>();
-        for (Category c : path) {
-            for (AttributeDefinition def : definitionRepository.findByCategoryIdOrderBySortOrderAscIdAsc(c.getId())) {
-                if (Boolean.TRUE.equals(def.getActive())) {
-                    byKey.put(def.getKey().toLowerCase(Locale.ROOT), def); // child overrides parent
-                }
-            }
-        }
-        List<AttributeDefinition> defs = new ArrayList<>(byKey.values());
-        List<Long> defIds = defs.stream().map(AttributeDefinition::getId).toList();
-        Map<Long, List<AttributeOption>> options = optionRepository.findByAttributeIdIn(defIds).stream()
-                .collect(Collectors.groupingBy(o -> o.getAttribute().getId()));
-        return defs.stream().map(d -> attributeMapper.toDto(d, options.get(d.getId()))).toList();
+        return snapshotContaining(categoryId).effectiveDefinitions(categoryId);
     }
 
-    @Transactional(readOnly = true)
     public Map<String, AttributeDefinition> getEffectiveDefinitionsByKey(Long categoryId) {
-        List<Category> path = getPathEntities(categoryId);
-        Map<String, AttributeDefinition> byKey = new LinkedHashMap<>();
-        for (Category c : path) {
-            for (AttributeDefinition def : definitionRepository.findByCategoryIdOrderBySortOrderAscIdAsc(c.getId())) {
-                if (Boolean.TRUE.equals(def.getActive())) {
-                    byKey.put(def.getKey().toLowerCase(Locale.ROOT), def);
-                }
-            }
-        }
-        return byKey;
+        return snapshotContaining(categoryId).effectiveDefinitionsByKey(categoryId);
     }
 
-    private List<Category> getPathEntities(Long leafId) {
-        Category node = categoryRepository.findById(leafId)
-                .orElseThrow(() -> new EntityNotFoundException("Category not found"));
-        List<Category> path = new ArrayList<>();
-        Category cur = node;
-        while (cur != null) {
-            path.add(0, cur);
-            cur = cur.getParent();
-        }
-        return path;
+    @Override
+    public Optional<AttributeOption> findOption(Long attributeId, String value) {
+        return catalog.current().option(attributeId, value);
     }
 
+    private CatalogSnapshot snapshotContaining(Long categoryId) {
+        CatalogSnapshot snapshot = catalog.current();
+        if (!snapshot.containsCategory(categoryId)) throw new EntityNotFoundException("Category not found");
+        return snapshot;
+    }
 }
@@ -0,0 +1,214 @@
+package com.BINM.listing.catalog;
+
+import com.BINM.listing.attribute.dto.AttributeDefinitionDto;
+import com.BINM.listing.attribute.dto.AttributeOptionDto;
+import com.BINM.listing.attribute.model.AttributeDefinition;
+import com.BINM.listing.attribute.model.AttributeOption;
+import com.BINM.listing.category.dto.CategoryDto;
+import com.BINM.listing.category.dto.CategoryTreeDto;
+import com.BINM.listing.category.model.Category;
+import com.BINM.listing.category.model.CategoryClosure;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Niezmienna migawka katalogu: drzewo kategorii, ścieżki, poddrzewa oraz efektywne atrybuty
+ * (z dziedziczeniem po przodkach) wraz z opcjami. Wszystko liczone raz przy budowie, odczyty nie dotykają bazy.
+ * Encje AttributeDefinition/AttributeOption są odłączone od sesji i służą tylko do odczytu oraz jako referencje przy zapisie.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<CategoryTreeDto> TREE_ORDER = Comparator
+            .comparing(CategoryTreeDto::sortOrder)
+            .thenComparing(CategoryTreeDto::name, String.CASE_INSENSITIVE_ORDER);
+
+    private final long version;
+    private final List<CategoryTreeDto> tree;
+    private final Map<Long, List<CategoryDto>> paths;
+    private final Map<Long, List<Long>> descendants;
+    private final Map<Long, List<AttributeDefinitionDto>> effectiveDefinitions;
+    private final Map<Long, Map<String, AttributeDefinition>> effectiveDefinitionsByKey;
+    private final Map<Long, Map<String, AttributeOption>> optionsByValue;
+    private final Map<String, List<Long>> attributeIdsByKey;
+    private final Map<Long, AttributeDefinition> definitionsById;
+    private final List<AttributeOption> options;
+
+    private CatalogSnapshot(long version,
+                            List<CategoryTreeDto> tree,
+                            Map<Long, List<CategoryDto>> paths,
+                            Map<Long, List<Long>> descendants,
+                            Map<Long, List<AttributeDefinitionDto>> effectiveDefinitions,
+                            Map<Long, Map<String, AttributeDefinition>> effectiveDefinitionsByKey,
+                            Map<Long, Map<String, AttributeOption>> optionsByValue,
+                            Map<String, List<Long>> attributeIdsByKey,
+                            Map<Long, AttributeDefinition> definitionsById,
+                            List<AttributeOption> options) {
+        this.version = version;
+        this.tree = tree;
+        this.paths = paths;
+        this.descendants = descendants;
+        this.effectiveDefinitions = effectiveDefinitions;
+        this.effectiveDefinitionsByKey = effectiveDefinitionsByKey;
+        this.optionsByValue = optionsByValue;
+        this.attributeIdsByKey = attributeIdsByKey;
+        this.definitionsById = definitionsById;
+        this.options = options;
+    }
+
+    public static CatalogSnapshot build(long version,
+                                        List<Category> categories,
+                                        List<CategoryClosure> closure,
+                                        List<AttributeDefinition> definitions,
+                                        List<AttributeOption> options) {
+        Map<Long, Category> byId = categories.stream().collect(Collectors.toMap(Category::getId, c -> c));
+        Map<Long, List<Category>> children = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+        for (Category c : categories) {
+            Long parentId = parentId(c);
+            // Kategoria z nieistniejącym rodzicem trafia do korzeni, tak jak dotąd w getAllTree
+            if (parentId == null || !byId.containsKey(parentId)) {
+                roots.add(c);
+            } else {
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(c);
+            }
+        }
+        List<CategoryTreeDto> tree = roots.stream().map(c -> treeNode(c, children)).sorted(TREE_ORDER).toList();
+
+        Map<Long, List<CategoryDto>> paths = new HashMap<>();
+        for (Category c : categories) {
+            paths.put(c.getId(), pathOf(c, byId).stream().map(CatalogSnapshot::toDto).toList());
+        }
+
+        // Wiersze posortowane po (ancestor_id, depth), więc każda lista zaczyna się od samej kategorii
+        Map<Long, List<Long>> descendants = closure.stream()
+                .sorted(Comparator.comparing(CategoryClosure::getAncestorId).thenComparing(CategoryClosure::getDepth)
+                        .thenComparing(CategoryClosure::getDescendantId))
+                .collect(Collectors.groupingBy(CategoryClosure::getAncestorId,
+                        Collectors.mapping(CategoryClosure::getDescendantId, Collectors.toUnmodifiableList())));
+
+        Map<Long, List<AttributeOption>> optionsByAttribute = options.stream()
+                .sorted(Comparator.comparing(AttributeOption::getSortOrder).thenComparing(AttributeOption::getId))
+                .collect(Collectors.groupingBy(o -> o.getAttribute().getId()));
+        Map<Long, Map<String, AttributeOption>> optionsByValue = new HashMap<>();
+        optionsByAttribute.forEach((attributeId, list) -> optionsByValue.put(attributeId, list.stream()
+                .collect(Collectors.toUnmodifiableMap(o -> o.getValue().toLowerCase(Locale.ROOT), o -> o, (a, b) -> a))));
+
+        Map<Long, List<AttributeDefinition>> definitionsByCategory = definitions.stream()
+                .filter(d -> Boolean.TRUE.equals(d.getActive()))
+                .sorted(Comparator.comparing(AttributeDefinition::getSortOrder).thenComparing(AttributeDefinition::getId))
+                .collect(Collectors.groupingBy(d -> d.getCategory().getId()));
+        Map<Long, List<AttributeDefinitionDto>> effectiveDefinitions = new HashMap<>();
+        Map<Long, Map<String, AttributeDefinition>> effectiveByKey = new HashMap<>();
+        for (Category c : categories) {
+            Map<String, AttributeDefinition> byKey = new LinkedHashMap<>();
+            for (Category node : pathOf(c, byId)) {
+                for (AttributeDefinition def : definitionsByCategory.getOrDefault(node.getId(), List.of())) {
+                    byKey.put(def.getKey().toLowerCase(Locale.ROOT), def); // child overrides parent
+                }
+            }
+            effectiveByKey.put(c.getId(), Collections.unmodifiableMap(byKey));
+            effectiveDefinitions.put(c.getId(), byKey.values().stream()
+                    .map(d -> toDto(d, optionsByAttribute.getOrDefault(d.getId(), List.of())))
+                    .toList());
+        }
+
+        // Ten sam klucz (np. "brand") może być zdefiniowany w wielu gałęziach drzewa; nieaktywne też,
+        // bo ogłoszenia dodane przed wyłączeniem atrybutu nadal mają jego wartości
+        Map<String, List<Long>> attributeIdsByKey = definitions.stream()
+                .sorted(Comparator.comparing(AttributeDefinition::getId))
+                .collect(Collectors.groupingBy(d -> d.getKey().toLowerCase(Locale.ROOT),
+                        Collectors.mapping(AttributeDefinition::getId, Collectors.toUnmodifiableList())));
+
+        return new CatalogSnapshot(version, tree, Map.copyOf(paths), descendants, Map.copyOf(effectiveDefinitions),
+                Map.copyOf(effectiveByKey), Map.copyOf(optionsByValue), Map.copyOf(attributeIdsByKey),
+                definitions.stream().collect(Collectors.toUnmodifiableMap(AttributeDefinition::getId, d -> d)),
+                optionsByAttribute.values().stream().flatMap(List::stream).toList());
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<CategoryTreeDto> tree() {
+        return tree;
+    }
+
+    public boolean containsCategory(Long categoryId) {
+        return paths.containsKey(categoryId);
+    }
+
+    // Od korzenia do kategorii; puste, gdy kategoria nie istnieje
+    public List<CategoryDto> path(Long categoryId) {
+        return paths.getOrDefault(categoryId, List.of());
+    }
+
+    // Kategoria i wszyscy jej potomkowie
+    public List<Long> descendantIds(Long categoryId) {
+        return descendants.getOrDefault(categoryId, List.of());
+    }
+
+    public List<AttributeDefinitionDto> effectiveDefinitions(Long categoryId) {
+        return effectiveDefinitions.getOrDefault(categoryId, List.of());
+    }
+
+    public Map<String, AttributeDefinition> effectiveDefinitionsByKey(Long categoryId) {
+        return effectiveDefinitionsByKey.getOrDefault(categoryId, Map.of());
+    }
+
+    public Optional<AttributeOption> option(Long attributeId, String value) {
+        if (value == null) return Optional.empty();
+        return Optional.ofNullable(optionsByValue.getOrDefault(attributeId, Map.of()).get(value.toLowerCase(Locale.ROOT)));
+    }
+
+    // Id definicji o danym kluczu we wszystkich kategoriach
+    public List<Long> attributeIds(String key) {
+        if (key == null) return List.of();
+        return attributeIdsByKey.getOrDefault(key.trim().toLowerCase(Locale.ROOT), List.of());
+    }
+
+    public Optional<AttributeDefinition> definition(Long attributeId) {
+        return Optional.ofNullable(definitionsById.get(attributeId));
+    }
+
+    // Wszystkie opcje wszystkich atrybutów (również nieaktywnych)
+    public List<AttributeOption> options() {
+        return options;
+    }
+
+    private static CategoryTreeDto treeNode(Category c, Map<Long, List<Category>> children) {
+        List<CategoryTreeDto> nodes = children.getOrDefault(c.getId(), List.of()).stream()
+                .map(child -> treeNode(child, children))
+                .sorted(TREE_ORDER)
+                .toList();
+        return new CategoryTreeDto(c.getId(), parentId(c), c.getName(), c.getImageUrl(), c.getSortOrder(), c.getDepth(), c.getIsLeaf(), nodes);
+    }
+
+    private static List<Category> pathOf(Category c, Map<Long, Category> byId) {
+        LinkedList<Category> path = new LinkedList<>();
+        Category cur = c;
+        while (cur != null && path.size() <= byId.size()) {
+            path.addFirst(cur);
+            Long parentId = parentId(cur);
+            cur = parentId != null ? byId.get(parentId) : null;
+        }
+        return path;
+    }
+
+    private static Long parentId(Category c) {
+        return c.getParent() != null ? c.getParent().getId() : null;
+    }
+
+    private static CategoryDto toDto(Category c) {
+        return new CategoryDto(c.getId(), parentId(c), c.getName(), c.getImageUrl(), c.getSortOrder(), c.getDepth(), c.getIsLeaf());
+    }
+
+    private static AttributeDefinitionDto toDto(AttributeDefinition d, List<AttributeOption> options) {
+        // Atrybut bez opcji ma options == null, tak jak wcześniej z mappera
+        List<AttributeOptionDto> optionDtos = options.isEmpty() ? null : options.stream()
+                .map(o -> new AttributeOptionDto(o.getId(), o.getValue(), o.getLabel(), o.getSortOrder()))
+                .toList();
+        return new AttributeDefinitionDto(d.getId(), d.getCategory().getId(), d.getKey(), d.getLabel(), d.getType(), d.getUnit(),
+                d.getSortOrder(), optionDtos);
+    }
+}
@@ -0,0 +1,116 @@
+package com.BINM.listing.catalog;
+
+import com.BINM.listing.attribute.repostiory.AttributeDefinitionRepository;
+import com.BINM.listing.attribute.repostiory.AttributeOptionRepository;
+import com.BINM.listing.category.repository.CategoryClosureRepository;
+import com.BINM.listing.category.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Trzyma aktualną migawkę katalogu. Zmiany administracyjne kategorii i atrybutów wołają refreshAfterCommit:
+ * w ich transakcji podbijany jest wspólny numer wersji (catalog_version), a nowa migawka podmieniana jest
+ * w całości dopiero po zatwierdzeniu. Pozostałe repliki co listing.catalog.poll-interval porównują numer
+ * w bazie ze swoją migawką i przebudowują ją, gdy jest nowszy - ich katalog (i ETag) dogania zmianę
+ * najpóźniej po jednym odstępie.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotHolder {
+
+    //Repo
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final AttributeDefinitionRepository definitionRepository;
+    private final AttributeOptionRepository optionRepository;
+
+    private static final String VERSION_SQL = "SELECT coalesce(max(version), 0) FROM catalog_version";
+    private static final String BUMP_SQL = """
+            INSERT INTO catalog_version (id, version) VALUES (1, 1)
+            ON CONFLICT (id) DO UPDATE SET version = catalog_version.version + 1
+            RETURNING version""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+
+    public CatalogSnapshotHolder(CategoryRepository categoryRepository,
+                                 CategoryClosureRepository categoryClosureRepository,
+                                 AttributeDefinitionRepository definitionRepository,
+                                 AttributeOptionRepository optionRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+        this.definitionRepository = definitionRepository;
+        this.optionRepository = optionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // Budowa po commicie musi widzieć zatwierdzone dane, a nie kończącą się transakcję
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Numer wersji i dane katalogu z jednego obrazu bazy - migawka nie może być nowsza niż jej numer
+        this.readOnlyTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    // ETag wszystkich odpowiedzi zbudowanych z tej migawki (drzewo, ścieżki, atrybuty kategorii) - wspólny dla replik
+    public String etag(CatalogSnapshot snapshot) {
+        return "c" + snapshot.version();
+    }
+
+    /**
+     * Podbija wspólny numer wersji w bieżącej transakcji (zmiana i nowy numer zatwierdzają się razem)
+     * i przebudowuje migawkę tej repliki po commicie.
+     */
+    public void refreshAfterCommit() {
+        jdbcTemplate.queryForObject(BUMP_SQL, Long.class);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+
+    // Jedno zapytanie po kluczu głównym - przebudowa tylko wtedy, gdy inna replika zmieniła katalog
+    @Scheduled(fixedDelayString = "${listing.catalog.poll-interval:PT5S}")
+    public void pollVersion() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot == null) return;
+        Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+        if (version != null && version > snapshot.version()) rebuild();
+    }
+
+    // synchronized: kolejne przebudowy czytają coraz nowszy stan, więc ostatnia podmiana jest zawsze aktualna
+    synchronized CatalogSnapshot rebuild() {
+        long started = System.nanoTime();
+        CatalogSnapshot fresh = readOnlyTx.execute(status -> CatalogSnapshot.build(
+                jdbcTemplate.queryForObject(VERSION_SQL, Long.class),
+                categoryRepository.findAll(),
+                categoryClosureRepository.findAll(),
+                definitionRepository.findAll(),
+                optionRepository.findAll()
+        ));
+        current.set(fresh);
+        log.info("Catalog snapshot v{} built in {} ms", fresh.version(), (System.nanoTime() - started) / 1_000_000);
+        return fresh;
+    }
+}
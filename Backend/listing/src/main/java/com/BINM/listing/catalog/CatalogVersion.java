@@ -0,0 +1,25 @@
+package com.BINM.listing.catalog;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Wspólny dla wszystkich replik numer wersji katalogu - jeden wiersz (id = 1). Zmiany administracyjne
+ * podbijają go w swojej transakcji, a CatalogSnapshotHolder każdej repliki porównuje go ze swoją migawką.
+ * Wiersz zapisuje i czyta tylko CatalogSnapshotHolder (JdbcTemplate); encja opisuje schemat tabeli.
+ */
+@Entity
+@Table(name = "catalog_version")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+}
@@ -15,6 +15,6 @@ public class CategoryCacheWarmup {
     @Bean
     @Order(3)
     ApplicationRunner warmupCategoryTreeCache() {
-        return args -> categoryService.getAllTree();
+        return args -> categoryService.getAllTreeJson();
     }
 }
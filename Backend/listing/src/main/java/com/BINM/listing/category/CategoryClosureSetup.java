@@ -0,0 +1,32 @@
+package com.BINM.listing.category;
+
+import com.BINM.listing.category.repository.CategoryClosureRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Uzupełnia category_closure dla kategorii sprzed wprowadzenia tabeli oraz tych z CategorySeeder,
+ * który zapisuje encje bezpośrednio przez repozytorium. Zapytanie jest idempotentne.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryClosureSetup {
+    private final CategoryClosureRepository categoryClosureRepository;
+
+    @Bean
+    @Order(1)
+    ApplicationRunner backfillCategoryClosureRunner() {
+        return args -> {
+            int removed = categoryClosureRepository.deleteOrphans();
+            int inserted = categoryClosureRepository.backfillMissing();
+            if (removed > 0 || inserted > 0) {
+                log.info("Category closure updated: {} rows added, {} orphaned rows removed", inserted, removed);
+            }
+        };
+    }
+}
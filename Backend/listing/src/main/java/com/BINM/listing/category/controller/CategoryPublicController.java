@@ -3,38 +3,87 @@ package com.BINM.listing.category.controller;
 import com.BINM.listing.attribute.dto.AttributeDefinitionDto;
 import com.BINM.listing.attribute.service.AttributeFacade;
 import com.BINM.listing.category.dto.CategoryDto;
-import com.BINM.listing.category.dto.CategoryTreeDto;
+import com.BINM.listing.category.dto.CategoryTreeJson;
 import com.BINM.listing.category.service.CategoryFacade;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
+/**
+ * Odpowiedzi zależą tylko od wersji katalogu, więc ETag to wersja migawki. If-None-Match sprawdzamy,
+ * zanim cokolwiek policzymy - klient z aktualną wersją dostaje 304 bez treści.
+ */
 @RestController
 @RequestMapping("/public/category")
 @RequiredArgsConstructor
 public class CategoryPublicController {
+    // Katalog zmienia tylko administrator - klient może trzymać odpowiedź kilka minut, potem rewaliduje ETagiem
+    private static final CacheControl CATALOG_CACHE = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
     private final CategoryFacade categoryService;
     private final AttributeFacade attributeService;
 
     // Ścieżka path od root do danej kategorii
     @GetMapping("/path")
-    public List<CategoryDto> path(@RequestParam Long id) {
-        return categoryService.getPath(id);
+    public ResponseEntity<List<CategoryDto>> path(@RequestParam Long id, WebRequest request) {
+        // ETag przed treścią - po zmianie katalogu w międzyczasie klient dostanie nowszą treść ze starszym ETagiem, nie odwrotnie
+        String etag = categoryService.catalogEtag();
+        if (request.checkNotModified(etag)) return notModified().build();
+        return ResponseEntity.ok().cacheControl(CATALOG_CACHE).eTag(etag).body(categoryService.getPath(id));
     }
 
-    // Pełne drzewo kategorii
+    // Pełne drzewo kategorii - gotowe bajty JSON, skompresowane, jeśli klient akceptuje gzip
     @GetMapping("/all")
-    public List<CategoryTreeDto> getAllCategories() {
-        return categoryService.getAllTree();
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        CategoryTreeJson tree = categoryService.getAllTreeJson();
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Silny ETag musi rozróżniać reprezentacje - wersja gzip ma własny
+        String etag = gzip ? tree.etag() + "-gz" : tree.etag();
+        if (request.checkNotModified(etag)) return notModified().varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CATALOG_CACHE)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) return response.body(tree.json());
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(tree.gzip());
     }
 
     // Pobiera atrybuty kategorii (efektywne, z dziedziczeniem)
     @GetMapping("/attributes")
-    public List<AttributeDefinitionDto> getAttributes(@RequestParam("categoryId") Long categoryId) {
-        return attributeService.getEffectiveDefinitions(categoryId);
+    public ResponseEntity<List<AttributeDefinitionDto>> getAttributes(@RequestParam("categoryId") Long categoryId, WebRequest request) {
+        String etag = categoryService.catalogEtag();
+        if (request.checkNotModified(etag)) return notModified().build();
+        return ResponseEntity.ok().cacheControl(CATALOG_CACHE).eTag(etag).body(attributeService.getEffectiveDefinitions(categoryId));
+    }
+
+    // ETag ustawia już checkNotModified; 304 musi nieść też Cache-Control i Vary, inaczej pośrednik po rewalidacji je traci
+    private static ResponseEntity.HeadersBuilder<?> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CATALOG_CACHE);
+    }
+
+    // "gzip", "gzip, br", "gzip;q=0.8", "*" - tak; "gzip;q=0", "*;q=0" - nie. Jawny wpis gzip wygrywa z "*" ("*;q=0, gzip" - tak)
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            boolean accepted = tokens.length == 1 || !tokens[1].trim().matches("q=0(\\.0*)?");
+            if (coding.equalsIgnoreCase("gzip")) return accepted;
+            if (coding.equals("*") && wildcard == null) wildcard = accepted;
+        }
+        return Boolean.TRUE.equals(wildcard);
     }
 }
@@ -0,0 +1,12 @@
+package com.BINM.listing.category.dto;
+
+/**
+ * Drzewo kategorii zserializowane do JSON raz na wersję katalogu, razem z ETagiem tej wersji.
+ * gzip - te same bajty już skompresowane, do wysłania z Content-Encoding: gzip.
+ */
+public record CategoryTreeJson(
+        String etag,
+        byte[] json,
+        byte[] gzip
+) {
+}
@@ -0,0 +1,44 @@
+package com.BINM.listing.category.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Tabela domknięcia drzewa kategorii: jeden wiersz na każdą parę (przodek, potomek), łącznie z parą (k, k).
+ * Poddrzewo kategorii to wszystkie wiersze z danym ancestor_id - bez rekurencji.
+ * Utrzymywana przez CategoryService, dla istniejących danych uzupełniana w CategoryClosureSetup.
+ */
+@Entity
+@Table(name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id")
+})
+@IdClass(CategoryClosure.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    // 0 dla pary (k, k), 1 dla bezpośredniego dziecka itd.
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -0,0 +1,50 @@
+package com.BINM.listing.category.repository;
+
+import com.BINM.listing.category.model.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    List<CategoryClosure> findAllByOrderByAncestorIdAscDepthAscDescendantIdAsc();
+
+    // Nowa kategoria: para (k, k) oraz wszyscy przodkowie rodzica jako jej przodkowie
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (:id, :id, 0)", nativeQuery = true)
+    void insertSelf(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT ancestor_id, :id, depth + 1 FROM category_closure WHERE descendant_id = :parentId",
+           nativeQuery = true)
+    void insertAncestors(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure c WHERE c.descendantId = :id OR c.ancestorId = :id")
+    void deleteByCategoryId(@Param("id") Long id);
+
+    // Uzupełnia pary dla kategorii zapisanych z pominięciem CategoryService (np. CategorySeeder)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                   "WITH RECURSIVE paths AS ( " +
+                   "    SELECT id AS ancestor_id, id AS descendant_id, 0 AS depth FROM category " +
+                   "    UNION ALL " +
+                   "    SELECT p.ancestor_id, c.id, p.depth + 1 FROM paths p JOIN category c ON c.parent_id = p.descendant_id " +
+                   ") " +
+                   "SELECT ancestor_id, descendant_id, depth FROM paths " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int backfillMissing();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM category_closure cc WHERE NOT EXISTS (SELECT 1 FROM category c WHERE c.id = cc.descendant_id)",
+           nativeQuery = true)
+    int deleteOrphans();
+}
@@ -1,30 +1,34 @@
 package com.BINM.listing.category.service;
 
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
 import com.BINM.listing.category.dto.CategoryCreateRequest;
 import com.BINM.listing.category.dto.CategoryDto;
 import com.BINM.listing.category.dto.CategoryTreeDto;
+import com.BINM.listing.category.dto.CategoryTreeJson;
 import com.BINM.listing.category.dto.CategoryUpdateRequest;
 import com.BINM.listing.category.mapper.CategoryMapper;
 import com.BINM.listing.category.model.Category;
+import com.BINM.listing.category.repository.CategoryClosureRepository;
 import com.BINM.listing.category.repository.CategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.*;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 class CategoryService implements CategoryFacade {
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
     private final CategoryMapper categoryMapper;
+    //Catalog
+    private final CatalogSnapshotHolder catalog;
+    private final CategoryTreeRenderer treeRenderer;
 
     @Transactional
-    @CacheEvict(value = "categoryTree", allEntries = true)
     public CategoryDto createCategory(CategoryCreateRequest req) {
         Category parent = null;
         int depth = 0;
@@ -48,12 +52,16 @@ class CategoryService implements CategoryFacade {
                 .build();
 
         cat = categoryRepository.save(cat);
+        categoryClosureRepository.insertSelf(cat.getId());
+        if (parent != null) {
+            categoryClosureRepository.insertAncestors(cat.getId(), parent.getId());
+        }
+        catalog.refreshAfterCommit();
 
         return categoryMapper.toDto(cat);
     }
 
     @Transactional
-    @CacheEvict(value = "categoryTree", allEntries = true)
     public CategoryDto updateCategory(Long id, CategoryUpdateRequest req) {
         Category cat = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category not found"));
@@ -63,11 +71,11 @@ class CategoryService implements CategoryFacade {
         if (req.sortOrder() != null) cat.setSortOrder(req.sortOrder());
 
         categoryRepository.save(cat);
+        catalog.refreshAfterCommit();
         return categoryMapper.toDto(cat);
     }
 
     @Transactional
-    @CacheEvict(value = "categoryTree", allEntries = true)
     public void deleteCategory(Long id) {
         Category cat = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category not found"));
@@ -76,7 +84,9 @@ class CategoryService implements CategoryFacade {
                  throw new IllegalStateException("Cannot delete category with children");
              }
         }
+        categoryClosureRepository.deleteByCategoryId(id);
         categoryRepository.delete(cat);
+        catalog.refreshAfterCommit();
 
         if (cat.getParent() != null) {
              Category parent = cat.getParent();
@@ -88,91 +98,28 @@ class CategoryService implements CategoryFacade {
         }
     }
 
-    @Transactional(readOnly = true)
     public List<CategoryDto> getPath(Long id) {
-        Category node = categoryRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Category not found"));
-        List<CategoryDto> path = new ArrayList<>();
-        Category cur = node;
-        while (cur != null) {
-            path.add(0, categoryMapper.toDto(cur));
-            cur = cur.getParent();
-        }
-        return path;
+        CatalogSnapshot snapshot = catalog.current();
+        if (!snapshot.containsCategory(id)) throw new EntityNotFoundException("Category not found");
+        return snapshot.path(id);
     }
 
-    @Transactional(readOnly = true)
-    @Cacheable("categoryTree")
     public List<CategoryTreeDto> getAllTree() {
-        List<Category> all = categoryRepository.findAll(
-                Sort.by(Sort.Direction.ASC, "depth")
-                        .and(Sort.by(Sort.Direction.ASC, "sortOrder"))
-                        .and(Sort.by(Sort.Direction.ASC, "name"))
-        );
-
-        Map<Long, CategoryTreeDto> byId = new HashMap<>();
-        List<CategoryTreeDto> roots = new ArrayList<>();
-
-        for (Category c : all) {
-            CategoryTreeDto node = new CategoryTreeDto(
-                    c.getId(),
-                    c.getParent() != null ? c.getParent().getId() : null,
-                    c.getName(),
-                    c.getImageUrl(),
-                    c.getSortOrder(),
-                    c.getDepth(),
-                    c.getIsLeaf(),
-                    new java.util.ArrayList<>()
-            );
-            byId.put(node.id(), node);
-        }
-
-        for (Category c : all) {
-            Long pid = c.getParent() != null ? c.getParent().getId() : null;
-            CategoryTreeDto node = byId.get(c.getId());
-            if (pid == null) {
-                roots.add(node);
-            } else {
-                CategoryTreeDto parent = byId.get(pid);
-                if (parent != null) {
-                    parent.children().add(node);
-                } else {
-                    roots.add(node);
-                }
-            }
-        }
-
-        Comparator<CategoryTreeDto> cmp = Comparator
-                .comparing(CategoryTreeDto::sortOrder)
-                .thenComparing(CategoryTreeDto::name, String.CASE_INSENSITIVE_ORDER);
-
-        sortRecursively(roots, cmp);
-        return roots;
+        return catalog.current().tree();
     }
 
     @Override
-    public List<Long> collectDescendantIds(Long rootId) {
-        Optional<Category> rootOpt = categoryRepository.findById(rootId);
-        if (rootOpt.isEmpty()) return List.of();
-        List<Long> ids = new ArrayList<>();
-        Deque<Long> stack = new ArrayDeque<>();
-        stack.push(rootOpt.get().getId());
-        while (!stack.isEmpty()) {
-            Long id = stack.pop();
-            ids.add(id);
-            for (Category child : categoryRepository.findByParentIdOrderBySortOrderAscNameAsc(id)) {
-                stack.push(child.getId());
-            }
-        }
-        return ids;
+    public CategoryTreeJson getAllTreeJson() {
+        return treeRenderer.current();
     }
 
-    private void sortRecursively(List<CategoryTreeDto> nodes, Comparator<CategoryTreeDto> cmp) {
-        nodes.sort(cmp);
-        for (CategoryTreeDto n : nodes) {
-            if (n.children() != null && !n.children().isEmpty()) {
-                sortRecursively(n.children(), cmp);
-            }
-        }
+    @Override
+    public String catalogEtag() {
+        return catalog.etag(catalog.current());
     }
 
+    @Override
+    public List<Long> collectDescendantIds(Long rootId) {
+        return catalog.current().descendantIds(rootId);
+    }
 }
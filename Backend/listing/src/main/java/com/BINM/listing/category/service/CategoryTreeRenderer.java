@@ -0,0 +1,69 @@
+package com.BINM.listing.category.service;
+
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
+import com.BINM.listing.category.dto.CategoryTreeJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gotowe bajty JSON pełnego drzewa kategorii, także skompresowane gzipem. Drzewo zmienia się tylko z nową
+ * migawką katalogu (create/update/deleteCategory), więc serializujemy i kompresujemy je raz na wersję,
+ * a każde żądanie dostaje te same tablice bez udziału Jacksona.
+ */
+@Component
+@RequiredArgsConstructor
+class CategoryTreeRenderer {
+    //Catalog
+    private final CatalogSnapshotHolder catalog;
+    private final ObjectMapper objectMapper;
+
+    private volatile CategoryTreeJson rendered;
+
+    CategoryTreeJson current() {
+        CatalogSnapshot snapshot = catalog.current();
+        String etag = catalog.etag(snapshot);
+        CategoryTreeJson tree = rendered;
+        if (tree == null || !tree.etag().equals(etag)) {
+            byte[] json = serialize(snapshot);
+            tree = new CategoryTreeJson(etag, json, gzip(json));
+            rendered = tree;
+        }
+        return tree;
+    }
+
+    private byte[] serialize(CatalogSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsBytes(snapshot.tree());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Category tree serialization failed", e);
+        }
+    }
+
+    // Raz na wersję, więc najwyższy poziom kompresji nic nie kosztuje na żądaniach
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new BestCompressionGzip(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class BestCompressionGzip extends GZIPOutputStream {
+        BestCompressionGzip(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
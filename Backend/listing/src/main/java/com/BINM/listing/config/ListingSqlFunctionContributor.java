@@ -0,0 +1,36 @@
+package com.BINM.listing.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Funkcje SQL używane w zapytaniach Criteria wyszukiwarki (operator @@ nie ma odpowiednika w JPA)
+ * oraz odległość haversine w km, liczona tak samo jak GeoCells.distanceKm.
+ * Rejestrowane przez META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class ListingSqlFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_match",
+                "(?1 @@ to_tsquery('binm_pl', ?2))",
+                types.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        functionContributions.getFunctionRegistry().registerPattern(
+                "fts_rank",
+                "ts_rank_cd(?1, to_tsquery('binm_pl', ?2))",
+                types.resolve(StandardBasicTypes.DOUBLE)
+        );
+        // geo_distance_km(lat1, lon1, lat2, lon2); least(1, ...) chroni asin przed błędem zaokrąglenia
+        functionContributions.getFunctionRegistry().registerPattern(
+                "geo_distance_km",
+                "(12742.0 * asin(least(1.0, sqrt(power(sin(radians(?3 - ?1) / 2), 2) "
+                        + "+ cos(radians(?1)) * cos(radians(?3)) * power(sin(radians(?4 - ?2) / 2), 2)))))",
+                types.resolve(StandardBasicTypes.DOUBLE)
+        );
+    }
+}
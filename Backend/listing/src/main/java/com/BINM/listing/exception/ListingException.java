@@ -37,6 +37,10 @@ public class ListingException extends BusinessException {
         return new ListingException(ListingErrorCode.LISTING_INVALID_STATE, message);
     }
 
+    public static ListingException tooManyIds(int max) {
+        return new ListingException(ListingErrorCode.LISTING_VALIDATION_ERROR, "Max ids per request: " + max);
+    }
+
     public static ListingException categoryNotFound(Long categoryId) {
         return new ListingException(ListingErrorCode.CATEGORY_NOT_FOUND, "Category ID: " + categoryId);
     }
@@ -0,0 +1,39 @@
+package com.BINM.listing.listing;
+
+import com.BINM.listing.listing.repository.ListingCoverRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Tworzy brakujące wiersze listing_cover dla ogłoszeń dodanych przed wprowadzeniem tabeli
+ * (oraz tych z ListingSeeder, który zapisuje encje bezpośrednio przez repozytorium).
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class ListingCoverSetup {
+    private final ListingCoverRepository listingCoverRepository;
+
+    @Bean
+    @Order(5)
+    ApplicationRunner backfillListingCoversRunner() {
+        return args -> {
+            int inserted = listingCoverRepository.backfillMissing();
+            if (inserted > 0) {
+                log.info("Backfilled {} listing covers", inserted);
+            }
+            int keyed = listingCoverRepository.backfillRandomKeys();
+            if (keyed > 0) {
+                log.info("Assigned random feed keys to {} listing covers", keyed);
+            }
+            int located = listingCoverRepository.backfillCoordinates();
+            if (located > 0) {
+                log.info("Copied coordinates to {} listing covers", located);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.BINM.listing.listing;
+
+import com.BINM.listing.listing.geo.GeoCells;
+import com.BINM.listing.listing.repository.ListingAttributeRepository;
+import com.BINM.listing.listing.repository.ListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Przygotowuje bazę pod wyszukiwanie pełnotekstowe: konfigurację binm_pl, indeks GIN
+ * na listing.search_vector oraz uzupełnienie wektorów dla istniejących ogłoszeń, a także
+ * znormalizowane wartości tekstowe atrybutów (listing_attribute.v_text_norm) i komórki lokalizacji (listing.geo_cell).
+ * Kolumnę tworzy Hibernate (ddl-auto), tutaj dokładamy tylko to, czego JPA nie opisze.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class ListingSearchSetup {
+    private static final int GEO_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ListingRepository listingRepository;
+    private final ListingAttributeRepository listingAttributeRepository;
+
+    @Bean
+    @Order(4)
+    ApplicationRunner setupListingSearchRunner() {
+        return args -> setup();
+    }
+
+    void setup() {
+        jdbcTemplate.execute("""
+                DO $$
+                BEGIN
+                    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'binm_pl') THEN
+                        CREATE TEXT SEARCH CONFIGURATION binm_pl (COPY = simple);
+                    END IF;
+                END $$""");
+
+        if (tryExecute("CREATE EXTENSION IF NOT EXISTS unaccent")) {
+            // unaccent jako pierwszy, żeby "zolty" i "żółty" trafiały w ten sam leksem;
+            // słownik polski (hunspell) jest opcjonalny, bo nie jest częścią standardowej instalacji Postgresa
+            String polishDictionary = findPolishDictionary();
+            String dictionaries = polishDictionary != null ? "unaccent, " + polishDictionary + ", simple" : "unaccent, simple";
+            tryExecute("ALTER TEXT SEARCH CONFIGURATION binm_pl ALTER MAPPING FOR hword, hword_part, word WITH " + dictionaries);
+        }
+
+        tryExecute("CREATE INDEX IF NOT EXISTS idx_listing_search_vector ON listing USING GIN (search_vector)");
+
+        int updated = listingRepository.backfillSearchVectors();
+        if (updated > 0) {
+            log.info("Backfilled search vectors for {} listings", updated);
+        }
+
+        // Filtry tekstowe używają (attribute_id, v_text_norm), indeks na surowym v_text jest zbędny
+        tryExecute("DROP INDEX IF EXISTS idx_lattr_attr_text");
+        int normalized = listingAttributeRepository.backfillNormalizedText();
+        if (normalized > 0) {
+            log.info("Backfilled normalized text for {} listing attributes", normalized);
+        }
+
+        int located = backfillGeoCells();
+        if (located > 0) {
+            log.info("Backfilled geo cells for {} listings", located);
+        }
+    }
+
+    // Kod komórki liczy GeoCells w Javie, więc uzupełniamy partiami zamiast jednym UPDATE
+    private int backfillGeoCells() {
+        int total = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(
+                    "SELECT id, latitude, longitude FROM listing WHERE geo_cell IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL LIMIT " + GEO_BATCH,
+                    (rs, i) -> new Object[]{GeoCells.encode(rs.getDouble("latitude"), rs.getDouble("longitude")), rs.getLong("id")});
+            if (batch.isEmpty()) return total;
+            jdbcTemplate.batchUpdate("UPDATE listing SET geo_cell = ? WHERE id = ?", batch);
+            total += batch.size();
+        }
+    }
+
+    private String findPolishDictionary() {
+        List<String> found = jdbcTemplate.queryForList(
+                "SELECT dictname FROM pg_ts_dict WHERE dictname IN ('polish_hunspell', 'polish_ispell', 'polish') ORDER BY dictname DESC LIMIT 1",
+                String.class);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private boolean tryExecute(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+            return true;
+        } catch (DataAccessException ex) {
+            log.warn("Full-text search setup step skipped ({}): {}", sql, ex.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+}
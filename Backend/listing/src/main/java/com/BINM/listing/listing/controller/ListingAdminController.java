@@ -3,6 +3,7 @@ package com.BINM.listing.listing.controller;
 import com.BINM.listing.listing.dto.ListingCoverDto;
 import com.BINM.listing.listing.dto.ListingDto;
 import com.BINM.listing.listing.service.ListingFacade;
+import com.BINM.pagination.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -47,4 +48,13 @@ public class ListingAdminController {
     ){
         return listingService.getListingsForApproval(page, size);
     }
+
+    @GetMapping("/waiting/cursor")
+    @ResponseStatus(HttpStatus.OK)
+    public CursorPage<ListingCoverDto> getListingsForApprovalCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ){
+        return listingService.getListingsForApprovalCursor(cursor, size);
+    }
 }
@@ -1,42 +1,84 @@
 package com.BINM.listing.listing.controller;
 
 import com.BINM.listing.listing.dto.ListingCoverDto;
+import com.BINM.listing.listing.dto.ListingDetail;
 import com.BINM.listing.listing.dto.ListingDto;
 import com.BINM.listing.listing.dto.ListingSearchRequest;
+import com.BINM.listing.listing.dto.SuggestResponse;
 import com.BINM.listing.listing.model.ListingStatus;
 import com.BINM.listing.listing.service.ListingFacade;
 import com.BINM.listing.listing.service.SearchFacade;
+import com.BINM.pagination.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/public/listings")
 @RequiredArgsConstructor
 public class ListingPublicController {
+    // Krótko - ogłoszenie może się zmienić w każdej chwili, po minucie klient rewaliduje ETagiem
+    private static final CacheControl DETAIL_CACHE = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
 
     private final ListingFacade listingService;
     private final SearchFacade searchService;
 
-
     @GetMapping("/get/{id}")
-    public ListingDto get(@PathVariable UUID id) {
-        return listingService.get(id);
+    public ResponseEntity<ListingDto> get(@PathVariable UUID id, WebRequest request) {
+        // Gorące ogłoszenie: 304 prosto z cache, bez bazy i bez serializacji
+        Optional<String> cached = listingService.cachedDetailEtag(id);
+        if (cached.isPresent() && request.checkNotModified(cached.get())) {
+            // ETag dopisał już checkNotModified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(DETAIL_CACHE).build();
+        }
+        ListingDetail detail = listingService.getDetail(id);
+        // Przy zimnym wpisie If-None-Match sprawdza Spring na podstawie ETagu z ResponseEntity
+        return ResponseEntity.ok().cacheControl(DETAIL_CACHE).eTag(detail.etag()).body(detail.listing());
+    }
+
+    @GetMapping("/get")
+    public List<ListingDto> getMany(@RequestParam List<UUID> ids) {
+        return listingService.getMany(ids);
     }
 
+    // Zostaje dla istniejących klientów; nowe powinny używać /random/feed
+    @Deprecated
     @GetMapping("/random")
     public Page<ListingCoverDto> listRandom(@RequestParam(defaultValue = "0") int page,
                                                             @RequestParam(defaultValue = "10") int size) {
         return listingService.listRandom(page, size);
     }
 
+    @GetMapping("/random/feed")
+    public CursorPage<ListingCoverDto> listRandomFeed(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "10") int size) {
+        return listingService.listRandomFeed(cursor, size);
+    }
+
     @PostMapping("/search")
     public Page<ListingCoverDto> search(@RequestBody ListingSearchRequest req) {
         return searchService.search(req);
     }
 
+    @PostMapping("/search/cursor")
+    public CursorPage<ListingCoverDto> searchCursor(@RequestBody ListingSearchRequest req) {
+        return searchService.searchCursor(req);
+    }
+
+    @GetMapping("/suggest")
+    public SuggestResponse suggest(@RequestParam String q, @RequestParam(defaultValue = "5") int limit) {
+        return searchService.suggest(q, limit);
+    }
+
     @GetMapping("/user/{userId}")
     public Page<ListingCoverDto> getUserListings(
             @PathVariable String userId,
@@ -44,4 +86,12 @@ public class ListingPublicController {
             @RequestParam(defaultValue = "10") int size) {
         return listingService.listForUser(userId, page, size, ListingStatus.ACTIVE);
     }
+
+    @GetMapping("/user/{userId}/cursor")
+    public CursorPage<ListingCoverDto> getUserListingsCursor(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return listingService.listForUserCursor(userId, cursor, size, ListingStatus.ACTIVE);
+    }
 }
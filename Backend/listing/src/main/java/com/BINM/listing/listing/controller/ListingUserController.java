@@ -3,6 +3,7 @@ package com.BINM.listing.listing.controller;
 import com.BINM.listing.listing.dto.*;
 import com.BINM.listing.listing.model.ListingStatus;
 import com.BINM.listing.listing.service.ListingFacade;
+import com.BINM.pagination.CursorPage;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -29,6 +30,15 @@ public class ListingUserController {
         return listingService.listForUser(userId, page, size, status);
     }
 
+    @GetMapping("/my/cursor")
+    public CursorPage<ListingCoverDto> getMyListingsCursor(
+            @CurrentSecurityContext(expression = "authentication.principal.userId") String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) ListingStatus status) {
+        return listingService.listForUserCursor(userId, cursor, size, status);
+    }
+
     @GetMapping("/{publicId}/edit-data")
     public ListingEditDto getListingForEdit(
             @CurrentSecurityContext(expression = "authentication.principal.userId") String userId,
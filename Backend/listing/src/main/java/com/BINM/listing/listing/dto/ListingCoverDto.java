@@ -10,6 +10,8 @@ public record ListingCoverDto(
         BigDecimal priceAmount,
         Boolean negotiable,
         String coverImageUrl,
-        String locationCity
+        String locationCity,
+        // Tylko w wyszukiwaniu z latitude/longitude, w km
+        Double distanceKm
 ) {
 }
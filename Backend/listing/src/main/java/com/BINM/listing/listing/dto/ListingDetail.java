@@ -0,0 +1,10 @@
+package com.BINM.listing.listing.dto;
+
+/**
+ * Szczegóły ogłoszenia razem z ETagiem liczonym z ich treści (do warunkowych GET).
+ */
+public record ListingDetail(
+        ListingDto listing,
+        String etag
+) {
+}
@@ -0,0 +1,27 @@
+package com.BINM.listing.listing.dto;
+
+import com.BINM.pagination.SearchResultPage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Strona wyników wyszukiwania z opcjonalnymi fasetami (liczbą wyników dla wartości atrybutów).
+ * facets == null, gdy nie zostały zamówione - pole znika wtedy z JSON-a.
+ */
+public class ListingSearchPage extends SearchResultPage<ListingCoverDto> {
+
+    private final List<SearchFacetDto> facets;
+
+    public ListingSearchPage(List<ListingCoverDto> content, Pageable pageable, long total, boolean totalExact,
+                             List<SearchFacetDto> facets) {
+        super(content, pageable, total, totalExact);
+        this.facets = facets;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<SearchFacetDto> getFacets() {
+        return facets;
+    }
+}
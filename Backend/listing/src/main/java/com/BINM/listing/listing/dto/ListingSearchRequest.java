@@ -12,7 +12,10 @@ public record ListingSearchRequest(
         Integer size,
         Double latitude,
         Double longitude,
-        Integer radiusKm
+        Integer radiusKm,
+        String cursor,
+        String countMode,
+        Boolean facets
 ) {
     public static record AttributeFilter(
             String key,
@@ -0,0 +1,14 @@
+package com.BINM.listing.listing.dto;
+
+import com.BINM.listing.attribute.model.AttributeType;
+
+import java.util.List;
+
+public record SearchFacetDto(
+        String key,
+        String label,
+        AttributeType type,
+        String unit,
+        List<SearchFacetValueDto> values
+) {
+}
@@ -0,0 +1,16 @@
+package com.BINM.listing.listing.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+// Wartość ENUM/BOOLEAN (value, label) albo przedział liczbowy [from, to)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SearchFacetValueDto(
+        String value,
+        String label,
+        BigDecimal from,
+        BigDecimal to,
+        long count
+) {
+}
@@ -0,0 +1,27 @@
+package com.BINM.listing.listing.dto;
+
+import java.util.List;
+
+public record SuggestResponse(
+        List<String> titles,
+        List<CategorySuggestion> categories,
+        List<AttributeValueSuggestion> attributes
+) {
+    public static final SuggestResponse EMPTY = new SuggestResponse(List.of(), List.of(), List.of());
+
+    public static record CategorySuggestion(
+            Long id,
+            String name
+    ) {
+    }
+
+    // listings - liczba aktywnych ogłoszeń z tą wartością (z histogramu, odświeżana co kilka minut)
+    public static record AttributeValueSuggestion(
+            String key,
+            String label,
+            String value,
+            String valueLabel,
+            long listings
+    ) {
+    }
+}
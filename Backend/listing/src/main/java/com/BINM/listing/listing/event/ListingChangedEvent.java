@@ -0,0 +1,21 @@
+package com.BINM.listing.listing.event;
+
+import com.BINM.events.ReplicatedDomainEvent;
+import com.BINM.listing.listing.model.ListingStatus;
+
+import java.util.UUID;
+
+/**
+ * Publikowany przy każdej zmianie ogłoszenia (utworzenie, edycja, zmiana statusu, usunięcie).
+ * status == null oznacza, że ogłoszenie zostało usunięte.
+ */
+public record ListingChangedEvent(UUID publicId, Long categoryId, ListingStatus status) implements ReplicatedDomainEvent {
+
+    public static ListingChangedEvent deleted(UUID publicId, Long categoryId) {
+        return new ListingChangedEvent(publicId, categoryId, null);
+    }
+
+    public boolean isDeleted() {
+        return status == null;
+    }
+}
@@ -1,6 +1,8 @@
 package com.BINM.listing.listing.event;
 
+import com.BINM.events.DomainEvent;
+
 import java.util.UUID;
 
-public record ListingFinishedEvent(UUID listingId) {
+public record ListingFinishedEvent(UUID listingId) implements DomainEvent {
 }
@@ -0,0 +1,21 @@
+package com.BINM.listing.listing.event;
+
+import com.BINM.events.ReplicatedDomainEvent;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Publikowany raz na paczkę ogłoszeń wygaszonych przez ListingExpiryJob - zamiast ListingChangedEvent
+ * i ListingFinishedEvent dla każdego ogłoszenia osobno, żeby sprzątanie (karty, ulubione, cache) było zbiorcze.
+ * Wszystkie ogłoszenia z paczki mają już status EXPIRED.
+ */
+public record ListingsExpiredEvent(List<Long> listingIds, List<UUID> publicIds, Set<Long> categoryIds) implements ReplicatedDomainEvent {
+
+    public ListingsExpiredEvent {
+        listingIds = List.copyOf(listingIds);
+        publicIds = List.copyOf(publicIds);
+        categoryIds = Set.copyOf(categoryIds);
+    }
+}
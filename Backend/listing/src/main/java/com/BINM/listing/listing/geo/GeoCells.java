@@ -0,0 +1,110 @@
+package com.BINM.listing.listing.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Komórki przestrzenne w stylu geohash: bity długości i szerokości przeplatane w jednej liczbie (kod Z-order).
+ * Komórka na poziomie k to wspólny prefiks 2k bitów, czyli ciągły przedział kodów - okrąg pokrywamy kilkoma
+ * przedziałami i szukamy po zwykłym indeksie B-tree na listing.geo_cell, a dokładną odległość liczy haversine.
+ */
+public final class GeoCells {
+
+    // Bity na wymiar - 52 bity kodu, komórka najniższego poziomu ma poniżej metra
+    static final int BITS = 26;
+    // Ile komórek może pokrywać jeden okrąg; więcej = mniej zbędnych wierszy, ale dłuższy warunek OR
+    static final int MAX_CELLS = 16;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoCells() {
+    }
+
+    // Przedział kodów [from, to] jednej lub kilku sąsiednich komórek
+    public record Range(long from, long to) {
+    }
+
+    public record Box(double minLat, double maxLat, double minLon, double maxLon) {
+
+        // 1 stopień szerokości to ok. 111 km, długości 111 * cos(lat); bez zawijania przez południk 180
+        public static Box around(double lat, double lon, double radiusKm) {
+            double latDelta = radiusKm / 111.0;
+            double lonDelta = radiusKm / (111.0 * Math.max(Math.cos(Math.toRadians(lat)), 1e-6));
+            return new Box(Math.max(lat - latDelta, -90), Math.min(lat + latDelta, 90),
+                    Math.max(lon - lonDelta, -180), Math.min(lon + lonDelta, 180));
+        }
+
+        public boolean contains(double lat, double lon) {
+            return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+        }
+    }
+
+    public static long encode(double lat, double lon) {
+        return interleave(latIndex(lat, BITS), lonIndex(lon, BITS), BITS);
+    }
+
+    // Odległość po kole wielkim (wzór haversine), w km
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Przedziały kodów pokrywające prostokąt wokół okręgu: najdrobniejszy poziom, na którym wystarcza
+     * MAX_CELLS komórek. Sąsiednie kody są scalane, więc zwykle wychodzi kilka przedziałów.
+     */
+    public static List<Range> covering(Box box) {
+        int level = 0;
+        for (int k = 1; k <= BITS; k++) {
+            long cells = (long) (latIndex(box.maxLat(), k) - latIndex(box.minLat(), k) + 1)
+                    * (lonIndex(box.maxLon(), k) - lonIndex(box.minLon(), k) + 1);
+            if (cells > MAX_CELLS) break;
+            level = k;
+        }
+        int shift = 2 * (BITS - level);
+        List<Range> ranges = new ArrayList<>();
+        for (int latIdx = latIndex(box.minLat(), level); latIdx <= latIndex(box.maxLat(), level); latIdx++) {
+            for (int lonIdx = lonIndex(box.minLon(), level); lonIdx <= lonIndex(box.maxLon(), level); lonIdx++) {
+                long prefix = interleave(latIdx, lonIdx, level);
+                ranges.add(new Range(prefix << shift, ((prefix + 1) << shift) - 1));
+            }
+        }
+        ranges.sort(Comparator.comparingLong(Range::from));
+        List<Range> merged = new ArrayList<>();
+        for (Range r : ranges) {
+            Range last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && r.from() <= last.to() + 1) {
+                merged.set(merged.size() - 1, new Range(last.from(), Math.max(last.to(), r.to())));
+            } else {
+                merged.add(r);
+            }
+        }
+        return merged;
+    }
+
+    private static int latIndex(double lat, int bits) {
+        return index((lat + 90) / 180, bits);
+    }
+
+    private static int lonIndex(double lon, int bits) {
+        return index((lon + 180) / 360, bits);
+    }
+
+    private static int index(double fraction, int bits) {
+        int cells = 1 << bits;
+        return (int) Math.min(cells - 1, Math.max(0, Math.floor(fraction * cells)));
+    }
+
+    // Jak w geohash: najstarszy bit długości, potem szerokości, i tak dalej
+    private static long interleave(int latIdx, int lonIdx, int bits) {
+        long code = 0;
+        for (int i = bits - 1; i >= 0; i--) {
+            code = (code << 1) | ((lonIdx >>> i) & 1);
+            code = (code << 1) | ((latIdx >>> i) & 1);
+        }
+        return code;
+    }
+}
@@ -4,6 +4,7 @@ import com.BINM.listing.category.model.Category;
 import com.BINM.listing.listing.dto.*;
 import com.BINM.listing.listing.model.Listing;
 import com.BINM.listing.listing.model.ListingAttribute;
+import com.BINM.listing.listing.model.ListingCover;
 import com.BINM.listing.listing.model.ListingMedia;
 import com.BINM.user.io.ProfileResponse;
 import org.mapstruct.Mapper;
@@ -21,6 +22,8 @@ public interface ListingMapper {
     @Mapping(target = "publishedAt", ignore = true)
     @Mapping(target = "expiresAt", ignore = true)
     @Mapping(target = "status", ignore = true)
+    @Mapping(target = "searchVector", ignore = true)
+    @Mapping(target = "geoCell", ignore = true)
     @Mapping(target = "currency", expression = "java(req.currency() != null ? req.currency() : \"PLN\")")
     @Mapping(target = "negotiable", expression = "java(req.negotiable() != null && req.negotiable())")
     @Mapping(target = "sellerUserId", source = "sellerUserId")
@@ -52,8 +55,14 @@ public interface ListingMapper {
     @Mapping(target = "seller.name", source = "sellerProfile.name")
     @Mapping(target = "coverImageUrl", source = "coverImage")
     @Mapping(target = "locationCity", source = "listing.locationCity")
+    @Mapping(target = "distanceKm", ignore = true)
     ListingCoverDto toCoverDto(Listing listing, ProfileResponse sellerProfile, String coverImage);
 
+    @Mapping(target = "seller.id", source = "sellerUserId")
+    @Mapping(target = "seller.name", source = "sellerName")
+    @Mapping(target = "distanceKm", ignore = true)
+    ListingCoverDto toCoverDto(ListingCover cover);
+
     @Mapping(target = "key", source = "attribute.key")
     @Mapping(target = "label", source = "attribute.label")
     @Mapping(target = "type", source = "attribute.type")
@@ -1,6 +1,7 @@
 package com.BINM.listing.listing.model;
 
 import com.BINM.listing.category.model.Category;
+import com.BINM.listing.listing.geo.GeoCells;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -11,7 +12,7 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "listing", indexes = {@Index(name = "idx_listing_category", columnList = "category_id"), @Index(name = "idx_listing_seller", columnList = "seller_user_id"), @Index(name = "idx_listing_status", columnList = "status")})
+@Table(name = "listing", indexes = {@Index(name = "idx_listing_category", columnList = "category_id"), @Index(name = "idx_listing_seller", columnList = "seller_user_id"), @Index(name = "idx_listing_status", columnList = "status"), @Index(name = "idx_listing_geo_cell", columnList = "geo_cell"), @Index(name = "idx_listing_status_expires", columnList = "status, expires_at")})
 @Getter
 @Setter
 @Builder
@@ -59,6 +60,10 @@ public class Listing {
     @Column(name = "longitude")
     private Double longitude;
 
+    // Kod komórki z GeoCells.encode(latitude, longitude) - wyszukiwanie po promieniu idzie po tym indeksie
+    @Column(name = "geo_cell")
+    private Long geoCell;
+
     @Column(name = "contact_phone_number")
     private String contactPhoneNumber;
 
@@ -80,6 +85,10 @@ public class Listing {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
+    // Utrzymywany przez ListingRepository.refreshSearchVector (tytuł, atrybuty, opis)
+    @Column(name = "search_vector", columnDefinition = "tsvector", insertable = false, updatable = false)
+    private String searchVector;
+
     @PrePersist
     void prePersist() {
         if (publicId == null) publicId = UUID.randomUUID();
@@ -88,5 +97,11 @@ public class Listing {
         if (status == null) {
             status = ListingStatus.DRAFT;
         }
+        preUpdate();
+    }
+
+    @PreUpdate
+    void preUpdate() {
+        geoCell = latitude != null && longitude != null ? GeoCells.encode(latitude, longitude) : null;
     }
 }
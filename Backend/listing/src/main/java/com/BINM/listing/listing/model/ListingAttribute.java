@@ -6,12 +6,13 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 
 @Entity
 @Table(name = "listing_attribute",
         uniqueConstraints = @UniqueConstraint(name = "uk_lattr_listing_attr", columnNames = {"listing_id", "attribute_id"}),
         indexes = {
-                @Index(name = "idx_lattr_attr_text", columnList = "attribute_id, v_text"),
+                @Index(name = "idx_lattr_attr_text_norm", columnList = "attribute_id, v_text_norm"),
                 @Index(name = "idx_lattr_attr_num", columnList = "attribute_id, v_number"),
                 @Index(name = "idx_lattr_attr_bool", columnList = "attribute_id, v_boolean"),
                 @Index(name = "idx_lattr_attr_option", columnList = "attribute_id, option_id"),
@@ -23,6 +24,8 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ListingAttribute {
+    private static final String TRIMMED_CHARS = " \t\r\n";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,6 +41,10 @@ public class ListingAttribute {
     @Column(name = "v_text")
     private String vText;
 
+    // v_text po trim + lower, żeby filtry nie potrzebowały lower() i trafiały w indeks; backfill w ListingSearchSetup
+    @Column(name = "v_text_norm")
+    private String vTextNorm;
+
     @Column(name = "v_number", precision = 18, scale = 4)
     private BigDecimal vNumber;
 
@@ -47,4 +54,20 @@ public class ListingAttribute {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "option_id")
     private AttributeOption option;
+
+    @PrePersist
+    @PreUpdate
+    void preSave() {
+        vTextNorm = normalizeText(vText);
+    }
+
+    // Obcina dokładnie te znaki co btrim(v_text, E' \t\r\n') w backfillu - String.trim() zdejmuje też inne znaki sterujące
+    public static String normalizeText(String value) {
+        if (value == null) return null;
+        int start = 0;
+        int end = value.length();
+        while (start < end && TRIMMED_CHARS.indexOf(value.charAt(start)) >= 0) start++;
+        while (end > start && TRIMMED_CHARS.indexOf(value.charAt(end - 1)) >= 0) end--;
+        return value.substring(start, end).toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,83 @@
+package com.BINM.listing.listing.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Zdenormalizowana karta ogłoszenia (model do odczytu list).
+ * Utrzymywana przez ListingCoverProjector w tej samej transakcji co zmiana ogłoszenia lub profilu sprzedawcy.
+ */
+@Entity
+@Table(name = "listing_cover", indexes = {
+        @Index(name = "idx_lcover_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_lcover_seller_created", columnList = "seller_user_id, created_at"),
+        @Index(name = "idx_lcover_status_updated", columnList = "status, updated_at"),
+        @Index(name = "idx_lcover_category", columnList = "category_id"),
+        @Index(name = "idx_lcover_status_random", columnList = "status, random_key, listing_id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingCover {
+    // Ten sam klucz co listing.id
+    @Id
+    @Column(name = "listing_id")
+    private Long listingId;
+
+    @Column(name = "public_id", nullable = false, unique = true, updatable = false)
+    private UUID publicId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "price_amount", precision = 12, scale = 2, nullable = false)
+    private BigDecimal priceAmount;
+
+    @Column(nullable = false)
+    private Boolean negotiable;
+
+    @Column(name = "cover_image_url")
+    private String coverImageUrl;
+
+    @Column(name = "location_city")
+    private String locationCity;
+
+    // Do odległości w wynikach wyszukiwania po lokalizacji
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "seller_user_id", nullable = false)
+    private String sellerUserId;
+
+    @Column(name = "seller_name")
+    private String sellerName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ListingStatus status;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "published_at")
+    private OffsetDateTime publishedAt;
+
+    // Stała pozycja w kanale losowych ogłoszeń, z przedziału [0, 1)
+    @Column(name = "random_key")
+    private Double randomKey;
+}
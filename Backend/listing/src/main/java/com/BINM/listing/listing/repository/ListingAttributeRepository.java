@@ -1,10 +1,58 @@
 package com.BINM.listing.listing.repository;
 
 import com.BINM.listing.listing.model.ListingAttribute;
+import com.BINM.listing.listing.model.ListingStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
 public interface ListingAttributeRepository extends JpaRepository<ListingAttribute, Long> {
     java.util.List<ListingAttribute> findByListingId(Long listingId);
 
+    @Query("SELECT la FROM ListingAttribute la JOIN FETCH la.attribute LEFT JOIN FETCH la.option WHERE la.listing.id IN :listingIds")
+    List<ListingAttribute> findWithDefinitionsByListingIdIn(@Param("listingIds") Collection<Long> listingIds);
+
     void deleteByListingId(Long listingId);
+
+    // Ta sama normalizacja co ListingAttribute.normalizeText, dla wierszy sprzed kolumny v_text_norm
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE listing_attribute SET v_text_norm = lower(btrim(v_text, E' \\t\\r\\n')) WHERE v_text IS NOT NULL AND v_text_norm IS NULL",
+           nativeQuery = true)
+    int backfillNormalizedText();
+
+    // Histogram wartości atrybutów aktywnych ogłoszeń - podstawa szacowania selektywności filtrów
+    @Query("SELECT la.attribute.id AS attributeId, o.id AS optionId, la.vBoolean AS booleanValue, count(la) AS listings " +
+           "FROM ListingAttribute la LEFT JOIN la.option o " +
+           "WHERE la.listing.status = :status GROUP BY la.attribute.id, o.id, la.vBoolean")
+    List<ValueCount> countValues(@Param("status") ListingStatus status);
+
+    @Query("SELECT la.attribute.id AS attributeId, min(la.vNumber) AS min, max(la.vNumber) AS max " +
+           "FROM ListingAttribute la " +
+           "WHERE la.listing.status = :status AND la.vNumber IS NOT NULL GROUP BY la.attribute.id")
+    List<NumberRange> numberRanges(@Param("status") ListingStatus status);
+
+    interface ValueCount {
+        Long getAttributeId();
+
+        Long getOptionId();
+
+        Boolean getBooleanValue();
+
+        long getListings();
+    }
+
+    interface NumberRange {
+        Long getAttributeId();
+
+        BigDecimal getMin();
+
+        BigDecimal getMax();
+    }
 }
@@ -0,0 +1,77 @@
+package com.BINM.listing.listing.repository;
+
+import com.BINM.listing.listing.model.ListingCover;
+import com.BINM.listing.listing.model.ListingStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ListingCoverRepository extends JpaRepository<ListingCover, Long>, JpaSpecificationExecutor<ListingCover> {
+
+    Page<ListingCover> findBySellerUserId(String sellerUserId, Pageable pageable);
+
+    Page<ListingCover> findBySellerUserIdAndStatus(String sellerUserId, ListingStatus status, Pageable pageable);
+
+    Page<ListingCover> findByStatus(ListingStatus status, Pageable pageable);
+
+    Page<ListingCover> findAllByPublicIdInAndStatus(Collection<UUID> publicIds, ListingStatus status, Pageable pageable);
+
+    List<ListingCover> findAllByListingIdIn(Collection<Long> listingIds);
+
+    void deleteByPublicId(UUID publicId);
+
+    // Kolejny fragment kanału losowego: keyset po (random_key, listing_id) poniżej górnej granicy
+    @Query("SELECT c FROM ListingCover c WHERE c.status = :status AND c.randomKey < :upperKey " +
+           "AND (c.randomKey > :afterKey OR (c.randomKey = :afterKey AND c.listingId > :afterId)) " +
+           "ORDER BY c.randomKey, c.listingId")
+    List<ListingCover> findRandomFeedChunk(@Param("status") ListingStatus status,
+                                           @Param("afterKey") double afterKey,
+                                           @Param("afterId") long afterId,
+                                           @Param("upperKey") double upperKey,
+                                           Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE listing_cover SET random_key = random() WHERE random_key IS NULL", nativeQuery = true)
+    int backfillRandomKeys();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE listing_cover c SET latitude = l.latitude, longitude = l.longitude FROM listing l " +
+                   "WHERE l.id = c.listing_id AND c.latitude IS NULL AND l.latitude IS NOT NULL", nativeQuery = true)
+    int backfillCoordinates();
+
+    @Modifying
+    @Query("UPDATE ListingCover c SET c.status = :status, c.updatedAt = :updatedAt WHERE c.listingId IN :listingIds")
+    int updateStatus(@Param("listingIds") Collection<Long> listingIds,
+                     @Param("status") ListingStatus status,
+                     @Param("updatedAt") OffsetDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE ListingCover c SET c.sellerName = :sellerName WHERE c.sellerUserId = :sellerUserId")
+    int updateSellerName(@Param("sellerUserId") String sellerUserId, @Param("sellerName") String sellerName);
+
+    // Uzupełnia karty ogłoszeń, które powstały przed wprowadzeniem listing_cover
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO listing_cover (listing_id, public_id, title, price_amount, negotiable, cover_image_url, location_city, latitude, longitude, " +
+                   "    seller_user_id, seller_name, status, category_id, created_at, updated_at, published_at, random_key) " +
+                   "SELECT l.id, l.public_id, l.title, l.price_amount, l.negotiable, " +
+                   "    (SELECT m.media_url FROM listing_media m WHERE m.listing_id = l.id ORDER BY m.position LIMIT 1), " +
+                   "    l.location_city, l.latitude, l.longitude, l.seller_user_id, u.name, l.status, l.category_id, l.created_at, l.updated_at, l.published_at, random() " +
+                   "FROM listing l LEFT JOIN tbl_users u ON u.user_id = l.seller_user_id " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM listing_cover c WHERE c.listing_id = l.id)",
+           nativeQuery = true)
+    int backfillMissing();
+}
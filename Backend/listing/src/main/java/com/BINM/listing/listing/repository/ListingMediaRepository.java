@@ -2,7 +2,10 @@ package com.BINM.listing.listing.repository;
 
 import com.BINM.listing.listing.model.ListingMedia;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,5 +14,14 @@ public interface ListingMediaRepository extends JpaRepository<ListingMedia, Long
 
     Optional<ListingMedia> findFirstByListingIdOrderByPositionAsc(Long listingId);
 
+    List<ListingMedia> findByListingIdInOrderByPositionAsc(Collection<Long> listingIds);
+
+    // Pierwsze zdjęcie każdego ogłoszenia jednym zapytaniem (korzysta z idx_media_listing_pos)
+    @Query(value = "SELECT DISTINCT ON (listing_id) * FROM listing_media " +
+                   "WHERE listing_id IN (:listingIds) " +
+                   "ORDER BY listing_id, position",
+           nativeQuery = true)
+    List<ListingMedia> findCoversByListingIdIn(@Param("listingIds") Collection<Long> listingIds);
+
     void deleteByListingId(Long listingId);
 }
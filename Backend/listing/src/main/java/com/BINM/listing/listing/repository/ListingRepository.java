@@ -2,12 +2,15 @@ package com.BINM.listing.listing.repository;
 
 import com.BINM.listing.listing.model.Listing;
 import com.BINM.listing.listing.model.ListingStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.Collection;
@@ -17,15 +20,31 @@ import java.util.UUID;
 
 public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpecificationExecutor<Listing> {
 
-    @Query(value = "SELECT * FROM listing WHERE status = :status ORDER BY RANDOM()",
-           countQuery = "SELECT count(*) FROM listing WHERE status = :status",
+    // Tytuł (A), wartości atrybutów (B) i opis (C) w konfiguracji binm_pl (patrz ListingSearchSetup)
+    String SEARCH_VECTOR_EXPRESSION = "setweight(to_tsvector('binm_pl', coalesce(l.title, '')), 'A') || " +
+            "setweight(to_tsvector('binm_pl', coalesce((" +
+            "    SELECT string_agg(concat_ws(' ', la.v_text, o.label), ' ') " +
+            "    FROM listing_attribute la LEFT JOIN attribute_option o ON o.id = la.option_id " +
+            "    WHERE la.listing_id = l.id), '')), 'B') || " +
+            "setweight(to_tsvector('binm_pl', coalesce(l.description, '')), 'C')";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE listing l SET search_vector = " + SEARCH_VECTOR_EXPRESSION + " WHERE l.id = :id",
+           nativeQuery = true)
+    void refreshSearchVector(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE listing l SET search_vector = " + SEARCH_VECTOR_EXPRESSION + " WHERE l.search_vector IS NULL",
            nativeQuery = true)
-    Page<Listing> findRandom(@Param("status") String status, Pageable pageable);
+    int backfillSearchVectors();
 
     Page<Listing> findAllByPublicIdIn(List<UUID> publicIds, Pageable page);
 
     Page<Listing> findAllByPublicIdInAndStatus(List<UUID> publicIds, ListingStatus status, Pageable page);
 
+    List<Listing> findAllByPublicIdInAndStatus(Collection<UUID> publicIds, ListingStatus status);
+
     Page<Listing> findByCategoryId(Long categoryId, Pageable pageable);
 
     Page<Listing> findBySellerUserId(String sellerUserId, Pageable pageable);
@@ -46,7 +65,32 @@ public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpec
 
     long countByCategoryId(Long categoryId);
 
-    List<Listing> findAllByStatusAndExpiresAtBefore(ListingStatus status, OffsetDateTime dateTime);
+    List<Listing> findByStatusAndIdGreaterThanOrderByIdAsc(ListingStatus status, Long afterId, Limit limit);
+
+    @Query("SELECT l.id AS id, l.publicId AS publicId, l.title AS title FROM Listing l " +
+           "WHERE l.status = :status AND l.id > :afterId ORDER BY l.id")
+    List<TitleView> findTitlesAfter(@Param("status") ListingStatus status, @Param("afterId") Long afterId, Limit limit);
+
+    interface TitleView {
+        Long getId();
+
+        UUID getPublicId();
+
+        String getTitle();
+    }
+
+    @Query("SELECT l.id AS id, l.publicId AS publicId, l.expiresAt AS expiresAt FROM Listing l " +
+           "WHERE l.status = :status AND l.expiresAt <= :until AND l.id > :afterId ORDER BY l.id")
+    List<ExpiryView> findExpiringBefore(@Param("status") ListingStatus status, @Param("until") OffsetDateTime until,
+                                        @Param("afterId") Long afterId, Limit limit);
+
+    interface ExpiryView {
+        Long getId();
+
+        UUID getPublicId();
+
+        OffsetDateTime getExpiresAt();
+    }
 
     Optional<Listing> findFirstByStatusOrderByUpdatedAtAsc(ListingStatus status);
 }
@@ -15,8 +15,9 @@ public class ListingScheduler {
 
     private final ListingFacade listingFacade;
 
-    // Co godzinę (3600000 ms)
-    @Scheduled(fixedRate = 3600000)
+    // Przegląd zapasowy - terminy na bieżąco wygasza koło czasowe (ListingExpiryWheel),
+    // tu łapiemy to, co przegapiło (np. restart albo ogłoszenie zatwierdzone na innej instancji)
+    @Scheduled(fixedDelayString = "${listing.expiry.sweep-interval:PT1H}", initialDelayString = "${listing.expiry.sweep-interval:PT1H}")
     public void expireListings() {
         log.info("Running scheduled task: expireListings");
 
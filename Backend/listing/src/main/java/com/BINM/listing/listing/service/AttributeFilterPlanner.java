@@ -0,0 +1,222 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.attribute.model.AttributeOption;
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
+import com.BINM.listing.listing.dto.ListingSearchRequest.AttributeFilter;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingAttribute;
+import com.BINM.listing.listing.model.ListingStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Plan filtrów atrybutów: klucze zamieniane na id definicji z katalogu, filtry ustawiane od najbardziej
+ * selektywnego wg histogramu. Dopóki szacowana liczba ogłoszeń mieści się w limicie, pobieramy id pasujących
+ * ogłoszeń i przecinamy zbiory - kolejne filtry sprawdzają już tylko kandydatów. Resztę dokłada EXISTS.
+ */
+@Component
+class AttributeFilterPlanner {
+
+    // Udział wierszy atrybutu, gdy histogram nie mówi nic lepszego
+    private static final double EQUALITY_SELECTIVITY = 0.05;
+    private static final double LIKE_SELECTIVITY = 0.2;
+
+    //Catalog
+    private final CatalogSnapshotHolder catalog;
+    private final AttributeValueHistogram histogram;
+    private final EntityManager entityManager;
+    private final int candidateLimit;
+
+    AttributeFilterPlanner(CatalogSnapshotHolder catalog,
+                           AttributeValueHistogram histogram,
+                           EntityManager entityManager,
+                           @Value("${listing.search.planner.candidate-limit:5000}") int candidateLimit) {
+        this.catalog = catalog;
+        this.histogram = histogram;
+        this.entityManager = entityManager;
+        this.candidateLimit = candidateLimit;
+    }
+
+    // optionIds - rozwiązane opcje dla filtra ENUM, dla pozostałych typów pusta lista
+    record Step(AttributeFilter filter, List<Long> attributeIds, List<Long> optionIds, long estimate) {
+    }
+
+    /**
+     * matchesNothing - któryś klucz nie istnieje albo przecięcie jest puste.
+     * candidateIds == null - żaden filtr nie był dość selektywny, wszystkie zostają w remaining.
+     */
+    record Plan(boolean matchesNothing, Set<Long> candidateIds, List<Step> remaining) {
+
+        static final Plan NOTHING = new Plan(true, Set.of(), List.of());
+    }
+
+    Plan plan(List<AttributeFilter> filters) {
+        CatalogSnapshot snapshot = catalog.current();
+        List<Step> steps = new ArrayList<>();
+        for (AttributeFilter filter : filters) {
+            List<Long> attributeIds = snapshot.attributeIds(filter.key());
+            if (attributeIds.isEmpty()) return Plan.NOTHING;
+            List<Long> optionIds = List.of();
+            if ("ENUM".equals(type(filter))) {
+                // Wartości zamieniamy na id opcji - filtr to wtedy (attribute_id, option_id) bez złączenia z attribute_option
+                optionIds = attributeIds.stream()
+                        .flatMap(id -> enumValues(filter).stream().map(v -> snapshot.option(id, v)))
+                        .flatMap(Optional::stream)
+                        .map(AttributeOption::getId)
+                        .toList();
+                if (optionIds.isEmpty()) return Plan.NOTHING;
+            }
+            steps.add(new Step(filter, attributeIds, optionIds, estimate(filter, attributeIds, optionIds)));
+        }
+        // Sortowanie stabilne - bez histogramu zostaje kolejność z żądania
+        steps.sort(Comparator.comparingLong(Step::estimate));
+
+        Set<Long> candidates = null;
+        int applied = 0;
+        for (Step step : steps) {
+            if (candidates == null && step.estimate() > candidateLimit) break;
+            Set<Long> matching = listingIds(step, candidates);
+            // Histogram zaniżył liczbę - ten i dalsze filtry idą jako EXISTS
+            if (matching == null) break;
+            candidates = matching;
+            applied++;
+            if (candidates.isEmpty()) return Plan.NOTHING;
+        }
+        return new Plan(false, candidates, List.copyOf(steps.subList(applied, steps.size())));
+    }
+
+    Specification<Listing> toSpecification(Plan plan) {
+        return (root, query, cb) -> {
+            if (plan.matchesNothing()) return cb.disjunction();
+            List<Predicate> predicates = new ArrayList<>();
+            if (plan.candidateIds() != null) {
+                predicates.add(root.get("id").in(plan.candidateIds()));
+            }
+            for (Step step : plan.remaining()) {
+                var subquery = query.subquery(Long.class);
+                var subRoot = subquery.from(ListingAttribute.class);
+                subquery.select(cb.literal(1L)).where(
+                        cb.equal(subRoot.get("listing"), root),
+                        subRoot.get("attribute").get("id").in(step.attributeIds()),
+                        valuePredicate(step, subRoot, cb));
+                predicates.add(cb.exists(subquery));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // null, gdy pasujących ogłoszeń jest więcej niż limit kandydatów
+    private Set<Long> listingIds(Step step, Set<Long> candidates) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ListingAttribute> la = query.from(ListingAttribute.class);
+        var listing = la.join("listing");
+        List<Predicate> where = new ArrayList<>(List.of(
+                la.get("attribute").get("id").in(step.attributeIds()),
+                valuePredicate(step, la, cb),
+                cb.equal(listing.get("status"), ListingStatus.ACTIVE)));
+        if (candidates != null) where.add(listing.get("id").in(candidates));
+        query.select(listing.get("id")).distinct(true).where(where.toArray(Predicate[]::new));
+        List<Long> ids = entityManager.createQuery(query).setMaxResults(candidateLimit + 1).getResultList();
+        return ids.size() > candidateLimit ? null : new HashSet<>(ids);
+    }
+
+    private long estimate(AttributeFilter filter, List<Long> attributeIds, List<Long> optionIds) {
+        if (!histogram.isLoaded()) return Long.MAX_VALUE;
+        if (!optionIds.isEmpty()) return optionIds.stream().mapToLong(histogram::option).sum();
+        long estimate = 0;
+        for (Long attributeId : attributeIds) {
+            estimate += switch (type(filter)) {
+                case "BOOLEAN" -> histogram.bool(attributeId, booleanValue(filter));
+                case "NUMBER" -> Math.round(histogram.total(attributeId) * numberFraction(filter, histogram.range(attributeId)));
+                default -> Math.round(histogram.total(attributeId) * ("like".equals(op(filter)) ? LIKE_SELECTIVITY : EQUALITY_SELECTIVITY));
+            };
+        }
+        return estimate;
+    }
+
+    // Rozkład jednostajny między min a max - wystarczy do porównania filtrów między sobą
+    private static double numberFraction(AttributeFilter filter, AttributeValueHistogram.Range range) {
+        if (range == null) return 0;
+        BigDecimal from;
+        BigDecimal to;
+        switch (op(filter)) {
+            case "between" -> {
+                from = new BigDecimal(filter.from());
+                to = new BigDecimal(filter.to());
+            }
+            case "gte" -> {
+                from = new BigDecimal(filter.value());
+                to = range.max();
+            }
+            case "lte" -> {
+                from = range.min();
+                to = new BigDecimal(filter.value());
+            }
+            default -> {
+                return EQUALITY_SELECTIVITY;
+            }
+        }
+        BigDecimal low = from.max(range.min());
+        BigDecimal high = to.min(range.max());
+        if (low.compareTo(high) > 0) return 0;
+        BigDecimal width = range.max().subtract(range.min());
+        if (width.signum() == 0) return 1;
+        return high.subtract(low).divide(width, 4, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    static Predicate valuePredicate(Step step, Root<ListingAttribute> subRoot, CriteriaBuilder cb) {
+        AttributeFilter filter = step.filter();
+        switch (type(filter)) {
+            case "ENUM":
+                return subRoot.get("option").get("id").in(step.optionIds());
+            case "NUMBER":
+                String op = op(filter);
+                if ("between".equals(op)) {
+                    return cb.between(subRoot.get("vNumber"), new BigDecimal(filter.from()), new BigDecimal(filter.to()));
+                } else if ("gte".equals(op)) {
+                    return cb.greaterThanOrEqualTo(subRoot.get("vNumber"), new BigDecimal(filter.value()));
+                } else if ("lte".equals(op)) {
+                    return cb.lessThanOrEqualTo(subRoot.get("vNumber"), new BigDecimal(filter.value()));
+                }
+                return cb.equal(subRoot.get("vNumber"), new BigDecimal(filter.value()));
+            case "BOOLEAN":
+                return cb.equal(subRoot.get("vBoolean"), booleanValue(filter));
+            default:
+                // v_text_norm jest już po lower/trim, więc wystarczy znormalizować wartość z żądania
+                String value = ListingAttribute.normalizeText(filter.value());
+                if ("like".equals(op(filter))) {
+                    return cb.like(subRoot.get("vTextNorm"), "%" + value + "%");
+                }
+                return cb.equal(subRoot.get("vTextNorm"), value);
+        }
+    }
+
+    private static List<String> enumValues(AttributeFilter filter) {
+        if ("in".equals(op(filter)) && filter.values() != null && !filter.values().isEmpty()) return filter.values();
+        return filter.value() == null ? List.of() : List.of(filter.value());
+    }
+
+    private static boolean booleanValue(AttributeFilter filter) {
+        return "true".equalsIgnoreCase(filter.value()) || "1".equals(filter.value());
+    }
+
+    private static String type(AttributeFilter filter) {
+        return Optional.ofNullable(filter.type()).orElse("STRING").toUpperCase(Locale.ROOT);
+    }
+
+    private static String op(AttributeFilter filter) {
+        return Optional.ofNullable(filter.op()).orElse("eq").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,79 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.listing.listing.repository.ListingAttributeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Liczności wartości atrybutów wśród aktywnych ogłoszeń (per atrybut, opcja ENUM, wartość logiczna)
+ * oraz zakresy wartości liczbowych. Odświeżane okresowo dwoma zapytaniami GROUP BY;
+ * służy AttributeFilterPlanner do szacowania, który filtr odrzuci najwięcej ogłoszeń.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class AttributeValueHistogram {
+
+    //Repo
+    private final ListingAttributeRepository listingAttributeRepository;
+
+    private volatile Stats stats;
+
+    record Range(BigDecimal min, BigDecimal max) {
+    }
+
+    private record Stats(Map<Long, Long> attributeTotals,
+                         Map<Long, Long> optionCounts,
+                         Map<String, Long> booleanCounts,
+                         Map<Long, Range> numberRanges) {
+    }
+
+    boolean isLoaded() {
+        return stats != null;
+    }
+
+    long total(Long attributeId) {
+        return stats.attributeTotals().getOrDefault(attributeId, 0L);
+    }
+
+    long option(Long optionId) {
+        return stats.optionCounts().getOrDefault(optionId, 0L);
+    }
+
+    long bool(Long attributeId, boolean value) {
+        return stats.booleanCounts().getOrDefault(attributeId + ":" + value, 0L);
+    }
+
+    Range range(Long attributeId) {
+        return stats.numberRanges().get(attributeId);
+    }
+
+    @Scheduled(fixedDelayString = "${listing.search.planner.histogram-refresh:PT10M}")
+    public void refresh() {
+        try {
+            Map<Long, Long> totals = new HashMap<>();
+            Map<Long, Long> options = new HashMap<>();
+            Map<String, Long> booleans = new HashMap<>();
+            for (ListingAttributeRepository.ValueCount row : listingAttributeRepository.countValues(ListingStatus.ACTIVE)) {
+                totals.merge(row.getAttributeId(), row.getListings(), Long::sum);
+                if (row.getOptionId() != null) options.merge(row.getOptionId(), row.getListings(), Long::sum);
+                if (row.getBooleanValue() != null) booleans.merge(row.getAttributeId() + ":" + row.getBooleanValue(), row.getListings(), Long::sum);
+            }
+            Map<Long, Range> ranges = new HashMap<>();
+            for (ListingAttributeRepository.NumberRange row : listingAttributeRepository.numberRanges(ListingStatus.ACTIVE)) {
+                ranges.put(row.getAttributeId(), new Range(row.getMin(), row.getMax()));
+            }
+            stats = new Stats(Map.copyOf(totals), Map.copyOf(options), Map.copyOf(booleans), Map.copyOf(ranges));
+        } catch (RuntimeException ex) {
+            // Bez histogramu planer zachowuje kolejność filtrów z żądania
+            log.warn("Attribute value histogram refresh failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.dto.ListingCoverDto;
+import com.BINM.listing.listing.mapper.ListingMapper;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingCover;
+import com.BINM.listing.listing.model.ListingMedia;
+import com.BINM.listing.listing.repository.ListingMediaRepository;
+import com.BINM.user.io.ProfileResponse;
+import com.BINM.user.service.ProfileFacade;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Składa karty ogłoszeń (ListingCoverDto) dla całej strony naraz:
+ * jedno zapytanie o sprzedawców i jedno o zdjęcia okładkowe, niezależnie od rozmiaru strony.
+ */
+@Component
+@RequiredArgsConstructor
+class ListingCoverAssembler {
+    //Repo
+    private final ListingMediaRepository listingMediaRepository;
+    //Facade
+    private final ProfileFacade profileFacade;
+    //Mapper
+    private final ListingMapper listingMapper;
+
+    // Karty z listing_cover są już kompletne - bez dodatkowych zapytań
+    Page<ListingCoverDto> fromCovers(Page<ListingCover> covers) {
+        return covers.map(listingMapper::toCoverDto);
+    }
+
+    List<ListingCoverDto> toCoverDtos(List<Listing> listings) {
+        if (listings.isEmpty()) return List.of();
+
+        List<String> sellerIds = listings.stream().map(Listing::getSellerUserId).distinct().toList();
+        Map<String, ProfileResponse> sellerProfiles = profileFacade.getProfilesById(sellerIds).stream()
+                .collect(Collectors.toMap(ProfileResponse::userId, Function.identity()));
+
+        List<Long> listingIds = listings.stream().map(Listing::getId).toList();
+        Map<Long, String> coverUrls = listingMediaRepository.findCoversByListingIdIn(listingIds).stream()
+                .collect(Collectors.toMap(m -> m.getListing().getId(), ListingMedia::getMediaUrl));
+
+        return listings.stream()
+                .map(l -> listingMapper.toCoverDto(l, sellerProfiles.get(l.getSellerUserId()), coverUrls.get(l.getId())))
+                .toList();
+    }
+}
@@ -0,0 +1,118 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingCover;
+import com.BINM.listing.listing.model.ListingMedia;
+import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.listing.listing.repository.ListingCoverRepository;
+import com.BINM.listing.listing.repository.ListingMediaRepository;
+import com.BINM.listing.listing.repository.ListingRepository;
+import com.BINM.user.event.ProfileUpdatedEvent;
+import com.BINM.user.io.ProfileResponse;
+import com.BINM.user.service.ProfileFacade;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utrzymuje tabelę listing_cover. Nasłuchuje synchronicznie, więc karta zmienia się
+ * w tej samej transakcji co ogłoszenie (albo profil sprzedawcy) i nie ma okna niespójności.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class ListingCoverProjector {
+    //Repo
+    private final ListingCoverRepository listingCoverRepository;
+    private final ListingRepository listingRepository;
+    private final ListingMediaRepository listingMediaRepository;
+    //Facade
+    private final ProfileFacade profileFacade;
+
+    @EventListener
+    public void onListingChanged(ListingChangedEvent event) {
+        if (event.isDeleted()) {
+            listingCoverRepository.deleteByPublicId(event.publicId());
+            return;
+        }
+        listingRepository.findByPublicId(event.publicId()).ifPresent(this::project);
+    }
+
+    // Wygaszenie zmienia na karcie tylko status - jedno UPDATE na całą paczkę zamiast projekcji każdego ogłoszenia
+    @EventListener
+    public void onListingsExpired(ListingsExpiredEvent event) {
+        listingCoverRepository.updateStatus(event.listingIds(), ListingStatus.EXPIRED, OffsetDateTime.now());
+    }
+
+    @EventListener
+    public void onProfileUpdated(ProfileUpdatedEvent event) {
+        int updated = listingCoverRepository.updateSellerName(event.userId(), event.name());
+        log.debug("Updated seller name on {} listing covers for user {}", updated, event.userId());
+    }
+
+    void project(Listing l) {
+        projectAll(List.of(l));
+    }
+
+    // Po jednym zapytaniu o karty, zdjęcia i sprzedawców niezależnie od liczby ogłoszeń
+    void projectAll(List<Listing> listings) {
+        if (listings.isEmpty()) return;
+        List<Long> listingIds = listings.stream().map(Listing::getId).toList();
+        Map<Long, ListingCover> existing = listingCoverRepository.findAllById(listingIds).stream()
+                .collect(Collectors.toMap(ListingCover::getListingId, Function.identity()));
+        Map<Long, String> coverUrls = listingMediaRepository.findCoversByListingIdIn(listingIds).stream()
+                .collect(Collectors.toMap(m -> m.getListing().getId(), ListingMedia::getMediaUrl));
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ListingCover> covers = new ArrayList<>(listings.size());
+        for (Listing l : listings) {
+            ListingCover cover = existing.getOrDefault(l.getId(),
+                    ListingCover.builder().listingId(l.getId()).publicId(l.getPublicId()).build());
+            cover.setTitle(l.getTitle());
+            cover.setPriceAmount(l.getPriceAmount());
+            cover.setNegotiable(l.getNegotiable());
+            cover.setLocationCity(l.getLocationCity());
+            cover.setLatitude(l.getLatitude());
+            cover.setLongitude(l.getLongitude());
+            cover.setSellerUserId(l.getSellerUserId());
+            cover.setStatus(l.getStatus());
+            cover.setCategoryId(l.getCategory().getId());
+            cover.setCreatedAt(Optional.ofNullable(l.getCreatedAt()).orElse(now));
+            // updated_at encji ustawia się dopiero przy flushu, więc bierzemy czas samej zmiany
+            cover.setUpdatedAt(now);
+            cover.setPublishedAt(l.getPublishedAt());
+            cover.setCoverImageUrl(coverUrls.get(l.getId()));
+            if (cover.getRandomKey() == null) {
+                cover.setRandomKey(ThreadLocalRandom.current().nextDouble());
+            }
+            covers.add(cover);
+        }
+
+        List<String> unnamedSellers = covers.stream()
+                .filter(c -> c.getSellerName() == null)
+                .map(ListingCover::getSellerUserId)
+                .distinct()
+                .toList();
+        if (!unnamedSellers.isEmpty()) {
+            Map<String, String> sellerNames = profileFacade.getProfilesById(unnamedSellers).stream()
+                    .filter(p -> p.name() != null)
+                    .collect(Collectors.toMap(ProfileResponse::userId, ProfileResponse::name, (a, b) -> a));
+            covers.stream()
+                    .filter(c -> c.getSellerName() == null)
+                    .forEach(c -> c.setSellerName(sellerNames.get(c.getSellerUserId())));
+        }
+        listingCoverRepository.saveAll(covers);
+    }
+}
@@ -0,0 +1,77 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.dto.ListingDto;
+import com.BINM.listing.listing.dto.ListingEditDto;
+import com.BINM.listing.listing.mapper.ListingMapper;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingAttribute;
+import com.BINM.listing.listing.model.ListingMedia;
+import com.BINM.listing.listing.repository.ListingAttributeRepository;
+import com.BINM.listing.listing.repository.ListingMediaRepository;
+import com.BINM.user.io.ProfileResponse;
+import com.BINM.user.service.ProfileFacade;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Składa pełne szczegóły ogłoszeń (ListingDto) dla wielu ogłoszeń naraz: atrybuty razem z definicjami
+ * i opcjami jednym JOIN FETCH, zdjęcia jednym zapytaniem i sprzedawców jednym zapytaniem -
+ * bez leniwego doczytywania attribute/option przy mapowaniu każdego atrybutu.
+ */
+@Component
+@RequiredArgsConstructor
+class ListingDetailAssembler {
+    //Repo
+    private final ListingAttributeRepository listingAttributeRepository;
+    private final ListingMediaRepository listingMediaRepository;
+    //Facade
+    private final ProfileFacade profileFacade;
+    //Mapper
+    private final ListingMapper listingMapper;
+
+    ListingDto toDto(Listing listing) {
+        return toDtos(List.of(listing)).get(0);
+    }
+
+    // Kolejność wyników jak w listings
+    List<ListingDto> toDtos(List<Listing> listings) {
+        if (listings.isEmpty()) return List.of();
+
+        List<Long> listingIds = listings.stream().map(Listing::getId).toList();
+        Map<Long, List<ListingAttribute>> attributes = attributesByListing(listingIds);
+        Map<Long, List<ListingMedia>> media = mediaByListing(listingIds);
+
+        List<String> sellerIds = listings.stream().map(Listing::getSellerUserId).distinct().toList();
+        Map<String, ProfileResponse> sellerProfiles = profileFacade.getProfilesById(sellerIds).stream()
+                .collect(Collectors.toMap(ProfileResponse::userId, Function.identity()));
+
+        return listings.stream()
+                .map(l -> listingMapper.toDto(l, sellerProfiles.get(l.getSellerUserId()),
+                        attributes.getOrDefault(l.getId(), List.of()), media.getOrDefault(l.getId(), List.of())))
+                .toList();
+    }
+
+    // Edycja nie potrzebuje sprzedawcy - tylko atrybuty i zdjęcia
+    ListingEditDto toEditDto(Listing listing) {
+        List<Long> listingIds = List.of(listing.getId());
+        return listingMapper.toEditDto(listing,
+                attributesByListing(listingIds).getOrDefault(listing.getId(), List.of()),
+                mediaByListing(listingIds).getOrDefault(listing.getId(), List.of()));
+    }
+
+    private Map<Long, List<ListingAttribute>> attributesByListing(List<Long> listingIds) {
+        return listingAttributeRepository.findWithDefinitionsByListingIdIn(listingIds).stream()
+                .collect(Collectors.groupingBy(a -> a.getListing().getId()));
+    }
+
+    // groupingBy zachowuje kolejność position z zapytania w obrębie ogłoszenia
+    private Map<Long, List<ListingMedia>> mediaByListing(List<Long> listingIds) {
+        return listingMediaRepository.findByListingIdInOrderByPositionAsc(listingIds).stream()
+                .collect(Collectors.groupingBy(m -> m.getListing().getId()));
+    }
+}
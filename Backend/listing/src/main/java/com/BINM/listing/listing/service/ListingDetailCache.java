@@ -0,0 +1,184 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.events.ReplicatedEvent;
+import com.BINM.listing.listing.dto.ListingAttributeDto;
+import com.BINM.listing.listing.dto.ListingDetail;
+import com.BINM.listing.listing.dto.ListingDto;
+import com.BINM.listing.listing.dto.ListingMediaDto;
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import com.BINM.user.event.ProfileUpdatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cache gotowych szczegółów aktywnych ogłoszeń (ListingDto) po publicId. Popularne ogłoszenia czytane są
+ * z pamięci bez transakcji i zapytań. Wpis znika po każdej zmianie ogłoszenia i po zmianie profilu sprzedawcy.
+ * Budżet liczony w bajtach, nie w liczbie wpisów. Domyślnie wpisy trzymane są zserializowane (ListingDtoCodec),
+ * co przy tym samym budżecie mieści kilka razy więcej ogłoszeń kosztem dekodowania przy odczycie.
+ * Każdy wpis ma ETag ze skrótu treści - warunkowy GET trafiający w cache nie dekoduje ani nie serializuje wpisu.
+ * Skrót liczony jest z JSON-a, a nie z kodowania ListingDtoCodec: identyfikatory słownika zależą od historii procesu,
+ * więc ta sama treść miałaby inny ETag na każdej replice i po restarcie.
+ */
+@Component
+class ListingDetailCache {
+
+    // Narzut obiektu/rekordu i pól niebędących tekstem - do szacowania wagi wpisu
+    private static final int OBJECT_OVERHEAD_BYTES = 48;
+    // Entry, ETag i nagłówek tablicy byte[] przy wpisie zserializowanym
+    private static final int SERIALIZED_OVERHEAD_BYTES = 96;
+    // 64 bity skrótu SHA-256 - wystarczą, żeby dwie wersje jednego ogłoszenia się nie pomyliły
+    private static final int ETAG_BYTES = 8;
+
+    private final Cache<UUID, Entry> details;
+    private final TransactionTemplate readOnlyTx;
+    private final Counter invalidations;
+    private final ListingDtoCodec codec;
+    private final ObjectMapper objectMapper;
+    private final boolean serialized;
+
+    // sellerId trzymany osobno, żeby unieważnienie po zmianie profilu nie wymagało dekodowania;
+    // wypełnione jest albo dto, albo payload - zależnie od trybu
+    private record Entry(String sellerId, ListingDto dto, byte[] payload, String etag, int weight) {
+    }
+
+    ListingDetailCache(MeterRegistry meterRegistry,
+                       PlatformTransactionManager transactionManager,
+                       ListingDtoCodec codec,
+                       ObjectMapper objectMapper,
+                       @Value("${listing.detail-cache.serialized:true}") boolean serialized,
+                       @Value("${listing.detail-cache.max-size:64MB}") DataSize maxSize,
+                       @Value("${listing.detail-cache.ttl:10m}") Duration ttl) {
+        this.details = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((UUID key, Entry entry) -> entry.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        CaffeineCacheMetrics.monitor(meterRegistry, details, "listing.detail");
+        Gauge.builder("listing.detail.cache.hit.ratio", details, c -> c.stats().hitRate()).register(meterRegistry);
+        Gauge.builder("listing.detail.cache.memory", details, c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .baseUnit("bytes").register(meterRegistry);
+        this.invalidations = Counter.builder("listing.detail.cache.invalidations").register(meterRegistry);
+        this.codec = codec;
+        this.objectMapper = objectMapper;
+        this.serialized = serialized;
+        Gauge.builder("listing.detail.cache.dictionary", codec, ListingDtoCodec::dictionarySize).register(meterRegistry);
+    }
+
+    /**
+     * Chybienie ładuje wpis w transakcji tylko do odczytu. Równoległe chybienia tego samego klucza czekają
+     * na jedno ładowanie (Caffeine liczy wartość raz na klucz), więc zimny popularny wpis to jedno zapytanie.
+     * Wyjątek z loadera (np. ogłoszenie nieaktywne) nie trafia do cache.
+     */
+    ListingDetail get(UUID publicId, Supplier<ListingDto> loader) {
+        Entry entry = details.get(publicId, key -> entry(readOnlyTx.execute(status -> loader.get())));
+        return new ListingDetail(entry.payload() == null ? entry.dto() : codec.decode(entry.payload()), entry.etag());
+    }
+
+    // Tylko podgląd - bez ładowania i bez wpływu na statystyki trafień
+    Optional<String> cachedEtag(UUID publicId) {
+        return Optional.ofNullable(details.asMap().get(publicId)).map(Entry::etag);
+    }
+
+    // Unieważnienie czeka na trwające ładowanie tego klucza, więc w cache nie zostaje stan sprzed commita
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        details.invalidate(event.publicId());
+        invalidations.increment();
+    }
+
+    // Bez tego inne repliki serwowałyby stary szczegół i ETag aż do wygaśnięcia wpisu
+    @EventListener
+    public void onReplicatedListingChanged(ReplicatedEvent<ListingChangedEvent> replicated) {
+        onListingChanged(replicated.event());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingsExpired(ListingsExpiredEvent event) {
+        details.invalidateAll(event.publicIds());
+        invalidations.increment(event.publicIds().size());
+    }
+
+    @EventListener
+    public void onReplicatedListingsExpired(ReplicatedEvent<ListingsExpiredEvent> replicated) {
+        onListingsExpired(replicated.event());
+    }
+
+    // Nazwa sprzedawcy jest częścią ListingDto; zmiany profilu są rzadkie, więc wystarcza przegląd wpisów
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProfileUpdated(ProfileUpdatedEvent event) {
+        if (details.asMap().values().removeIf(e -> event.userId().equals(e.sellerId()))) {
+            invalidations.increment();
+        }
+    }
+
+    @EventListener
+    public void onReplicatedProfileUpdated(ReplicatedEvent<ProfileUpdatedEvent> replicated) {
+        onProfileUpdated(replicated.event());
+    }
+
+    private Entry entry(ListingDto dto) {
+        String sellerId = dto.seller() != null ? dto.seller().id() : null;
+        // Koszt serializacji do JSON tylko przy ładowaniu wpisu
+        String etag = etag(dto);
+        if (!serialized) return new Entry(sellerId, dto, null, etag, estimateBytes(dto));
+        byte[] payload = codec.encode(dto);
+        return new Entry(sellerId, null, payload, etag, payload.length + SERIALIZED_OVERHEAD_BYTES);
+    }
+
+    private String etag(ListingDto dto) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(dto));
+            return "l" + HexFormat.of().formatHex(digest, 0, ETAG_BYTES);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Przybliżenie: znaki tekstów po 2 bajty plus stały narzut na obiekt
+    static int estimateBytes(ListingDto dto) {
+        long bytes = OBJECT_OVERHEAD_BYTES * 4L
+                + chars(dto.title()) + chars(dto.description()) + chars(dto.currency())
+                + chars(dto.locationCity()) + chars(dto.locationRegion()) + chars(dto.status());
+        if (dto.seller() != null) bytes += OBJECT_OVERHEAD_BYTES + chars(dto.seller().id()) + chars(dto.seller().name());
+        if (dto.attributes() != null) {
+            for (ListingAttributeDto a : dto.attributes()) {
+                bytes += OBJECT_OVERHEAD_BYTES + chars(a.key()) + chars(a.label()) + chars(a.stringValue())
+                        + chars(a.enumValue()) + chars(a.enumLabel());
+            }
+        }
+        if (dto.media() != null) {
+            for (ListingMediaDto m : dto.media()) bytes += OBJECT_OVERHEAD_BYTES + chars(m.url()) + chars(m.type());
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD_BYTES / 2 + 2L * value.length();
+    }
+}
@@ -0,0 +1,374 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.attribute.model.AttributeType;
+import com.BINM.listing.listing.dto.ListingAttributeDto;
+import com.BINM.listing.listing.dto.ListingDto;
+import com.BINM.listing.listing.dto.ListingMediaDto;
+import com.BINM.listing.listing.dto.SellerInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zwarty zapis binarny ListingDto do cache: stały układ pól (bez nazw), liczby jako varint, teksty w UTF-8.
+ * Powtarzalne krótkie teksty (klucze i etykiety atrybutów, miasta, waluty, statusy) trafiają do wspólnego
+ * słownika i w rekordzie zajmują 1-3 bajty, a po odczycie są tą samą instancją String we wszystkich DTO.
+ * Wpis to jedna tablica byte[] zamiast kilkudziesięciu obiektów.
+ */
+@Component
+class ListingDtoCodec {
+
+    // Do słownika tylko krótkie teksty - opisy i tytuły się nie powtarzają
+    private static final int MAX_DICTIONARY_LENGTH = 64;
+    private static final AttributeType[] TYPES = AttributeType.values();
+
+    private final int maxDictionarySize;
+    private final Map<String, Integer> dictionaryIds = new ConcurrentHashMap<>();
+    // Czytany bez blokady - nowy wpis jest widoczny, zanim jego id trafi do jakiegokolwiek rekordu
+    private volatile String[] dictionary = new String[256];
+    private int dictionarySize;
+
+    ListingDtoCodec(@Value("${listing.detail-cache.dictionary-size:65536}") int maxDictionarySize) {
+        this.maxDictionarySize = maxDictionarySize;
+    }
+
+    byte[] encode(ListingDto dto) {
+        Writer out = new Writer();
+        out.writeUuid(dto.publicId());
+        out.writeNullableLong(dto.categoryId());
+        out.writeByte(dto.seller() == null ? 0 : 1);
+        if (dto.seller() != null) {
+            out.writeString(dto.seller().id());
+            out.writeString(dto.seller().name());
+        }
+        out.writeString(dto.title());
+        out.writeString(dto.description());
+        out.writeDecimal(dto.priceAmount());
+        writeShared(out, dto.currency());
+        out.writeBoolean(dto.negotiable());
+        writeShared(out, dto.locationCity());
+        writeShared(out, dto.locationRegion());
+        out.writeNullableDouble(dto.latitude());
+        out.writeNullableDouble(dto.longitude());
+        writeShared(out, dto.status());
+        out.writeDateTime(dto.publishedAt());
+        out.writeDateTime(dto.expiresAt());
+        out.writeDateTime(dto.createdAt());
+        out.writeDateTime(dto.updatedAt());
+        writeAttributes(out, dto.attributes());
+        writeMedia(out, dto.media());
+        return out.toByteArray();
+    }
+
+    // Wpisy żyją tylko w pamięci tego procesu, więc układ pól nie potrzebuje wersji
+    ListingDto decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        UUID publicId = in.readUuid();
+        Long categoryId = in.readNullableLong();
+        SellerInfo seller = in.readByte() == 0 ? null : new SellerInfo(in.readString(), in.readString());
+        return new ListingDto(publicId, categoryId, seller,
+                in.readString(),
+                in.readString(),
+                in.readDecimal(),
+                readShared(in),
+                in.readBoolean(),
+                readShared(in),
+                readShared(in),
+                in.readNullableDouble(),
+                in.readNullableDouble(),
+                readShared(in),
+                in.readDateTime(),
+                in.readDateTime(),
+                in.readDateTime(),
+                in.readDateTime(),
+                readAttributes(in),
+                readMedia(in));
+    }
+
+    int dictionarySize() {
+        return dictionaryIds.size();
+    }
+
+    private void writeAttributes(Writer out, List<ListingAttributeDto> attributes) {
+        out.writeNullableCount(attributes);
+        if (attributes == null) return;
+        for (ListingAttributeDto a : attributes) {
+            writeShared(out, a.key());
+            writeShared(out, a.label());
+            out.writeVarint(a.type() == null ? 0 : a.type().ordinal() + 1);
+            out.writeString(a.stringValue());
+            out.writeDecimal(a.numberValue());
+            out.writeBoolean(a.booleanValue());
+            writeShared(out, a.enumValue());
+            writeShared(out, a.enumLabel());
+        }
+    }
+
+    private List<ListingAttributeDto> readAttributes(Reader in) {
+        int count = in.readNullableCount();
+        if (count < 0) return null;
+        List<ListingAttributeDto> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = readShared(in);
+            String label = readShared(in);
+            int type = in.readVarint();
+            attributes.add(new ListingAttributeDto(key, label, type == 0 ? null : TYPES[type - 1],
+                    in.readString(), in.readDecimal(), in.readBoolean(), readShared(in), readShared(in)));
+        }
+        return attributes;
+    }
+
+    private void writeMedia(Writer out, List<ListingMediaDto> media) {
+        out.writeNullableCount(media);
+        if (media == null) return;
+        for (ListingMediaDto m : media) {
+            out.writeString(m.url());
+            writeShared(out, m.type());
+            out.writeNullableLong(m.position() == null ? null : m.position().longValue());
+        }
+    }
+
+    private List<ListingMediaDto> readMedia(Reader in) {
+        int count = in.readNullableCount();
+        if (count < 0) return null;
+        List<ListingMediaDto> media = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String url = in.readString();
+            String type = readShared(in);
+            Long position = in.readNullableLong();
+            media.add(new ListingMediaDto(url, type, position == null ? null : position.intValue()));
+        }
+        return media;
+    }
+
+    // 0 = null, nieparzyste = id ze słownika, parzyste = tekst zapisany w miejscu
+    private void writeShared(Writer out, String value) {
+        if (value == null) {
+            out.writeVarint(0);
+            return;
+        }
+        Integer id = dictionaryId(value);
+        if (id != null) {
+            out.writeVarint((id << 1) | 1);
+        } else {
+            out.writeVarint(2);
+            out.writeString(value);
+        }
+    }
+
+    private String readShared(Reader in) {
+        int tag = in.readVarint();
+        if (tag == 0) return null;
+        if ((tag & 1) == 1) return dictionary[tag >>> 1];
+        return in.readString();
+    }
+
+    private Integer dictionaryId(String value) {
+        Integer id = dictionaryIds.get(value);
+        if (id != null || value.length() > MAX_DICTIONARY_LENGTH) return id;
+        synchronized (this) {
+            id = dictionaryIds.get(value);
+            if (id != null) return id;
+            if (dictionarySize >= maxDictionarySize) return null;
+            String[] table = dictionary;
+            if (dictionarySize == table.length) table = Arrays.copyOf(table, table.length * 2);
+            table[dictionarySize] = value;
+            dictionary = table;
+            dictionaryIds.put(value, dictionarySize);
+            return dictionarySize++;
+        }
+    }
+
+    private static final class Writer {
+        private byte[] buf = new byte[256];
+        private int pos;
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarint(int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        // ZigZag - małe liczby ujemne też zajmują jeden bajt
+        void writeSignedVarlong(long value) {
+            writeVarlong((value << 1) ^ (value >> 63));
+        }
+
+        void writeNullableLong(Long value) {
+            writeByte(value == null ? 0 : 1);
+            if (value != null) writeSignedVarlong(value);
+        }
+
+        void writeNullableDouble(Double value) {
+            writeByte(value == null ? 0 : 1);
+            if (value != null) writeFixedLong(Double.doubleToLongBits(value));
+        }
+
+        void writeBoolean(Boolean value) {
+            writeByte(value == null ? 0 : value ? 2 : 1);
+        }
+
+        void writeNullableCount(List<?> list) {
+            writeVarint(list == null ? 0 : list.size() + 1);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length + 1);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buf, pos, utf8.length);
+            pos += utf8.length;
+        }
+
+        void writeDecimal(BigDecimal value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            writeVarint(unscaled.length + 1);
+            ensure(unscaled.length);
+            System.arraycopy(unscaled, 0, buf, pos, unscaled.length);
+            pos += unscaled.length;
+            writeSignedVarlong(value.scale());
+        }
+
+        void writeDateTime(OffsetDateTime value) {
+            writeByte(value == null ? 0 : 1);
+            if (value == null) return;
+            writeSignedVarlong(value.toEpochSecond());
+            writeVarint(value.getNano());
+            writeSignedVarlong(value.getOffset().getTotalSeconds());
+        }
+
+        void writeUuid(UUID value) {
+            writeFixedLong(value.getMostSignificantBits());
+            writeFixedLong(value.getLeastSignificantBits());
+        }
+
+        private void writeFixedLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) buf[pos++] = (byte) (value >>> shift);
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        int readByte() {
+            return buf[pos++];
+        }
+
+        int readVarint() {
+            return (int) readVarlong();
+        }
+
+        long readVarlong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        long readSignedVarlong() {
+            long raw = readVarlong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        Long readNullableLong() {
+            return readByte() == 0 ? null : readSignedVarlong();
+        }
+
+        Double readNullableDouble() {
+            return readByte() == 0 ? null : Double.longBitsToDouble(readFixedLong());
+        }
+
+        Boolean readBoolean() {
+            int b = readByte();
+            return b == 0 ? null : b == 2;
+        }
+
+        int readNullableCount() {
+            return readVarint() - 1;
+        }
+
+        String readString() {
+            int length = readVarint() - 1;
+            if (length < 0) return null;
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        BigDecimal readDecimal() {
+            int length = readVarint() - 1;
+            if (length < 0) return null;
+            BigInteger unscaled = new BigInteger(buf, pos, length);
+            pos += length;
+            return new BigDecimal(unscaled, (int) readSignedVarlong());
+        }
+
+        OffsetDateTime readDateTime() {
+            if (readByte() == 0) return null;
+            long epochSecond = readSignedVarlong();
+            int nano = readVarint();
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) readSignedVarlong());
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+        }
+
+        UUID readUuid() {
+            return new UUID(readFixedLong(), readFixedLong());
+        }
+
+        private long readFixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) value = (value << 8) | (buf[pos++] & 0xFF);
+            return value;
+        }
+    }
+}
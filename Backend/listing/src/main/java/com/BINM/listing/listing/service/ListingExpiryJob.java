@@ -0,0 +1,195 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.jobs.service.JobFacade;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import com.BINM.listing.listing.model.ListingStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wygasza przeterminowane ogłoszenia paczkami: jedno UPDATE ... RETURNING na paczkę, każda paczka
+ * we własnej transakcji. Przerwany przebieg nie zostawia niczego w połowie - zatwierdzone paczki są już EXPIRED,
+ * reszta wciąż ACTIVE i trafi do następnego przebiegu. FOR UPDATE SKIP LOCKED pozwala pracować kilku
+ * instancjom naraz bez podwójnego wygaszania i bez czekania na wiersze edytowane przez użytkowników.
+ * Przegląd dzieli tabelę na zakresy id (JobFacade.runPartitioned) - repliki biorą różne zakresy zamiast
+ * przeglądać całość każda osobno.
+ */
+@Component
+@Slf4j
+class ListingExpiryJob {
+
+    private static final String SWEEP_JOB = "listing-expiry-sweep";
+    private static final String MAX_ID_SQL = "SELECT coalesce(max(id), 0) FROM listing";
+
+    // Najstarsze terminy najpierw - przy zaległościach w pierwszej kolejności znikają najdłużej przeterminowane
+    private static final String EXPIRE_BATCH_SQL = """
+            UPDATE listing l SET status = ?, updated_at = now()
+            WHERE l.id IN (
+                SELECT id FROM listing
+                WHERE status = ? AND expires_at < ? AND id >= ? AND id < ?
+                ORDER BY expires_at, id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING l.id, l.public_id, l.category_id""";
+
+    // Wskazane ogłoszenia (z koła czasowego) - termin sprawdzany ponownie w bazie, więc nieaktualny wpis nic nie zmieni
+    private static final String EXPIRE_IDS_SQL = """
+            UPDATE listing l SET status = ?, updated_at = now()
+            WHERE l.id IN (
+                SELECT id FROM listing
+                WHERE public_id IN (%s) AND status = ? AND expires_at <= ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING l.id, l.public_id, l.category_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    //Facade
+    private final JobFacade jobFacade;
+
+    private final TransactionTemplate batchTx;
+    private final int batchSize;
+    private final int partitions;
+    private final Duration sweepInterval;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter expired;
+    private final Counter batches;
+    private final Timer runs;
+    // Postęp bieżącego (albo ostatniego) przebiegu
+    private final AtomicLong runExpired = new AtomicLong();
+
+    private record ExpiredRow(Long id, UUID publicId, Long categoryId) {
+    }
+
+    private static final RowMapper<ExpiredRow> ROW_MAPPER = (rs, i) ->
+            new ExpiredRow(rs.getLong("id"), rs.getObject("public_id", UUID.class), rs.getObject("category_id", Long.class));
+
+    ListingExpiryJob(JdbcTemplate jdbcTemplate,
+                     ApplicationEventPublisher eventPublisher,
+                     JobFacade jobFacade,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry,
+                     @Value("${listing.expiry.batch-size:500}") int batchSize,
+                     @Value("${listing.expiry.partitions:4}") int partitions,
+                     @Value("${listing.expiry.sweep-interval:PT1H}") Duration sweepInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jobFacade = jobFacade;
+        this.batchTx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.partitions = partitions;
+        this.sweepInterval = sweepInterval;
+        this.expired = Counter.builder("listing.expiry.expired").register(meterRegistry);
+        this.batches = Counter.builder("listing.expiry.batches").register(meterRegistry);
+        this.runs = Timer.builder("listing.expiry.run").register(meterRegistry);
+        Gauge.builder("listing.expiry.run.expired", runExpired, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Jeden przebieg do wyczerpania zaległości sprzed jego startu. Granica czasu jest stała na cały przebieg,
+     * więc ogłoszenia wygasające w jego trakcie nie przedłużają go w nieskończoność.
+     * Zwraca liczbę ogłoszeń wygaszonych przez tę instancję; 0, gdy w tej instancji trwa już inny przebieg
+     * albo wszystkie partycje w tym okresie wzięły inne repliki.
+     */
+    int run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Listing expiry already running, skipping");
+            return 0;
+        }
+        Timer.Sample sample = Timer.start();
+        OffsetDateTime cutoff = OffsetDateTime.now();
+        runExpired.set(0);
+        try {
+            Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+            return jobFacade.runPartitioned(SWEEP_JOB, sweepInterval, 1, maxId == null ? 0 : maxId, partitions,
+                    (fromId, toId) -> expireRange(cutoff, fromId, toId));
+        } finally {
+            sample.stop(runs);
+            running.set(false);
+        }
+    }
+
+    private int expireRange(OffsetDateTime cutoff, long fromId, long toId) {
+        int expiredInRange = 0;
+        while (true) {
+            Integer count = batchTx.execute(status -> expireBatch(cutoff, fromId, toId));
+            if (count == null || count == 0) break;
+            expiredInRange += count;
+            long total = runExpired.addAndGet(count);
+            log.info("Expired batch of {} listings in ids [{}, {}) ({} so far)", count, fromId, toId, total);
+            // Niepełna paczka: zaległości się skończyły albo reszta jest zablokowana przez inną instancję
+            if (count < batchSize) break;
+        }
+        return expiredInRange;
+    }
+
+    /**
+     * Wygasza wskazane ogłoszenia, paczkami po batch-size. Pomija te, które w bazie nie są już aktywne
+     * albo dostały późniejszy termin. Zwraca liczbę faktycznie wygaszonych.
+     */
+    int expire(Collection<UUID> publicIds) {
+        List<UUID> ids = List.copyOf(publicIds);
+        OffsetDateTime cutoff = OffsetDateTime.now();
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Integer count = batchTx.execute(status -> expireChunk(chunk, cutoff));
+            if (count != null) total += count;
+        }
+        return total;
+    }
+
+    private int expireBatch(OffsetDateTime cutoff, long fromId, long toId) {
+        return publish(jdbcTemplate.query(EXPIRE_BATCH_SQL, ROW_MAPPER,
+                ListingStatus.EXPIRED.name(), ListingStatus.ACTIVE.name(), cutoff, fromId, toId, batchSize));
+    }
+
+    private int expireChunk(List<UUID> publicIds, OffsetDateTime cutoff) {
+        List<Object> args = new ArrayList<>(publicIds.size() + 3);
+        args.add(ListingStatus.EXPIRED.name());
+        args.addAll(publicIds);
+        args.add(ListingStatus.ACTIVE.name());
+        args.add(cutoff);
+        String sql = EXPIRE_IDS_SQL.formatted(String.join(", ", Collections.nCopies(publicIds.size(), "?")));
+        return publish(jdbcTemplate.query(sql, ROW_MAPPER, args.toArray()));
+    }
+
+    private int publish(List<ExpiredRow> rows) {
+        if (rows.isEmpty()) return 0;
+
+        Set<Long> categoryIds = new HashSet<>();
+        for (ExpiredRow row : rows) {
+            if (row.categoryId() != null) categoryIds.add(row.categoryId());
+        }
+        // Karty aktualizowane w tej samej transakcji; ulubione, cache i indeks po commicie
+        eventPublisher.publishEvent(new ListingsExpiredEvent(
+                rows.stream().map(ExpiredRow::id).toList(),
+                rows.stream().map(ExpiredRow::publicId).toList(),
+                categoryIds));
+        expired.increment(rows.size());
+        batches.increment();
+        return rows.size();
+    }
+}
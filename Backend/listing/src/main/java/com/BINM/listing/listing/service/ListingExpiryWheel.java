@@ -0,0 +1,191 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.events.ReplicatedEvent;
+import com.BINM.jobs.service.JobFacade;
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.listing.listing.repository.ListingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Wygasza ogłoszenia w ciągu sekund od expiresAt zamiast raz na godzinę. Terminy z najbliższego okna
+ * (listing.expiry.wheel.horizon) trzyma TimerWheel - ładowane przy starcie i co reload-interval.
+ * Zatwierdzone ogłoszenie wygasa za 30 dni, więc do koła trafia przy przeładowaniu, gdy termin wejdzie
+ * w okno. Co takt odpalone ogłoszenia wygasza ListingExpiryJob.
+ * Koło żyje tylko w pamięci instancji: po restarcie wraca z bazy, a przegapione terminy łapie
+ * okresowy przegląd (ListingScheduler). Koło ładuje każda replika (przejęcie jest wtedy natychmiastowe),
+ * ale wygasza tylko lider - pozostałe przesuwają koło i odrzucają odpalone wpisy.
+ * Takty biegną na własnym wątku wirtualnym, więc nie czekają za przebudowami i przeglądami, które dzielą
+ * scheduler @Scheduled.
+ */
+@Component
+@Order(8)
+@Slf4j
+class ListingExpiryWheel implements ApplicationRunner {
+
+    private static final int LOAD_BATCH = 1000;
+    private static final String LEADER_JOB = "listing-expiry-wheel";
+
+    //Repo
+    private final ListingRepository listingRepository;
+    //Job
+    private final ListingExpiryJob expiryJob;
+    //Facade
+    private final JobFacade jobFacade;
+
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private final Duration tickInterval;
+    private final Duration horizon;
+    private final Duration leaderLease;
+    // Dostęp tylko pod blokadą na samym kole
+    private final TimerWheel<UUID> wheel;
+    private final Counter fired;
+    private volatile boolean running;
+    private Thread ticker;
+
+    ListingExpiryWheel(ListingRepository listingRepository,
+                       ListingExpiryJob expiryJob,
+                       JobFacade jobFacade,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${listing.expiry.wheel.enabled:true}") boolean enabled,
+                       @Value("${listing.expiry.wheel.tick:PT1S}") Duration tick,
+                       @Value("${listing.expiry.wheel.horizon:PT2H}") Duration horizon,
+                       @Value("${listing.expiry.wheel.leader-lease:PT30S}") Duration leaderLease) {
+        this.listingRepository = listingRepository;
+        this.expiryJob = expiryJob;
+        this.jobFacade = jobFacade;
+        this.leaderLease = leaderLease;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.tickInterval = tick;
+        this.horizon = horizon;
+        this.wheel = new TimerWheel<>(tick.toMillis(), System.currentTimeMillis());
+        this.fired = Counter.builder("listing.expiry.wheel.fired").register(meterRegistry);
+        Gauge.builder("listing.expiry.wheel.size", this, ListingExpiryWheel::size).register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        reload();
+        start();
+    }
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        ticker = Thread.ofVirtual().name("listing-expiry-wheel").start(this::tickLoop);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (ticker == null) return;
+        try {
+            ticker.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ticker = null;
+    }
+
+    void tick() {
+        if (!enabled) return;
+        List<UUID> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        if (due.isEmpty() || !jobFacade.isLeader(LEADER_JOB, leaderLease)) return;
+        fired.increment(due.size());
+        int expired = expiryJob.expire(due);
+        log.debug("Expiry wheel fired {} listings, expired {}", due.size(), expired);
+    }
+
+    /**
+     * Dokłada do koła terminy z okna [teraz, teraz + horizon]. Łapie też ogłoszenia już przeterminowane -
+     * trafiają do najbliższego taktu. Okno musi być dłuższe niż odstęp między przeładowaniami.
+     */
+    @Scheduled(fixedDelayString = "${listing.expiry.wheel.reload-interval:PT30M}",
+               initialDelayString = "${listing.expiry.wheel.reload-interval:PT30M}")
+    public void reload() {
+        if (!enabled) return;
+        OffsetDateTime until = OffsetDateTime.now().plus(horizon);
+        long afterId = 0;
+        int loaded = 0;
+        while (true) {
+            long from = afterId;
+            List<ListingRepository.ExpiryView> batch = readOnlyTx.execute(status ->
+                    listingRepository.findExpiringBefore(ListingStatus.ACTIVE, until, from, Limit.of(LOAD_BATCH)));
+            if (batch == null || batch.isEmpty()) break;
+            synchronized (wheel) {
+                for (ListingRepository.ExpiryView view : batch) {
+                    wheel.schedule(view.getPublicId(), view.getExpiresAt().toInstant().toEpochMilli());
+                }
+            }
+            loaded += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        log.info("Loaded {} upcoming listing expirations into the wheel", loaded);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (event.isDeleted() || event.status() != ListingStatus.ACTIVE) {
+            synchronized (wheel) {
+                wheel.cancel(event.publicId());
+            }
+        }
+    }
+
+    // Ogłoszenie wycofane na innej replice nie zostaje w kole tej instancji
+    @EventListener
+    public void onReplicatedListingChanged(ReplicatedEvent<ListingChangedEvent> replicated) {
+        onListingChanged(replicated.event());
+    }
+
+    private void tickLoop() {
+        while (running) {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.warn("Expiry wheel tick failed", e);
+            }
+            try {
+                Thread.sleep(tickInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    int size() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+}
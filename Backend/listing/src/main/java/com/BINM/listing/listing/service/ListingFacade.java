@@ -2,9 +2,11 @@ package com.BINM.listing.listing.service;
 
 import com.BINM.listing.listing.dto.*;
 import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ListingFacade {
@@ -12,6 +14,13 @@ public interface ListingFacade {
 
     ListingDto get(UUID publicId);
 
+    ListingDetail getDetail(UUID publicId);
+
+    // ETag szczegółów, jeśli ogłoszenie jest w cache - pozwala odpowiedzieć 304 bez zapytań do bazy
+    Optional<String> cachedDetailEtag(UUID publicId);
+
+    List<ListingDto> getMany(List<UUID> publicIds);
+
     ListingDto update(UUID publicId, ListingUpdateRequest req, String currentUserId);
 
     void delete(UUID publicId, String currentUserId);
@@ -20,8 +29,14 @@ public interface ListingFacade {
 
     Page<ListingCoverDto> listForUser(String userId, int page, int size, ListingStatus status);
 
+    CursorPage<ListingCoverDto> listForUserCursor(String userId, String cursor, int size, ListingStatus status);
+
+    // Każde wywołanie losuje od nowa, więc page nie ma znaczenia - strona jest zawsze ostatnia. Zastępuje to listRandomFeed
+    @Deprecated
     Page<ListingCoverDto> listRandom(int page, int size);
 
+    CursorPage<ListingCoverDto> listRandomFeed(String cursor, int size);
+
     boolean existsById(UUID publicId);
 
     Page<ListingCoverDto> getListingsByIds(List<UUID> publicIds, int page, int size);
@@ -40,5 +55,7 @@ public interface ListingFacade {
 
     Page<ListingCoverDto> getListingsForApproval(int page, int size);
 
+    CursorPage<ListingCoverDto> getListingsForApprovalCursor(String cursor, int size);
+
     ListingDto getWaitingListing(UUID publicId);
 }
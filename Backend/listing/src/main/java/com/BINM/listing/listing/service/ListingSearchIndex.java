@@ -0,0 +1,447 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.dto.ListingSearchRequest;
+import com.BINM.listing.listing.geo.GeoCells;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Odwrócony indeks aktywnych ogłoszeń trzymany w pamięci.
+ * Każde ogłoszenie dostaje rosnący numer dokumentu, więc listy postingów (słowa, kategorie, sprzedawcy,
+ * wartości atrybutów) są posortowanymi tablicami int uzupełnianymi tylko na końcu. Zmiana ogłoszenia
+ * gasi stary dokument w bitmapie live i dodaje nowy; śmieci usuwa okresowa przebudowa.
+ */
+class ListingSearchIndex {
+
+    static final String DISTANCE = "distance";
+    private static final Set<String> SORTABLE = Set.of("priceAmount", "createdAt", "publishedAt", DISTANCE);
+    // Klucz fasety liczbowej po cenie ogłoszenia (a nie po atrybucie)
+    static final String PRICE_FACET = "priceAmount";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<IndexedListing> docs = new ArrayList<>();
+    private final Map<UUID, Integer> docByPublicId = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final NavigableMap<String, Postings> tokens = new TreeMap<>();
+    private final Map<Long, Postings> categories = new HashMap<>();
+    private final Map<String, Postings> sellers = new HashMap<>();
+    private final Map<String, Postings> attributeValues = new HashMap<>();
+    // Te same postingi pogrupowane po kluczu atrybutu - do liczenia faset bez przeglądania dokumentów
+    private final Map<String, Map<String, Postings>> valuesByKey = new HashMap<>();
+
+    record IndexedListing(
+            long id,
+            UUID publicId,
+            long categoryId,
+            String sellerUserId,
+            long createdAt,
+            long publishedAt,
+            BigDecimal price,
+            double latitude,
+            double longitude,
+            Map<String, String> values,
+            Map<String, BigDecimal> numbers
+    ) {
+    }
+
+    // Punkt odniesienia dla sortowania "distance"; radiusKm > 0 dodatkowo zawęża wyniki do okręgu
+    record GeoCircle(double lat, double lon, double radiusKm) {
+
+        double distanceKm(IndexedListing doc) {
+            return GeoCells.distanceKm(lat, lon, doc.latitude(), doc.longitude());
+        }
+    }
+
+    record Query(
+            List<String> tokens,
+            Collection<Long> categoryIds,
+            String sellerUserId,
+            List<ListingSearchRequest.AttributeFilter> attributes,
+            GeoCircle circle,
+            Sort sort,
+            long offset,
+            int limit
+    ) {
+    }
+
+    record Result(List<Long> ids, long total) {
+    }
+
+    // Przedział [from, to) - ostatni kubełek zawiera też wartość maksymalną
+    record Bucket(BigDecimal from, BigDecimal to, long count) {
+    }
+
+    record Facets(Map<String, Map<String, Long>> values, Map<String, List<Bucket>> numbers) {
+    }
+
+    boolean supports(Sort sort) {
+        return sort.stream().allMatch(o -> SORTABLE.contains(o.getProperty()));
+    }
+
+    void add(IndexedListing doc, Collection<String> docTokens) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(doc.publicId());
+            int docId = docs.size();
+            docs.add(doc);
+            docByPublicId.put(doc.publicId(), docId);
+            live.set(docId);
+            for (String token : new HashSet<>(docTokens)) {
+                tokens.computeIfAbsent(token, t -> new Postings()).add(docId);
+            }
+            categories.computeIfAbsent(doc.categoryId(), c -> new Postings()).add(docId);
+            sellers.computeIfAbsent(doc.sellerUserId(), s -> new Postings()).add(docId);
+            doc.values().forEach((key, value) -> {
+                Postings postings = attributeValues.computeIfAbsent(valueKey(key, value), k -> new Postings());
+                postings.add(docId);
+                valuesByKey.computeIfAbsent(key, k -> new HashMap<>()).putIfAbsent(value, postings);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(UUID publicId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(publicId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int liveCount() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int docCount() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Result search(Query q) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(q);
+            if (matches == null || matches.isEmpty()) {
+                return new Result(List.of(), 0);
+            }
+            return new Result(page(matches, q), matches.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liczby wyników dla wartości atrybutów (ENUM, BOOLEAN) i kubełków wartości liczbowych w obrębie zapytania.
+     * Faseta atrybutu, po którym już filtrujemy, pomija ten filtr - inaczej pokazałaby tylko wybraną wartość.
+     */
+    Facets facets(Query q, Collection<String> valueKeys, Collection<String> numberKeys, int buckets) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> matches = new HashMap<>();
+            Map<String, Map<String, Long>> values = new LinkedHashMap<>();
+            for (String key : valueKeys) {
+                BitSet match = matchWithout(q, key, matches);
+                Map<String, Long> counts = new LinkedHashMap<>();
+                valuesByKey.getOrDefault(key, Map.of()).forEach((value, postings) -> {
+                    long count = postings.countIn(match);
+                    if (count > 0) counts.put(value, count);
+                });
+                values.put(key, counts);
+            }
+            Map<String, List<Bucket>> numbers = new LinkedHashMap<>();
+            for (String key : numberKeys) {
+                numbers.put(key, buckets(matchWithout(q, key, matches), key, buckets));
+            }
+            return new Facets(values, numbers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Dopasowania bez filtrów na danym kluczu; wspólne dopasowanie liczone raz dla kluczy bez filtra
+    private BitSet matchWithout(Query q, String key, Map<String, BitSet> cache) {
+        boolean filtered = q.attributes() != null && q.attributes().stream().anyMatch(f -> key.equalsIgnoreCase(f.key()));
+        String cacheKey = filtered ? key : "";
+        return cache.computeIfAbsent(cacheKey, k -> {
+            Query query = !filtered ? q : new Query(q.tokens(), q.categoryIds(), q.sellerUserId(),
+                    q.attributes().stream().filter(f -> !key.equalsIgnoreCase(f.key())).toList(),
+                    q.circle(), q.sort(), q.offset(), q.limit());
+            BitSet match = match(query);
+            return match == null ? new BitSet() : match;
+        });
+    }
+
+    // Kubełki o "okrągłej" szerokości (1, 2, 5 x 10^n) między minimum a maksimum dopasowanych wartości
+    private List<Bucket> buckets(BitSet match, String key, int buckets) {
+        List<BigDecimal> numbers = new ArrayList<>();
+        for (int docId = match.nextSetBit(0); docId >= 0; docId = match.nextSetBit(docId + 1)) {
+            IndexedListing doc = docs.get(docId);
+            BigDecimal n = PRICE_FACET.equals(key) ? doc.price() : doc.numbers().get(key);
+            if (n != null) numbers.add(n);
+        }
+        if (numbers.isEmpty()) return List.of();
+        BigDecimal min = Collections.min(numbers);
+        BigDecimal max = Collections.max(numbers);
+        if (min.compareTo(max) == 0) return List.of(new Bucket(min, max, numbers.size()));
+
+        BigDecimal step = niceStep(max.subtract(min).divide(BigDecimal.valueOf(buckets), MathContext.DECIMAL64));
+        BigDecimal start = min.divide(step, 0, RoundingMode.FLOOR).multiply(step);
+        int count = max.subtract(start).divide(step, 0, RoundingMode.FLOOR).intValue() + 1;
+        long[] counts = new long[count];
+        for (BigDecimal n : numbers) {
+            counts[Math.min(n.subtract(start).divide(step, 0, RoundingMode.FLOOR).intValue(), count - 1)]++;
+        }
+        List<Bucket> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (counts[i] == 0) continue;
+            BigDecimal from = start.add(step.multiply(BigDecimal.valueOf(i)));
+            result.add(new Bucket(plain(from), plain(from.add(step)), counts[i]));
+        }
+        return result;
+    }
+
+    // 1500 zamiast 1.5E+3 w JSON-ie
+    private static BigDecimal plain(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+
+    private static BigDecimal niceStep(BigDecimal raw) {
+        int exponent = raw.precision() - raw.scale() - 1;
+        BigDecimal magnitude = BigDecimal.ONE.scaleByPowerOfTen(exponent);
+        BigDecimal fraction = raw.divide(magnitude, MathContext.DECIMAL64);
+        int nice = fraction.compareTo(BigDecimal.ONE) <= 0 ? 1
+                : fraction.compareTo(BigDecimal.TWO) <= 0 ? 2
+                : fraction.compareTo(BigDecimal.valueOf(5)) <= 0 ? 5 : 10;
+        return BigDecimal.valueOf(nice).scaleByPowerOfTen(exponent);
+    }
+
+    // null oznacza brak wyników bez przeglądania postingów (np. nieznane słowo)
+    private BitSet match(Query q) {
+        List<List<Postings>> clauses = new ArrayList<>();
+        List<Predicate<IndexedListing>> postFilters = new ArrayList<>();
+
+        for (String token : q.tokens()) {
+            // Dopasowanie prefiksowe, tak jak "słowo:*" w zapytaniu pełnotekstowym
+            Collection<Postings> prefixed = tokens.subMap(token, true, token + Character.MAX_VALUE, true).values();
+            if (prefixed.isEmpty()) return null;
+            clauses.add(new ArrayList<>(prefixed));
+        }
+        if (q.categoryIds() != null) {
+            List<Postings> clause = q.categoryIds().stream().map(categories::get).filter(Objects::nonNull).toList();
+            if (clause.isEmpty()) return null;
+            clauses.add(clause);
+        }
+        if (q.sellerUserId() != null) {
+            Postings seller = sellers.get(q.sellerUserId());
+            if (seller == null) return null;
+            clauses.add(List.of(seller));
+        }
+        if (q.attributes() != null) {
+            for (ListingSearchRequest.AttributeFilter filter : q.attributes()) {
+                List<String> exactValues = exactValues(filter);
+                if (exactValues != null) {
+                    String key = filter.key().toLowerCase(Locale.ROOT);
+                    List<Postings> clause = exactValues.stream().map(v -> attributeValues.get(valueKey(key, v))).filter(Objects::nonNull).toList();
+                    if (clause.isEmpty()) return null;
+                    clauses.add(clause);
+                } else {
+                    postFilters.add(valueFilter(filter));
+                }
+            }
+        }
+        if (q.circle() != null && q.circle().radiusKm() > 0) {
+            // Tani prostokąt odrzuca większość, haversine tylko dla tych w środku
+            GeoCells.Box box = GeoCells.Box.around(q.circle().lat(), q.circle().lon(), q.circle().radiusKm());
+            postFilters.add(doc -> box.contains(doc.latitude(), doc.longitude()) && q.circle().distanceKm(doc) <= q.circle().radiusKm());
+        }
+
+        // Najpierw najbardziej selektywne warunki - kolejne AND-y operują już na małym zbiorze
+        clauses.sort(Comparator.comparingLong(ListingSearchIndex::clauseSize));
+        BitSet result;
+        if (clauses.isEmpty()) {
+            result = (BitSet) live.clone();
+        } else {
+            result = union(clauses.get(0));
+            result.and(live);
+            for (int i = 1; i < clauses.size() && !result.isEmpty(); i++) {
+                result.and(union(clauses.get(i)));
+            }
+        }
+        if (!postFilters.isEmpty()) {
+            Predicate<IndexedListing> combined = postFilters.stream().reduce(x -> true, Predicate::and);
+            for (int docId = result.nextSetBit(0); docId >= 0; docId = result.nextSetBit(docId + 1)) {
+                if (!combined.test(docs.get(docId))) result.clear(docId);
+            }
+        }
+        return result;
+    }
+
+    // Wybiera tylko (offset + limit) najlepszych dokumentów zamiast sortować cały wynik
+    private List<Long> page(BitSet matches, Query q) {
+        long wanted = q.offset() + q.limit();
+        if (q.offset() >= matches.cardinality() || q.limit() <= 0) return List.of();
+        Comparator<Integer> order = comparator(q);
+        int capacity = (int) Math.min(wanted, matches.cardinality());
+        PriorityQueue<Integer> top = new PriorityQueue<>(capacity, order.reversed());
+        for (int docId = matches.nextSetBit(0); docId >= 0; docId = matches.nextSetBit(docId + 1)) {
+            top.offer(docId);
+            if (top.size() > capacity) top.poll();
+        }
+        List<Integer> best = new ArrayList<>(top);
+        best.sort(order);
+        return best.subList((int) Math.min(q.offset(), best.size()), best.size()).stream()
+                .map(docId -> docs.get(docId).id())
+                .toList();
+    }
+
+    private Comparator<Integer> comparator(Query q) {
+        Comparator<Integer> result = null;
+        for (Sort.Order order : q.sort()) {
+            if (DISTANCE.equals(order.getProperty())) {
+                Comparator<Integer> c = distanceOrder(q.circle(), order.isDescending());
+                result = result == null ? c : result.thenComparing(c);
+                continue;
+            }
+            Comparator<Integer> c = switch (order.getProperty()) {
+                case "priceAmount" -> Comparator.comparing(docId -> docs.get(docId).price());
+                case "publishedAt" -> Comparator.comparingLong(docId -> docs.get(docId).publishedAt());
+                default -> Comparator.comparingLong(docId -> docs.get(docId).createdAt());
+            };
+            if (order.isDescending()) c = c.reversed();
+            result = result == null ? c : result.thenComparing(c);
+        }
+        Comparator<Integer> newestFirst = Comparator.reverseOrder();
+        return result == null ? newestFirst : result.thenComparing(newestFirst);
+    }
+
+    // Ogłoszenia bez lokalizacji (NaN) na końcu niezależnie od kierunku sortowania
+    private Comparator<Integer> distanceOrder(GeoCircle circle, boolean descending) {
+        return (a, b) -> {
+            double da = circle.distanceKm(docs.get(a));
+            double db = circle.distanceKm(docs.get(b));
+            if (Double.isNaN(da) || Double.isNaN(db)) return Boolean.compare(Double.isNaN(da), Double.isNaN(db));
+            return descending ? Double.compare(db, da) : Double.compare(da, db);
+        };
+    }
+
+    // Wartości, które da się sprawdzić bitmapą; null gdy filtr wymaga sprawdzenia dokumentu.
+    // Filtr bez wartości daje pustą listę (brak wyników) - tak samo jak AttributeFilterPlanner
+    private static List<String> exactValues(ListingSearchRequest.AttributeFilter filter) {
+        String type = Optional.ofNullable(filter.type()).orElse("STRING").toUpperCase(Locale.ROOT);
+        String op = Optional.ofNullable(filter.op()).orElse("eq").toLowerCase(Locale.ROOT);
+        return switch (type) {
+            case "ENUM" -> "in".equals(op) && filter.values() != null && !filter.values().isEmpty()
+                    ? filter.values().stream().filter(Objects::nonNull).map(v -> v.toLowerCase(Locale.ROOT)).toList()
+                    : lowerCased(filter.value());
+            case "BOOLEAN" -> List.of(String.valueOf("true".equalsIgnoreCase(filter.value()) || "1".equals(filter.value())));
+            case "NUMBER" -> null;
+            default -> "like".equals(op) ? null : lowerCased(filter.value());
+        };
+    }
+
+    private static List<String> lowerCased(String value) {
+        return value == null ? List.of() : List.of(value.toLowerCase(Locale.ROOT));
+    }
+
+    private static Predicate<IndexedListing> valueFilter(ListingSearchRequest.AttributeFilter filter) {
+        String key = filter.key().toLowerCase(Locale.ROOT);
+        String type = Optional.ofNullable(filter.type()).orElse("STRING").toUpperCase(Locale.ROOT);
+        String op = Optional.ofNullable(filter.op()).orElse("eq").toLowerCase(Locale.ROOT);
+        if (!"NUMBER".equals(type)) {
+            if (filter.value() == null) return doc -> false;
+            String needle = filter.value().toLowerCase(Locale.ROOT);
+            return doc -> {
+                String text = doc.values().get(key);
+                return text != null && text.contains(needle);
+            };
+        }
+        Predicate<BigDecimal> test = switch (op) {
+            case "between" -> {
+                BigDecimal from = new BigDecimal(filter.from());
+                BigDecimal to = new BigDecimal(filter.to());
+                yield n -> n.compareTo(from) >= 0 && n.compareTo(to) <= 0;
+            }
+            case "gte" -> {
+                BigDecimal min = new BigDecimal(filter.value());
+                yield n -> n.compareTo(min) >= 0;
+            }
+            case "lte" -> {
+                BigDecimal max = new BigDecimal(filter.value());
+                yield n -> n.compareTo(max) <= 0;
+            }
+            default -> {
+                BigDecimal eq = new BigDecimal(filter.value());
+                yield n -> n.compareTo(eq) == 0;
+            }
+        };
+        return doc -> {
+            BigDecimal n = doc.numbers().get(key);
+            return n != null && test.test(n);
+        };
+    }
+
+    private void removeLocked(UUID publicId) {
+        Integer docId = docByPublicId.remove(publicId);
+        if (docId != null) live.clear(docId);
+    }
+
+    private static String valueKey(String key, String value) {
+        return key + '\u0000' + value;
+    }
+
+    private static long clauseSize(List<Postings> clause) {
+        long size = 0;
+        for (Postings p : clause) size += p.size();
+        return size;
+    }
+
+    private static BitSet union(List<Postings> clause) {
+        BitSet bits = new BitSet();
+        for (Postings p : clause) p.orInto(bits);
+        return bits;
+    }
+
+    static final class Postings {
+        private int[] docIds = new int[4];
+        private int size;
+
+        void add(int docId) {
+            if (size == docIds.length) docIds = Arrays.copyOf(docIds, size * 2);
+            docIds[size++] = docId;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long countIn(BitSet bits) {
+            long count = 0;
+            for (int i = 0; i < size; i++) {
+                if (bits.get(docIds[i])) count++;
+            }
+            return count;
+        }
+
+        void orInto(BitSet target) {
+            for (int i = 0; i < size; i++) target.set(docIds[i]);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.events.ReplicatedEvent;
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingAttribute;
+import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.listing.listing.repository.ListingAttributeRepository;
+import com.BINM.listing.listing.repository.ListingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Buduje ListingSearchIndex z bazy przy starcie (i co noc, żeby pozbyć się wygaszonych dokumentów)
+ * oraz aktualizuje go po zatwierdzeniu transakcji na podstawie ListingChangedEvent.
+ */
+@Component
+@Order(6)
+@Slf4j
+class ListingSearchIndexer implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    //Repo
+    private final ListingRepository listingRepository;
+    private final ListingAttributeRepository listingAttributeRepository;
+
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+
+    private volatile ListingSearchIndex index;
+    // Zmiany, które przyszły w trakcie przebudowy - odtwarzane na nowym indeksie po podmianie
+    private volatile Set<UUID> changedDuringRebuild;
+
+    ListingSearchIndexer(ListingRepository listingRepository,
+                         ListingAttributeRepository listingAttributeRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${listing.search.index.enabled:true}") boolean enabled) {
+        this.listingRepository = listingRepository;
+        this.listingAttributeRepository = listingAttributeRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    Optional<ListingSearchIndex> current() {
+        return Optional.ofNullable(index);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) rebuild();
+    }
+
+    @Scheduled(cron = "${listing.search.index.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(0)
+    public void onListingChanged(ListingChangedEvent event) {
+        Set<UUID> pending = changedDuringRebuild;
+        if (pending != null) pending.add(event.publicId());
+        ListingSearchIndex target = index;
+        if (target == null) return;
+        if (event.isDeleted() || event.status() != ListingStatus.ACTIVE) {
+            target.remove(event.publicId());
+        } else {
+            reindex(target, event.publicId());
+        }
+    }
+
+    // Zmiany zatwierdzone na innych replikach (OutboxTailer) - indeks jest osobny w każdej instancji
+    @EventListener
+    @Order(0)
+    public void onReplicatedListingChanged(ReplicatedEvent<ListingChangedEvent> replicated) {
+        onListingChanged(replicated.event());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(0)
+    public void onListingsExpired(ListingsExpiredEvent event) {
+        Set<UUID> pending = changedDuringRebuild;
+        if (pending != null) pending.addAll(event.publicIds());
+        ListingSearchIndex target = index;
+        if (target == null) return;
+        event.publicIds().forEach(target::remove);
+    }
+
+    @EventListener
+    @Order(0)
+    public void onReplicatedListingsExpired(ReplicatedEvent<ListingsExpiredEvent> replicated) {
+        onListingsExpired(replicated.event());
+    }
+
+    synchronized void rebuild() {
+        long started = System.nanoTime();
+        changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            ListingSearchIndex fresh = new ListingSearchIndex();
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<Listing> batch = readOnlyTx.execute(status -> loadBatch(fresh, from));
+                if (batch == null || batch.isEmpty()) break;
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            index = fresh;
+            Set<UUID> pending = changedDuringRebuild;
+            changedDuringRebuild = null;
+            pending.forEach(publicId -> reindex(fresh, publicId));
+            log.info("Listing search index rebuilt: {} listings, {} ms", fresh.liveCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            changedDuringRebuild = null;
+            log.error("Listing search index rebuild failed, searches fall back to the database", ex);
+        }
+    }
+
+    private List<Listing> loadBatch(ListingSearchIndex target, long afterId) {
+        List<Listing> batch = listingRepository.findByStatusAndIdGreaterThanOrderByIdAsc(ListingStatus.ACTIVE, afterId, Limit.of(BATCH_SIZE));
+        if (batch.isEmpty()) return batch;
+        Map<Long, List<ListingAttribute>> attributes = listingAttributeRepository
+                .findWithDefinitionsByListingIdIn(batch.stream().map(Listing::getId).toList()).stream()
+                .collect(Collectors.groupingBy(la -> la.getListing().getId()));
+        for (Listing listing : batch) {
+            add(target, listing, attributes.getOrDefault(listing.getId(), List.of()));
+        }
+        return batch;
+    }
+
+    private void reindex(ListingSearchIndex target, UUID publicId) {
+        readOnlyTx.executeWithoutResult(status -> {
+            Optional<Listing> listing = listingRepository.findByPublicId(publicId);
+            if (listing.isEmpty() || listing.get().getStatus() != ListingStatus.ACTIVE) {
+                target.remove(publicId);
+                return;
+            }
+            Listing l = listing.get();
+            add(target, l, listingAttributeRepository.findWithDefinitionsByListingIdIn(List.of(l.getId())));
+        });
+    }
+
+    private static void add(ListingSearchIndex target, Listing l, List<ListingAttribute> attributes) {
+        Map<String, String> values = new HashMap<>();
+        Map<String, BigDecimal> numbers = new HashMap<>();
+        List<String> tokens = new ArrayList<>(SearchTokenizer.tokenizeFolded(l.getTitle()));
+        tokens.addAll(SearchTokenizer.tokenizeFolded(l.getDescription()));
+        for (ListingAttribute la : attributes) {
+            String key = la.getAttribute().getKey().toLowerCase(Locale.ROOT);
+            if (la.getOption() != null) {
+                values.put(key, la.getOption().getValue().toLowerCase(Locale.ROOT));
+                tokens.addAll(SearchTokenizer.tokenizeFolded(la.getOption().getLabel()));
+            } else if (la.getVBoolean() != null) {
+                values.put(key, la.getVBoolean().toString());
+            } else if (la.getVText() != null) {
+                values.put(key, la.getVText().toLowerCase(Locale.ROOT));
+                tokens.addAll(SearchTokenizer.tokenizeFolded(la.getVText()));
+            }
+            if (la.getVNumber() != null) {
+                numbers.put(key, la.getVNumber());
+            }
+        }
+        target.add(new ListingSearchIndex.IndexedListing(
+                l.getId(),
+                l.getPublicId(),
+                l.getCategory().getId(),
+                l.getSellerUserId(),
+                epochMillis(l.getCreatedAt()),
+                epochMillis(l.getPublishedAt()),
+                l.getPriceAmount(),
+                l.getLatitude() != null ? l.getLatitude() : Double.NaN,
+                l.getLongitude() != null ? l.getLongitude() : Double.NaN,
+                values,
+                numbers
+        ), tokens);
+    }
+
+    private static long epochMillis(OffsetDateTime time) {
+        return time != null ? time.toInstant().toEpochMilli() : Long.MIN_VALUE;
+    }
+}
@@ -2,56 +2,69 @@ package com.BINM.listing.listing.service;
 
 import com.BINM.listing.attribute.model.AttributeDefinition;
 import com.BINM.listing.attribute.model.AttributeOption;
-import com.BINM.listing.attribute.repostiory.AttributeOptionRepository;
 import com.BINM.listing.attribute.service.AttributeFacade;
 import com.BINM.listing.category.model.Category;
 import com.BINM.listing.category.repository.CategoryRepository;
 import com.BINM.listing.exception.ListingException;
 import com.BINM.listing.listing.dto.*;
+import com.BINM.listing.listing.event.ListingChangedEvent;
 import com.BINM.listing.listing.event.ListingFinishedEvent;
 import com.BINM.listing.listing.mapper.ListingMapper;
 import com.BINM.listing.listing.model.Listing;
 import com.BINM.listing.listing.model.ListingAttribute;
+import com.BINM.listing.listing.model.ListingCover;
 import com.BINM.listing.listing.model.ListingMedia;
 import com.BINM.listing.listing.model.ListingStatus;
 import com.BINM.listing.listing.repository.ListingAttributeRepository;
+import com.BINM.listing.listing.repository.ListingCoverRepository;
 import com.BINM.listing.listing.repository.ListingMediaRepository;
 import com.BINM.listing.listing.repository.ListingRepository;
-import com.BINM.user.io.ProfileResponse;
-import com.BINM.user.service.ProfileFacade;
+import com.BINM.pagination.CursorPage;
+import com.BINM.pagination.KeysetCursor;
+import com.BINM.pagination.KeysetSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 class ListingService implements ListingFacade{
+    // Górna granica getMany - jedno żądanie to kilka zapytań z listą IN, nie chcemy tysięcy id
+    private static final int MAX_BATCH_SIZE = 50;
+
     //Repo
     private final ListingRepository listingRepository;
     private final CategoryRepository categoryRepository;
     private final ListingAttributeRepository listingAttributeRepository;
-    private final AttributeOptionRepository optionRepository;
     private final ListingMediaRepository listingMediaRepository;
+    private final ListingCoverRepository listingCoverRepository;
     //Facade
     private final AttributeFacade attributeService;
-    private final ProfileFacade profileFacade;
     //Mapper
     private final ListingMapper listingMapper;
     //Validator
     private final ListingValidator listingValidator;
+    //Assembler
+    private final ListingCoverAssembler coverAssembler;
+    private final ListingDetailAssembler detailAssembler;
+    //Cache
+    private final ListingDetailCache detailCache;
+    //Job
+    private final ListingExpiryJob expiryJob;
     //Publisher
     private final ApplicationEventPublisher eventPublisher;
     
@@ -62,25 +75,46 @@ class ListingService implements ListingFacade{
 
         listingValidator.validateOwnership(l, currentUserId);
 
-        List<ListingAttribute> attributes = listingAttributeRepository.findByListingId(l.getId());
-        List<ListingMedia> media = listingMediaRepository.findByListingIdOrderByPositionAsc(l.getId());
-        return listingMapper.toEditDto(l, attributes, media);
+        return detailAssembler.toEditDto(l);
     }
 
-    @Transactional(readOnly = true)
     public ListingDto get(UUID publicId) {
-        Listing l = listingRepository.findByPublicId(publicId)
-                .orElseThrow(() -> ListingException.notFound(publicId.toString()));
+        return getDetail(publicId).listing();
+    }
 
-        if (l.getStatus() != ListingStatus.ACTIVE) {
-            throw ListingException.notActive(publicId.toString());
-        }
+    // Bez @Transactional - trafienie w cache nie otwiera transakcji, chybienie ładuje w transakcji cache
+    @Override
+    public ListingDetail getDetail(UUID publicId) {
+        return detailCache.get(publicId, () -> {
+            Listing l = listingRepository.findByPublicId(publicId)
+                    .orElseThrow(() -> ListingException.notFound(publicId.toString()));
 
-        List<ListingAttribute> attributes = listingAttributeRepository.findByListingId(l.getId());
-        List<ListingMedia> media = listingMediaRepository.findByListingIdOrderByPositionAsc(l.getId());
-        ProfileResponse sellerProfile = profileFacade.getProfile(l.getSellerUserId());
+            if (l.getStatus() != ListingStatus.ACTIVE) {
+                throw ListingException.notActive(publicId.toString());
+            }
 
-        return listingMapper.toDto(l, sellerProfile, attributes, media);
+            return detailAssembler.toDto(l);
+        });
+    }
+
+    @Override
+    public Optional<String> cachedDetailEtag(UUID publicId) {
+        return detailCache.cachedEtag(publicId);
+    }
+
+    // Szczegóły wielu ogłoszeń naraz, w kolejności publicIds; pomija nieistniejące i nieaktywne
+    @Override
+    @Transactional(readOnly = true)
+    public List<ListingDto> getMany(List<UUID> publicIds) {
+        if (publicIds == null || publicIds.isEmpty()) return List.of();
+        List<UUID> distinct = publicIds.stream().distinct().toList();
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw ListingException.tooManyIds(MAX_BATCH_SIZE);
+        }
+        Map<UUID, Listing> found = new HashMap<>();
+        listingRepository.findAllByPublicIdInAndStatus(distinct, ListingStatus.ACTIVE).forEach(l -> found.put(l.getPublicId(), l));
+        List<Listing> ordered = distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+        return detailAssembler.toDtos(ordered);
     }
 
     @Transactional
@@ -122,11 +156,10 @@ class ListingService implements ListingFacade{
         }
 
         Listing saved = listingRepository.save(l);
+        listingRepository.refreshSearchVector(saved.getId());
+        publishChanged(saved);
 
-        List<ListingAttribute> attributes = listingAttributeRepository.findByListingId(saved.getId());
-        List<ListingMedia> media = listingMediaRepository.findByListingIdOrderByPositionAsc(saved.getId());
-        ProfileResponse sellerProfile = profileFacade.getProfile(saved.getSellerUserId());
-        return listingMapper.toDto(saved, sellerProfile, attributes, media);
+        return detailAssembler.toDto(saved);
 
     }
 
@@ -140,6 +173,7 @@ class ListingService implements ListingFacade{
         listingAttributeRepository.deleteByListingId(l.getId());
         listingMediaRepository.deleteByListingId(l.getId());
         listingRepository.deleteById(l.getId());
+        eventPublisher.publishEvent(ListingChangedEvent.deleted(publicId, categoryIdOf(l)));
         eventPublisher.publishEvent(new ListingFinishedEvent(publicId));
     }
 
@@ -156,11 +190,10 @@ class ListingService implements ListingFacade{
 
         saveAttributes(req.attributes(), saved, category);
         saveMedia(req.mediaUrls(), saved);
+        listingRepository.refreshSearchVector(saved.getId());
+        publishChanged(saved);
 
-        List<ListingAttribute> attributes = listingAttributeRepository.findByListingId(saved.getId());
-        List<ListingMedia> media = listingMediaRepository.findByListingIdOrderByPositionAsc(saved.getId());
-        ProfileResponse sellerProfile = profileFacade.getProfile(saved.getSellerUserId());
-        return listingMapper.toDto(saved, sellerProfile, attributes, media);
+        return detailAssembler.toDto(saved);
     }
 
     @Override
@@ -176,8 +209,8 @@ class ListingService implements ListingFacade{
         }
         Pageable pageable = PageRequest.of(page, size);
         // Filtrujemy tylko aktywne ogłoszenia
-        Page<Listing> listings = listingRepository.findAllByPublicIdInAndStatus(publicIds, ListingStatus.ACTIVE, pageable);
-        return toCoverDtoPage(listings);
+        Page<ListingCover> covers = listingCoverRepository.findAllByPublicIdInAndStatus(publicIds, ListingStatus.ACTIVE, pageable);
+        return coverAssembler.fromCovers(covers);
     }
 
     @Override
@@ -200,6 +233,7 @@ class ListingService implements ListingFacade{
 
         l.setStatus(ListingStatus.WAITING);
         listingRepository.save(l);
+        publishChanged(l);
     }
 
     @Override
@@ -214,6 +248,7 @@ class ListingService implements ListingFacade{
         l.setPublishedAt(OffsetDateTime.now());
         l.setExpiresAt(OffsetDateTime.now().plusDays(30));
         listingRepository.save(l);
+        publishChanged(l);
     }
 
     @Override
@@ -224,6 +259,7 @@ class ListingService implements ListingFacade{
 
         l.setStatus(ListingStatus.REJECTED);
         listingRepository.save(l);
+        publishChanged(l);
     }
 
     @Override
@@ -239,36 +275,31 @@ class ListingService implements ListingFacade{
         l.setStatus(ListingStatus.COMPLETED);
         listingRepository.save(l);
 
+        publishChanged(l);
         eventPublisher.publishEvent(new ListingFinishedEvent(publicId));
     }
 
+    // Bez @Transactional - każda paczka ListingExpiryJob zatwierdza się osobno
     @Override
-    @Transactional
     public void expireOverdueListings() {
         log.info("Starting job to expire overdue listings...");
-        List<Listing> overdueListings = listingRepository.findAllByStatusAndExpiresAtBefore(ListingStatus.ACTIVE, OffsetDateTime.now());
-
-        if (overdueListings.isEmpty()) {
-            log.info("No overdue listings found.");
-            return;
-        }
-
-        for (Listing listing : overdueListings) {
-            listing.setStatus(ListingStatus.EXPIRED);
-            log.info("Expiring listing with ID: {}", listing.getPublicId());
-            eventPublisher.publishEvent(new ListingFinishedEvent(listing.getPublicId()));
-        }
-
-        listingRepository.saveAll(overdueListings);
-        log.info("Finished job. Expired {} listings.", overdueListings.size());
+        int expired = expiryJob.run();
+        log.info("Finished job. Expired {} listings.", expired);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ListingCoverDto> getListingsForApproval(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "updatedAt"));
-        Page<Listing> listings = listingRepository.findByStatus(ListingStatus.WAITING, pageable);
-        return toCoverDtoPage(listings);
+        Page<ListingCover> covers = listingCoverRepository.findByStatus(ListingStatus.WAITING, pageable);
+        return coverAssembler.fromCovers(covers);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ListingCoverDto> getListingsForApprovalCursor(String cursor, int size) {
+        Specification<ListingCover> spec = (root, query, cb) -> cb.equal(root.get("status"), ListingStatus.WAITING);
+        return coverCursorPage(spec, Sort.by(Sort.Direction.ASC, "updatedAt"), cursor, size);
     }
 
     @Override
@@ -279,31 +310,83 @@ class ListingService implements ListingFacade{
 
         listingValidator.validateIsWaiting(l);
 
-        List<ListingAttribute> attributes = listingAttributeRepository.findByListingId(l.getId());
-        List<ListingMedia> media = listingMediaRepository.findByListingIdOrderByPositionAsc(l.getId());
-        ProfileResponse sellerProfile = profileFacade.getProfile(l.getSellerUserId());
-
-        return listingMapper.toDto(l, sellerProfile, attributes, media);
+        return detailAssembler.toDto(l);
     }
 
     @Transactional(readOnly = true)
     public Page<ListingCoverDto> listForUser(String userId, int page, int size, ListingStatus status) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Listing> listings;
+        Page<ListingCover> covers;
         if (status != null) {
-            listings = listingRepository.findBySellerUserIdAndStatus(userId, status, pageable);
+            covers = listingCoverRepository.findBySellerUserIdAndStatus(userId, status, pageable);
         } else {
-            listings = listingRepository.findBySellerUserId(userId, pageable);
+            covers = listingCoverRepository.findBySellerUserId(userId, pageable);
         }
-        return toCoverDtoPage(listings);
+        return coverAssembler.fromCovers(covers);
     }
 
-    @Transactional
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ListingCoverDto> listForUserCursor(String userId, String cursor, int size, ListingStatus status) {
+        Specification<ListingCover> spec = (root, query, cb) -> cb.equal(root.get("sellerUserId"), userId);
+        if (status != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("status"), status));
+        }
+        return coverCursorPage(spec, Sort.by(Sort.Direction.DESC, "createdAt"), cursor, size);
+    }
+
+    // Stronicowanie keyset po (pole sortowania, listing_id): koszt strony nie zależy od jej numeru i nie ma count(*)
+    private CursorPage<ListingCoverDto> coverCursorPage(Specification<ListingCover> spec, Sort sort, String cursor, int size) {
+        CursorPage.requireSize(size);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(KeysetSpecifications.after(sort, "listingId", KeysetCursor.decode(cursor)));
+        }
+        spec = spec.and(KeysetSpecifications.orderedBy(sort, "listingId"));
+        List<ListingCover> rows = listingCoverRepository.findBy(spec, q -> q
+                .limit(size + 1)
+                .all());
+        String sortProperty = sort.iterator().next().getProperty();
+        return CursorPage.fromOverfetched(rows, size, c -> KeysetCursor.of(c.getListingId(),
+                        "updatedAt".equals(sortProperty) ? c.getUpdatedAt() : c.getCreatedAt()))
+                .map(listingMapper::toCoverDto);
+    }
+
+    @Transactional(readOnly = true)
+    @Deprecated
     public Page<ListingCoverDto> listRandom(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        // Używamy metody z repozytorium, która ma ORDER BY RANDOM()
-        Page<Listing> randomListings = listingRepository.findRandom(ListingStatus.ACTIVE.name(), pageable);
-        return toCoverDtoPage(randomListings);
+        CursorPage.requireSize(size);
+        // Każde wywołanie to nowe losowanie, więc kolejne strony nie istnieją - bez count(*) po wszystkich aktywnych
+        List<ListingCover> covers = nextRandomChunk(RandomFeedCursor.fresh(), size).covers();
+        return coverAssembler.fromCovers(new PageImpl<>(covers, PageRequest.of(page, size), (long) page * size + covers.size()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ListingCoverDto> listRandomFeed(String cursor, int size) {
+        CursorPage.requireSize(size);
+        RandomChunk chunk = nextRandomChunk(RandomFeedCursor.decode(cursor), size);
+        List<ListingCoverDto> content = chunk.covers().stream().map(listingMapper::toCoverDto).toList();
+        return CursorPage.of(content, chunk.next() != null ? chunk.next().encode() : null);
+    }
+
+    // Koszt O(size): dwa zapytania keyset po idx_lcover_status_random, bez sortowania całej tabeli
+    private RandomChunk nextRandomChunk(RandomFeedCursor cursor, int size) {
+        List<ListingCover> covers = new ArrayList<>(listingCoverRepository.findRandomFeedChunk(
+                ListingStatus.ACTIVE, cursor.afterKey(), cursor.afterId(), cursor.upperKey(), Limit.of(size)));
+        if (covers.size() < size && !cursor.wrapped()) {
+            cursor = cursor.wrap();
+            covers.addAll(listingCoverRepository.findRandomFeedChunk(
+                    ListingStatus.ACTIVE, cursor.afterKey(), cursor.afterId(), cursor.upperKey(), Limit.of(size - covers.size())));
+        }
+        if (covers.size() < size) {
+            return new RandomChunk(covers, null);
+        }
+        // Po przejściu do drugiej fazy ostatni element zawsze pochodzi z niej, bo dobieraliśmy brakujące miejsca
+        ListingCover last = covers.get(covers.size() - 1);
+        return new RandomChunk(covers, cursor.after(last.getRandomKey(), last.getListingId()));
+    }
+
+    private record RandomChunk(List<ListingCover> covers, RandomFeedCursor next) {
     }
 
     private void saveAttributes(List<ListingAttributeRequest> attributeRequests, Listing listing, Category category) {
@@ -341,7 +424,7 @@ class ListingService implements ListingFacade{
             case BOOLEAN -> la.setVBoolean(val != null && ("true".equalsIgnoreCase(val) || "1".equals(val)));
             case ENUM -> {
                 if (val != null && !val.isBlank()) {
-                    AttributeOption opt = optionRepository.findByAttributeIdAndValueIgnoreCase(def.getId(), val)
+                    AttributeOption opt = attributeService.findOption(def.getId(), val)
                             .orElseThrow(() -> ListingException.invalidAttributeValue(def.getKey()));
                     la.setOption(opt);
                 }
@@ -365,17 +448,12 @@ class ListingService implements ListingFacade{
         listingMediaRepository.saveAll(mediaToSave);
     }
 
-    private Page<ListingCoverDto> toCoverDtoPage(Page<Listing> listings) {
-        List<String> sellerIds = listings.getContent().stream().map(Listing::getSellerUserId).distinct().toList();
-        Map<String, ProfileResponse> sellerProfiles = profileFacade.getProfilesById(sellerIds).stream()
-                .collect(Collectors.toMap(ProfileResponse::userId, Function.identity()));
-        return listings.map(l -> {
-            ProfileResponse sellerProfile = sellerProfiles.get(l.getSellerUserId());
-            String coverImageUrl = listingMediaRepository.findFirstByListingIdOrderByPositionAsc(l.getId())
-                    .map(ListingMedia::getMediaUrl)
-                    .orElse(null);
-            return listingMapper.toCoverDto(l, sellerProfile, coverImageUrl);
-        });
+    private void publishChanged(Listing l) {
+        eventPublisher.publishEvent(new ListingChangedEvent(l.getPublicId(), categoryIdOf(l), l.getStatus()));
+    }
+
+    private Long categoryIdOf(Listing l) {
+        return l.getCategory() != null ? l.getCategory().getId() : null;
     }
 
 }
@@ -0,0 +1,279 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.events.ReplicatedEvent;
+import com.BINM.listing.attribute.model.AttributeDefinition;
+import com.BINM.listing.attribute.model.AttributeOption;
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
+import com.BINM.listing.category.dto.CategoryTreeDto;
+import com.BINM.listing.listing.dto.SuggestResponse;
+import com.BINM.listing.listing.dto.SuggestResponse.AttributeValueSuggestion;
+import com.BINM.listing.listing.dto.SuggestResponse.CategorySuggestion;
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.listing.listing.repository.ListingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Podpowiedzi wyszukiwarki z trzech drzew prefiksowych w pamięci: tytuły aktywnych ogłoszeń
+ * (waga = liczba ogłoszeń o tym tytule), nazwy kategorii oraz etykiety opcji atrybutów
+ * (waga = liczba ogłoszeń z histogramu). Tytuły aktualizowane po każdej zmianie ogłoszenia,
+ * kategorie i opcje przebudowywane przy nowej wersji katalogu. Liczba tytułów jest ograniczona.
+ */
+@Component
+@Order(7)
+@Slf4j
+class ListingSuggester implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_KEY_LENGTH = 80;
+    private static final int MAX_LIMIT = 10;
+
+    //Repo
+    private final ListingRepository listingRepository;
+    //Catalog
+    private final CatalogSnapshotHolder catalog;
+    private final AttributeValueHistogram histogram;
+
+    private final TransactionTemplate readOnlyTx;
+    private final int maxTitles;
+    private final Counter skippedTitles;
+
+    private volatile Titles titles = new Titles();
+    // Zmiany, które przyszły w trakcie przebudowy - odtwarzane na nowych tytułach po podmianie
+    private volatile Set<UUID> changedDuringRebuild;
+    private volatile CatalogTries catalogTries;
+
+    // Drzewo tytułów i klucz tytułu każdego ogłoszenia - potrzebny, żeby zdjąć stary tytuł przy zmianie
+    private record Titles(SuggestTrie<String> trie, Map<UUID, String> keys) {
+        Titles() {
+            this(new SuggestTrie<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private record CatalogTries(long version, SuggestTrie<CategorySuggestion> categories, SuggestTrie<AttributeValueSuggestion> values) {
+    }
+
+    ListingSuggester(ListingRepository listingRepository,
+                     CatalogSnapshotHolder catalog,
+                     AttributeValueHistogram histogram,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry,
+                     @Value("${listing.suggest.max-titles:200000}") int maxTitles) {
+        this.listingRepository = listingRepository;
+        this.catalog = catalog;
+        this.histogram = histogram;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxTitles = maxTitles;
+        this.skippedTitles = Counter.builder("listing.suggest.titles.skipped").register(meterRegistry);
+        Gauge.builder("listing.suggest.entries", this, s -> s.titles.trie().size()).tag("type", "title").register(meterRegistry);
+        Gauge.builder("listing.suggest.entries", this, s -> s.catalogTries == null ? 0 : s.catalogTries.categories().size())
+                .tag("type", "category").register(meterRegistry);
+        Gauge.builder("listing.suggest.entries", this, s -> s.catalogTries == null ? 0 : s.catalogTries.values().size())
+                .tag("type", "attribute").register(meterRegistry);
+        Gauge.builder("listing.suggest.memory", this, ListingSuggester::estimatedBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuildTitles();
+    }
+
+    SuggestResponse suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) return SuggestResponse.EMPTY;
+        int n = Math.max(1, Math.min(limit, MAX_LIMIT));
+        CatalogTries tries = catalogTries();
+        return new SuggestResponse(
+                titles.trie().top(prefix, n).stream().map(SuggestTrie.Suggestion::value).toList(),
+                distinctTop(tries.categories(), prefix, n, CategorySuggestion::id),
+                distinctTop(tries.values(), prefix, n, v -> v.key() + '\u0000' + v.value()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(2)
+    public void onListingChanged(ListingChangedEvent event) {
+        Set<UUID> pending = changedDuringRebuild;
+        if (pending != null) pending.add(event.publicId());
+        if (event.isDeleted() || event.status() != ListingStatus.ACTIVE) {
+            apply(titles, event.publicId(), null);
+        } else {
+            reload(titles, event.publicId());
+        }
+    }
+
+    // Tytuły ogłoszeń zmienionych na innych replikach
+    @EventListener
+    @Order(2)
+    public void onReplicatedListingChanged(ReplicatedEvent<ListingChangedEvent> replicated) {
+        onListingChanged(replicated.event());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(2)
+    public void onListingsExpired(ListingsExpiredEvent event) {
+        Set<UUID> pending = changedDuringRebuild;
+        if (pending != null) pending.addAll(event.publicIds());
+        event.publicIds().forEach(publicId -> apply(titles, publicId, null));
+    }
+
+    @EventListener
+    @Order(2)
+    public void onReplicatedListingsExpired(ReplicatedEvent<ListingsExpiredEvent> replicated) {
+        onListingsExpired(replicated.event());
+    }
+
+    @Scheduled(cron = "${listing.search.index.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuildTitles();
+    }
+
+    // Odświeża liczby ogłoszeń przy opcjach (histogram), nawet gdy katalog się nie zmienił
+    @Scheduled(fixedDelayString = "${listing.search.planner.histogram-refresh:PT10M}", initialDelayString = "${listing.search.planner.histogram-refresh:PT10M}")
+    public void refreshCatalog() {
+        catalogTries = buildCatalogTries(catalog.current());
+    }
+
+    synchronized void rebuildTitles() {
+        long started = System.nanoTime();
+        changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            Titles fresh = new Titles();
+            long afterId = 0;
+            while (true) {
+                List<ListingRepository.TitleView> batch = listingRepository.findTitlesAfter(ListingStatus.ACTIVE, afterId, Limit.of(BATCH_SIZE));
+                if (batch.isEmpty()) break;
+                batch.forEach(t -> apply(fresh, t.getPublicId(), t.getTitle()));
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            titles = fresh;
+            Set<UUID> pending = changedDuringRebuild;
+            changedDuringRebuild = null;
+            pending.forEach(publicId -> reload(fresh, publicId));
+            log.info("Listing suggestions rebuilt: {} titles, ~{} KB, {} ms", fresh.trie().size(),
+                    estimatedBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            changedDuringRebuild = null;
+            log.error("Listing suggestions rebuild failed, keeping previous titles", ex);
+        }
+    }
+
+    private void reload(Titles target, UUID publicId) {
+        String title = readOnlyTx.execute(status -> listingRepository.findByPublicId(publicId)
+                .filter(l -> l.getStatus() == ListingStatus.ACTIVE)
+                .map(Listing::getTitle)
+                .orElse(null));
+        apply(target, publicId, title);
+    }
+
+    // title == null zdejmuje ogłoszenie z podpowiedzi
+    private void apply(Titles target, UUID publicId, String title) {
+        String key = title != null ? normalize(title) : null;
+        synchronized (target) {
+            String previous = target.keys().get(publicId);
+            if (Objects.equals(previous, key)) return;
+            if (previous != null) {
+                target.trie().add(previous, null, -1, maxTitles);
+                target.keys().remove(publicId);
+            }
+            if (key == null || key.isEmpty()) return;
+            if (target.trie().add(key, title.strip(), 1, maxTitles)) {
+                target.keys().put(publicId, key);
+            } else {
+                skippedTitles.increment();
+            }
+        }
+    }
+
+    private CatalogTries catalogTries() {
+        CatalogSnapshot snapshot = catalog.current();
+        CatalogTries tries = catalogTries;
+        if (tries == null || tries.version() != snapshot.version()) {
+            tries = buildCatalogTries(snapshot);
+            catalogTries = tries;
+        }
+        return tries;
+    }
+
+    private CatalogTries buildCatalogTries(CatalogSnapshot snapshot) {
+        SuggestTrie<CategorySuggestion> categories = new SuggestTrie<>();
+        Deque<CategoryTreeDto> stack = new ArrayDeque<>(snapshot.tree());
+        while (!stack.isEmpty()) {
+            CategoryTreeDto c = stack.pop();
+            CategorySuggestion suggestion = new CategorySuggestion(c.id(), c.name());
+            wordStarts(c.name()).forEach(key -> categories.add(key, suggestion, 1, Integer.MAX_VALUE));
+            stack.addAll(c.children());
+        }
+        SuggestTrie<AttributeValueSuggestion> values = new SuggestTrie<>();
+        for (AttributeOption option : snapshot.options()) {
+            Optional<AttributeDefinition> def = snapshot.definition(option.getAttribute().getId())
+                    .filter(d -> Boolean.TRUE.equals(d.getActive()));
+            if (def.isEmpty()) continue;
+            long listings = histogram.isLoaded() ? histogram.option(option.getId()) : 0;
+            AttributeValueSuggestion suggestion = new AttributeValueSuggestion(def.get().getKey(), def.get().getLabel(),
+                    option.getValue(), option.getLabel(), listings);
+            // +1, żeby opcje bez ogłoszeń też się podpowiadały, choć na końcu
+            wordStarts(option.getLabel()).forEach(key -> values.add(key, suggestion, listings + 1, Integer.MAX_VALUE));
+        }
+        return new CatalogTries(snapshot.version(), categories, values);
+    }
+
+    // "Samochody osobowe" da się znaleźć także po "osob"
+    private static List<String> wordStarts(String text) {
+        List<String> words = SearchTokenizer.tokenizeFolded(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            keys.add(truncate(String.join(" ", words.subList(i, words.size()))));
+        }
+        return keys;
+    }
+
+    // Ta sama wartość może pasować kilkoma słowami - zostawiamy najlepiej ocenione wystąpienie
+    private static <T> List<T> distinctTop(SuggestTrie<T> trie, String prefix, int limit, Function<T, Object> identity) {
+        Map<Object, T> unique = new LinkedHashMap<>();
+        for (SuggestTrie.Suggestion<T> s : trie.top(prefix, limit * 2)) {
+            unique.putIfAbsent(identity.apply(s.value()), s.value());
+            if (unique.size() == limit) break;
+        }
+        return List.copyOf(unique.values());
+    }
+
+    // Małe litery bez polskich znaków, słowa rozdzielone jedną spacją
+    static String normalize(String text) {
+        return truncate(String.join(" ", SearchTokenizer.tokenizeFolded(text)));
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private long estimatedBytes() {
+        CatalogTries tries = catalogTries;
+        long catalogBytes = tries == null ? 0 : tries.categories().estimatedBytes() + tries.values().estimatedBytes();
+        return titles.trie().estimatedBytes() + catalogBytes;
+    }
+}
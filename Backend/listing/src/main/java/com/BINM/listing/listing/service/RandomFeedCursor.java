@@ -0,0 +1,50 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.pagination.PaginationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pozycja w kanale losowych ogłoszeń. Sesja zaczyna w losowym punkcie start na osi random_key,
+ * idzie w górę do 1, a potem (wrapped) od 0 do start - każde ogłoszenie pojawia się najwyżej raz.
+ */
+record RandomFeedCursor(double start, boolean wrapped, double afterKey, long afterId) {
+
+    static RandomFeedCursor fresh() {
+        double start = ThreadLocalRandom.current().nextDouble();
+        return new RandomFeedCursor(start, false, start, 0L);
+    }
+
+    // Górna granica random_key w bieżącej fazie
+    double upperKey() {
+        return wrapped ? start : 1.0;
+    }
+
+    RandomFeedCursor wrap() {
+        return new RandomFeedCursor(start, true, -1.0, 0L);
+    }
+
+    RandomFeedCursor after(double key, long listingId) {
+        return new RandomFeedCursor(start, wrapped, key, listingId);
+    }
+
+    String encode() {
+        String raw = start + ":" + (wrapped ? 1 : 0) + ":" + afterKey + ":" + afterId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static RandomFeedCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return fresh();
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) throw PaginationException.invalidCursor(cursor);
+            double start = Double.parseDouble(parts[0]);
+            if (start < 0 || start >= 1) throw PaginationException.invalidCursor(cursor);
+            return new RandomFeedCursor(start, "1".equals(parts[1]), Double.parseDouble(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException ex) {
+            throw PaginationException.invalidCursor(cursor);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.BINM.listing.listing.service;
+
+import java.util.Locale;
+
+/**
+ * Sposób liczenia totalElements w wyszukiwaniu (pole countMode w ListingSearchRequest).
+ */
+enum SearchCountMode {
+    // count(*) z tymi samymi warunkami co strona
+    EXACT,
+    // liczy najwyżej do limitu, powyżej zwraca "limit+"
+    CAPPED,
+    // liczba z indeksu w pamięci, bez zapytania do bazy (gdy indeksu brak - jak CAPPED)
+    ESTIMATE,
+    // dokładnie dla małych wyników, szacunek dla dużych
+    AUTO;
+
+    static SearchCountMode from(String value) {
+        if (value == null || value.isBlank()) return EXACT;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown countMode: " + value);
+        }
+    }
+}
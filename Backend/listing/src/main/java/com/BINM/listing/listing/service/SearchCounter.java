@@ -0,0 +1,74 @@
+package com.BINM.listing.listing.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Liczy totalElements dla wyszukiwania zgodnie z SearchCountMode.
+ * Wyniki EXACT i CAPPED trzymamy krótko w cache pod znormalizowanym kluczem filtrów,
+ * więc kolejne strony tego samego wyszukiwania nie powtarzają count(*).
+ */
+@Component
+class SearchCounter {
+
+    private final Cache<String, Count> counts;
+    private final int cap;
+
+    SearchCounter(@Value("${listing.search.count.cap:1000}") int cap,
+                  @Value("${listing.search.count.cache-ttl:30s}") Duration cacheTtl,
+                  @Value("${listing.search.count.cache-size:10000}") long cacheSize) {
+        this.cap = cap;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    record Count(long total, boolean exact) {
+    }
+
+    /**
+     * Źródła liczby wyników dla jednego wyszukiwania.
+     * upTo(n) zwraca min(liczba wyników, n); estimate jest puste, gdy nie ma taniego szacunku.
+     */
+    record Source(LongSupplier exact, LongUnaryOperator upTo, Supplier<OptionalLong> estimate) {
+    }
+
+    Count count(SearchCountMode mode, String filterKey, Source source) {
+        return switch (mode) {
+            case EXACT -> counts.get("exact:" + filterKey, k -> new Count(source.exact().getAsLong(), true));
+            case CAPPED -> capped(filterKey, source);
+            case ESTIMATE -> {
+                OptionalLong estimate = source.estimate().get();
+                yield estimate.isPresent() ? new Count(estimate.getAsLong(), false) : capped(filterKey, source);
+            }
+            case AUTO -> {
+                // Dokładny wynik z cache jest najlepszą odpowiedzią, jeśli ktoś go niedawno policzył
+                Count known = counts.getIfPresent("exact:" + filterKey);
+                if (known != null) yield known;
+                Count capped = capped(filterKey, source);
+                if (capped.exact()) yield capped;
+                OptionalLong estimate = source.estimate().get();
+                // Szacunek nie może być mniejszy od tego, co już wiemy z ograniczonego liczenia
+                yield estimate.isPresent() && estimate.getAsLong() > cap
+                        ? new Count(estimate.getAsLong(), false)
+                        : capped;
+            }
+        };
+    }
+
+    private Count capped(String filterKey, Source source) {
+        return counts.get("capped:" + filterKey, k -> {
+            long seen = source.upTo().applyAsLong(cap + 1L);
+            return new Count(seen, seen <= cap);
+        });
+    }
+}
@@ -2,8 +2,14 @@ package com.BINM.listing.listing.service;
 
 import com.BINM.listing.listing.dto.ListingCoverDto;
 import com.BINM.listing.listing.dto.ListingSearchRequest;
+import com.BINM.listing.listing.dto.SuggestResponse;
+import com.BINM.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 
 public interface SearchFacade {
     Page<ListingCoverDto> search(ListingSearchRequest req);
+
+    CursorPage<ListingCoverDto> searchCursor(ListingSearchRequest req);
+
+    SuggestResponse suggest(String query, int limit);
 }
@@ -0,0 +1,131 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.events.ReplicatedEvent;
+import com.BINM.listing.listing.dto.SearchFacetDto;
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import com.BINM.listing.listing.model.ListingStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache wyników wyszukiwania: dla znormalizowanego żądania trzymamy tylko listę id ogłoszeń ze strony
+ * i liczbę wyników, karty zawsze czytamy świeże z listing_cover.
+ * Wpisy wygasają, gdy zmieni się ogłoszenie z kategorii objętej wyszukiwaniem.
+ */
+@Component
+class SearchResultCache {
+
+    private final Cache<String, Hits> results;
+    private final Counter invalidations;
+    // Podbijane przy każdym unieważnieniu - wynik policzony przed zmianą nie trafia do cache
+    private final AtomicLong generation = new AtomicLong();
+
+    SearchResultCache(MeterRegistry meterRegistry,
+                      @Value("${listing.search.result-cache.max-ids:200000}") long maxIds,
+                      @Value("${listing.search.result-cache.ttl:5m}") Duration ttl) {
+        this.results = Caffeine.newBuilder()
+                // Budżet pamięci liczony w id, a nie w liczbie wpisów - strona 100 wyników waży więcej niż pusta
+                .maximumWeight(maxIds)
+                .weigher((String key, Hits hits) -> hits.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "listing.search.results");
+        this.invalidations = Counter.builder("listing.search.results.invalidations").register(meterRegistry);
+    }
+
+    /**
+     * Id ogłoszeń ze strony (w kolejności wyników) i liczba wszystkich wyników.
+     * categoryIds == null oznacza wyszukiwanie we wszystkich kategoriach, facets == null - fasety nie były zamówione.
+     */
+    record Hits(List<Long> ids, long total, boolean totalExact, Set<Long> categoryIds, List<SearchFacetDto> facets) {
+
+        Hits(List<Long> ids, long total, boolean totalExact, Set<Long> categoryIds) {
+            this(ids, total, totalExact, categoryIds, null);
+        }
+
+        Hits withFacets(List<SearchFacetDto> facets) {
+            return new Hits(ids, total, totalExact, categoryIds, facets);
+        }
+
+        int weight() {
+            int weight = ids.size() + 1;
+            if (facets != null) {
+                for (SearchFacetDto facet : facets) weight += facet.values().size();
+            }
+            return weight;
+        }
+
+        boolean covers(Long categoryId) {
+            return categoryIds == null || categoryId == null || categoryIds.contains(categoryId);
+        }
+    }
+
+    Hits get(String key, Supplier<Hits> loader) {
+        Hits cached = results.getIfPresent(key);
+        if (cached != null) return cached;
+        long started = generation.get();
+        Hits loaded = loader.get();
+        if (generation.get() == started) {
+            results.put(key, loaded);
+            // Unieważnienie mogło przyjść między sprawdzeniem a zapisem
+            if (generation.get() != started) results.invalidate(key);
+        }
+        return loaded;
+    }
+
+    // Kolejność za indeksem wyszukiwania (ListingSearchIndexer), żeby ponowne wyszukiwanie widziało już zmianę
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(1)
+    public void onListingChanged(ListingChangedEvent event) {
+        // Szkic nigdy nie był aktywny, więc nie zmienia żadnego wyniku wyszukiwania
+        if (event.status() == ListingStatus.DRAFT) return;
+        invalidate(event.categoryId());
+    }
+
+    // Zmiany z innych replik, w tej samej kolejności względem indeksu co lokalne
+    @EventListener
+    @Order(1)
+    public void onReplicatedListingChanged(ReplicatedEvent<ListingChangedEvent> replicated) {
+        onListingChanged(replicated.event());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(1)
+    public void onListingsExpired(ListingsExpiredEvent event) {
+        event.categoryIds().forEach(this::invalidate);
+    }
+
+    @EventListener
+    @Order(1)
+    public void onReplicatedListingsExpired(ReplicatedEvent<ListingsExpiredEvent> replicated) {
+        onListingsExpired(replicated.event());
+    }
+
+    void invalidate(Long categoryId) {
+        generation.incrementAndGet();
+        results.asMap().values().removeIf(hits -> hits.covers(categoryId));
+        invalidations.increment();
+    }
+
+    static Set<Long> categorySet(Collection<Long> categoryIds) {
+        return categoryIds == null ? null : Set.copyOf(categoryIds);
+    }
+}
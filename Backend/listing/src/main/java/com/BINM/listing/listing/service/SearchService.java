@@ -1,26 +1,42 @@
 package com.BINM.listing.listing.service;
 
+import com.BINM.listing.attribute.dto.AttributeDefinitionDto;
+import com.BINM.listing.attribute.dto.AttributeOptionDto;
+import com.BINM.listing.attribute.model.AttributeType;
+import com.BINM.listing.attribute.service.AttributeFacade;
+import com.BINM.listing.category.model.CategoryClosure;
 import com.BINM.listing.category.service.CategoryFacade;
 import com.BINM.listing.listing.dto.ListingCoverDto;
+import com.BINM.listing.listing.dto.ListingSearchPage;
 import com.BINM.listing.listing.dto.ListingSearchRequest;
-import com.BINM.listing.listing.mapper.ListingMapper;
+import com.BINM.listing.listing.dto.SearchFacetDto;
+import com.BINM.listing.listing.dto.SearchFacetValueDto;
+import com.BINM.listing.listing.dto.SuggestResponse;
+import com.BINM.listing.listing.geo.GeoCells;
 import com.BINM.listing.listing.model.Listing;
-import com.BINM.listing.listing.model.ListingAttribute;
-import com.BINM.listing.listing.model.ListingMedia;
+import com.BINM.listing.listing.model.ListingCover;
 import com.BINM.listing.listing.model.ListingStatus;
-import com.BINM.listing.listing.repository.ListingMediaRepository;
+import com.BINM.listing.listing.repository.ListingCoverRepository;
 import com.BINM.listing.listing.repository.ListingRepository;
-import com.BINM.user.io.ProfileResponse;
-import com.BINM.user.service.ProfileFacade;
+import com.BINM.pagination.CursorPage;
+import com.BINM.pagination.KeysetCursor;
+import com.BINM.pagination.KeysetSpecifications;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,77 +48,348 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SearchService implements SearchFacade {
 
+    private static final String RELEVANCE = "relevance";
+    private static final String DISTANCE = "distance";
+    private static final int FACET_BUCKETS = 5;
+
     //REPO
     private final CategoryFacade categoryService;
-    private final ListingMediaRepository mediaRepository;
+    private final AttributeFacade attributeService;
     private final ListingRepository listingRepository;
-    //MAPPER
-    private final ListingMapper listingMapper;
-    //FACADE
-    private final ProfileFacade profileFacade;
+    private final ListingCoverRepository listingCoverRepository;
+    private final EntityManager entityManager;
+    //ASSEMBLER
+    private final ListingCoverAssembler coverAssembler;
+    //INDEX
+    private final ListingSearchIndexer searchIndexer;
+    //COUNT
+    private final SearchCounter searchCounter;
+    //CACHE
+    private final SearchResultCache resultCache;
+    //PLANNER
+    private final AttributeFilterPlanner attributePlanner;
+    //SUGGEST
+    private final ListingSuggester suggester;
 
 
     @Override
     @Transactional(readOnly = true)
     public Page<ListingCoverDto> search(ListingSearchRequest req) {
-        Pageable pageable = PageRequest.of(Optional.ofNullable(req.page()).orElse(0), Optional.ofNullable(req.size()).orElse(20), resolveSort(req));
+        SearchCountMode countMode = SearchCountMode.from(req.countMode());
+        boolean withFacets = Boolean.TRUE.equals(req.facets());
+        String tsQuery = SearchTokenizer.toPrefixTsQuery(req.query());
+        Sort sort = resolveSort(req);
+        // Sortowanie po trafności i odległości nie jest ścieżką encji, więc ORDER BY ustawia specyfikacja
+        boolean byRelevance = tsQuery != null && isSortRequested(req, RELEVANCE);
+        boolean byDistance = hasPoint(req) && isSortRequested(req, DISTANCE);
+        Pageable pageable = PageRequest.of(Optional.ofNullable(req.page()).orElse(0), Optional.ofNullable(req.size()).orElse(20),
+                byRelevance || byDistance ? Sort.unsorted() : sort);
+
+        List<Long> categoryIds = req.categoryId() != null ? categoryService.collectDescendantIds(req.categoryId()) : null;
+        if (categoryIds != null && categoryIds.isEmpty()) return Page.empty(pageable);
+
+        // Identyczne żądania (popularne kategorie, te same filtry) obsługuje cache listy id
+        String cacheKey = String.join("#", filterKey(req, tsQuery), orderKey(req, byRelevance, byDistance, sort),
+                String.valueOf(pageable.getPageNumber()), String.valueOf(pageable.getPageSize()), countMode.name(),
+                String.valueOf(withFacets));
+        SearchResultCache.Hits hits = resultCache.get(cacheKey, () -> {
+            SearchResultCache.Hits found = findHits(req, tsQuery, sort, byRelevance, byDistance, categoryIds, pageable, countMode);
+            return withFacets ? found.withFacets(facets(req, categoryIds)) : found;
+        });
+        return toPage(hits, pageable, req);
+    }
+
+    private SearchResultCache.Hits findHits(ListingSearchRequest req, String tsQuery, Sort sort, boolean byRelevance, boolean byDistance,
+                                            List<Long> categoryIds, Pageable pageable, SearchCountMode countMode) {
+        Set<Long> categories = SearchResultCache.categorySet(categoryIds);
+        // Typowe zapytania (bez sortowania po trafności) obsługuje indeks w pamięci, z bazy pobieramy tylko stronę wyników
+        if (!byRelevance) {
+            // Odległość sortuje też indeks - najpierw ona, potem zwykłe sortowanie jako dogrywka
+            Sort indexSort = byDistance ? Sort.by(distanceOrder(req)).and(sort) : pageable.getSort();
+            Optional<ListingSearchIndex> index = searchIndexer.current().filter(i -> i.supports(indexSort));
+            if (index.isPresent()) {
+                ListingSearchIndex.Result result = index.get().search(
+                        indexQuery(req, categoryIds, indexSort, pageable.getOffset(), pageable.getPageSize()));
+                // Indeks liczy wyniki z bitmapy, więc total jest zawsze dokładny
+                return new SearchResultCache.Hits(result.ids(), result.total(), true, categories);
+            }
+        }
+
+        Specification<Listing> filters = filters(req, tsQuery, categoryIds);
+        Specification<Listing> spec = byRelevance || byDistance ? filters.and(orderByComputed(req, tsQuery, sort)) : filters;
+        // Sama strona (size + 1 wierszy), bez count(*) - liczbę wyników ustala countMode
+        Slice<Listing> slice = listingRepository.findBy(spec, q -> q.slice(pageable));
+        SearchCounter.Count count = countTotal(countMode, req, tsQuery, categoryIds, filters, slice);
+        return new SearchResultCache.Hits(slice.getContent().stream().map(Listing::getId).toList(), count.total(), count.exact(), categories);
+    }
+
+    private SearchCounter.Count countTotal(SearchCountMode mode, ListingSearchRequest req, String tsQuery, List<Long> categoryIds,
+                                           Specification<Listing> filters, Slice<Listing> slice) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        // Ostatnia niepusta strona (albo pusta pierwsza) zna dokładną liczbę wyników bez liczenia
+        if (!slice.hasNext() && (slice.hasContent() || slice.getPageable().getOffset() == 0)) {
+            return new SearchCounter.Count(seen, true);
+        }
+        SearchCounter.Count count = searchCounter.count(mode, filterKey(req, tsQuery), new SearchCounter.Source(
+                () -> listingRepository.count(filters),
+                limit -> countUpTo(filters, limit),
+                () -> searchIndexer.current()
+                        .map(index -> OptionalLong.of(index.search(indexQuery(req, categoryIds, Sort.unsorted(), 0, 0)).total()))
+                        .orElse(OptionalLong.empty())
+        ));
+        // Licznik z cache albo szacunek nie może przeczyć temu, co widać na stronie
+        if (slice.hasNext() && count.total() <= seen) {
+            return new SearchCounter.Count(seen + 1, false);
+        }
+        return count;
+    }
+
+    // SELECT id ... LIMIT n - Postgres przerywa skanowanie po n wierszach, w przeciwieństwie do count(*)
+    private long countUpTo(Specification<Listing> filters, long limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Listing> root = query.from(Listing.class);
+        Predicate where = filters.toPredicate(root, query, cb);
+        query.select(root.get("id"));
+        if (where != null) query.where(where);
+        return entityManager.createQuery(query).setMaxResults((int) limit).getResultList().size();
+    }
+
+    // Klucz filtrów niezależny od kolejności atrybutów i wielkości liter; bez sortowania i strony
+    private String filterKey(ListingSearchRequest req, String tsQuery) {
+        List<String> attributes = req.attributes() == null ? List.of() : req.attributes().stream()
+                .map(f -> String.join(",",
+                        lower(f.key()), lower(f.type()), lower(f.op()), lower(f.value()),
+                        f.values() == null ? "" : f.values().stream().map(SearchService::lower).sorted().collect(Collectors.joining("/")),
+                        Objects.toString(f.from(), ""), Objects.toString(f.to(), "")))
+                .sorted()
+                .toList();
+        // Współrzędne zaokrąglone do ok. 100 m - różnica na granicy promienia jest pomijalna, a cache częściej trafia
+        String geo = hasGeoFilter(req) ? String.format(Locale.ROOT, "%.3f,%.3f,%d", req.latitude(), req.longitude(), req.radiusKm()) : "";
+        return String.join("|", Objects.toString(tsQuery, ""), Objects.toString(req.categoryId(), ""),
+                Objects.toString(sellerUserId(req), ""), String.join(";", attributes), geo);
+    }
+
+    private String orderKey(ListingSearchRequest req, boolean byRelevance, boolean byDistance, Sort sort) {
+        if (!byRelevance && !byDistance) return sort.toString();
+        String computed = req.sort().stream()
+                .filter(s -> byRelevance && RELEVANCE.equals(s.field()) || byDistance && DISTANCE.equals(s.field()))
+                .map(s -> s.field() + " " + lower(s.dir()))
+                .collect(Collectors.joining(","));
+        String point = byDistance ? String.format(Locale.ROOT, "@%.3f,%.3f", req.latitude(), req.longitude()) : "";
+        return computed + point + ";" + sort;
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    // Podpowiedzi w całości z pamięci - bez transakcji i zapytań do bazy
+    @Override
+    public SuggestResponse suggest(String query, int limit) {
+        return suggester.suggest(query, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ListingCoverDto> searchCursor(ListingSearchRequest req) {
+        // Trafność nie jest stabilnym kluczem keyset, więc w tym trybie sortujemy tylko po polach encji
+        Sort sort = resolveSort(req);
+        int size = CursorPage.requireSize(Optional.ofNullable(req.size()).orElse(20));
+
+        List<Long> categoryIds = req.categoryId() != null ? categoryService.collectDescendantIds(req.categoryId()) : null;
+        if (categoryIds != null && categoryIds.isEmpty()) return CursorPage.of(List.of(), null);
 
+        Specification<Listing> spec = filters(req, SearchTokenizer.toPrefixTsQuery(req.query()), categoryIds);
+        if (req.cursor() != null && !req.cursor().isBlank()) {
+            spec = spec.and(KeysetSpecifications.after(sort, "id", KeysetCursor.decode(req.cursor())));
+        }
+        spec = spec.and(KeysetSpecifications.orderedBy(sort, "id"));
+        // Jeden wiersz ponad rozmiar strony mówi, czy istnieje następna - bez count(*)
+        List<Listing> rows = listingRepository.findBy(spec, q -> q
+                .limit(size + 1)
+                .all());
+        CursorPage<Listing> page = CursorPage.fromOverfetched(rows, size, l -> KeysetCursor.of(l.getId(), sortValues(l, sort)));
+        return new CursorPage<>(coverAssembler.toCoverDtos(page.content()), page.nextCursor(), page.hasNext());
+    }
+
+    private Specification<Listing> filters(ListingSearchRequest req, String tsQuery, List<Long> categoryIds) {
         // Domyślnie szukamy tylko aktywnych ogłoszeń
         Specification<Listing> spec = (root, query, cb) -> cb.equal(root.get("status"), ListingStatus.ACTIVE);
 
-        if (req.query() != null && !req.query().isBlank()) {
-            String searchText = "%" + req.query().toLowerCase() + "%";
-            Specification<Listing> textSpec = (root, query, cb) ->
-                    cb.or(
-                            cb.like(cb.lower(root.get("title")), searchText),
-                            cb.like(cb.lower(root.get("description")), searchText)
-                    );
-            spec = spec.and(textSpec);
+        if (tsQuery != null) {
+            // Indeks GIN na search_vector (patrz ListingSearchSetup), dopasowanie prefiksowe każdego słowa
+            spec = spec.and((root, query, cb) ->
+                    cb.isTrue(cb.function("fts_match", Boolean.class, root.get("searchVector"), cb.literal(tsQuery))));
         }
-
-        if (req.categoryId() != null) {
-            List<Long> ids = categoryService.collectDescendantIds(req.categoryId());
-            if (ids.isEmpty()) return Page.empty(pageable);
-            spec = spec.and((root, query, cb) -> root.get("category").get("id").in(ids));
+        if (categoryIds != null) {
+            // Poddrzewo z category_closure - jedno podzapytanie po kluczu zamiast listy id
+            spec = spec.and((root, query, cb) -> {
+                var subquery = query.subquery(Long.class);
+                var closure = subquery.from(CategoryClosure.class);
+                subquery.select(closure.get("descendantId")).where(cb.equal(closure.get("ancestorId"), req.categoryId()));
+                return root.get("category").get("id").in(subquery);
+            });
         }
         if (req.sellerUserId() != null && !req.sellerUserId().isBlank()) {
             spec = spec.and((root, query, cb) -> cb.equal(root.get("sellerUserId"), req.sellerUserId()));
         }
         if (req.attributes() != null && !req.attributes().isEmpty()) {
-            for (ListingSearchRequest.AttributeFilter filter : req.attributes()) {
-                spec = spec.and(hasAttribute(filter));
-            }
+            // Od najbardziej selektywnego filtra, małe zbiory kandydatów przecinane od razu
+            spec = spec.and(attributePlanner.toSpecification(attributePlanner.plan(req.attributes())));
         }
 
-        // Filtrowanie po lokalizacji (Bounding Box)
-        if (req.latitude() != null && req.longitude() != null && req.radiusKm() != null && req.radiusKm() > 0) {
+        // Filtrowanie po promieniu: przedziały komórek z indeksu idx_listing_geo_cell, prostokąt i dokładna odległość
+        if (hasGeoFilter(req)) {
             double lat = req.latitude();
             double lon = req.longitude();
             double radius = req.radiusKm();
+            GeoCells.Box box = GeoCells.Box.around(lat, lon, radius);
+            List<GeoCells.Range> cells = GeoCells.covering(box);
+
+            spec = spec.and((root, query, cb) -> cb.or(cells.stream()
+                    .map(r -> cb.between(root.<Long>get("geoCell"), r.from(), r.to()))
+                    .toArray(Predicate[]::new)));
+            spec = spec.and((root, query, cb) -> cb.and(
+                    cb.between(root.get("latitude"), box.minLat(), box.maxLat()),
+                    cb.between(root.get("longitude"), box.minLon(), box.maxLon())));
+            spec = spec.and((root, query, cb) -> cb.le(distanceKm(root, cb, lat, lon), radius));
+        }
+        return spec;
+    }
+
+    private static Object[] sortValues(Listing l, Sort sort) {
+        return sort.stream().map(o -> switch (o.getProperty()) {
+            case "priceAmount" -> l.getPriceAmount();
+            case "publishedAt" -> l.getPublishedAt();
+            default -> l.getCreatedAt();
+        }).toArray();
+    }
+
+    private Page<ListingCoverDto> toPage(SearchResultCache.Hits hits, Pageable pageable, ListingSearchRequest req) {
+        // Karty z listing_cover - jedno zapytanie po kluczu głównym
+        Map<Long, ListingCover> byId = listingCoverRepository.findAllByListingIdIn(hits.ids()).stream()
+                .collect(Collectors.toMap(ListingCover::getListingId, Function.identity()));
+        // Ogłoszenie mogło zniknąć między wyszukaniem a odczytem kart - pomijamy je zamiast zwracać null
+        List<ListingCover> ordered = hits.ids().stream().map(byId::get).filter(Objects::nonNull).toList();
+        Page<ListingCoverDto> page = coverAssembler.fromCovers(new PageImpl<>(ordered, pageable, hits.total()));
+        List<ListingCoverDto> content = hasPoint(req) ? withDistances(page.getContent(), ordered, req.latitude(), req.longitude()) : page.getContent();
+        return new ListingSearchPage(content, pageable, page.getTotalElements(), hits.totalExact(), hits.facets());
+    }
 
-            // 1 stopień szerokości geograficznej to ok. 111 km
-            double latDelta = radius / 111.0;
-            double minLat = lat - latDelta;
-            double maxLat = lat + latDelta;
+    // Karty są w tej samej kolejności co covers; odległość w km z dokładnością do 100 m
+    private static List<ListingCoverDto> withDistances(List<ListingCoverDto> cards, List<ListingCover> covers, double lat, double lon) {
+        List<ListingCoverDto> result = new ArrayList<>(cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            ListingCoverDto d = cards.get(i);
+            ListingCover c = covers.get(i);
+            Double km = c.getLatitude() != null && c.getLongitude() != null
+                    ? Math.round(GeoCells.distanceKm(lat, lon, c.getLatitude(), c.getLongitude()) * 10) / 10.0
+                    : null;
+            result.add(new ListingCoverDto(d.publicId(), d.title(), d.seller(), d.priceAmount(), d.negotiable(),
+                    d.coverImageUrl(), d.locationCity(), km));
+        }
+        return result;
+    }
 
-            // 1 stopień długości geograficznej zależy od szerokości: 111 * cos(lat)
-            // Używamy Math.cos(Math.toRadians(lat))
-            double lonDelta = radius / (111.0 * Math.cos(Math.toRadians(lat)));
-            double minLon = lon - lonDelta;
-            double maxLon = lon + lonDelta;
+    /**
+     * Fasety z indeksu w pamięci: wartości ENUM/BOOLEAN i przedziały NUMBER dla atrybutów kategorii oraz przedziały ceny.
+     * Bez indeksu (wyłączony albo w trakcie budowy) zwraca pustą listę zamiast GROUP BY na każdy atrybut.
+     */
+    private List<SearchFacetDto> facets(ListingSearchRequest req, List<Long> categoryIds) {
+        Optional<ListingSearchIndex> index = searchIndexer.current();
+        if (index.isEmpty()) return List.of();
+        List<AttributeDefinitionDto> definitions = req.categoryId() != null ? attributeService.getEffectiveDefinitions(req.categoryId()) : List.of();
+        List<String> valueKeys = new ArrayList<>();
+        List<String> numberKeys = new ArrayList<>();
+        for (AttributeDefinitionDto def : definitions) {
+            switch (def.type()) {
+                case ENUM, BOOLEAN -> valueKeys.add(facetKey(def));
+                case NUMBER -> numberKeys.add(facetKey(def));
+                default -> {
+                }
+            }
+        }
+        numberKeys.add(ListingSearchIndex.PRICE_FACET);
+        ListingSearchIndex.Facets counts = index.get().facets(indexQuery(req, categoryIds, Sort.unsorted(), 0, 0),
+                valueKeys, numberKeys, FACET_BUCKETS);
 
-            spec = spec.and((root, query, cb) -> cb.between(root.get("latitude"), minLat, maxLat));
-            spec = spec.and((root, query, cb) -> cb.between(root.get("longitude"), minLon, maxLon));
+        List<SearchFacetDto> facets = new ArrayList<>();
+        for (AttributeDefinitionDto def : definitions) {
+            List<SearchFacetValueDto> values = switch (def.type()) {
+                case ENUM -> optionFacet(def, counts.values().get(facetKey(def)));
+                case BOOLEAN -> counts.values().get(facetKey(def)).entrySet().stream()
+                        .map(e -> new SearchFacetValueDto(e.getKey(), null, null, null, e.getValue()))
+                        .toList();
+                case NUMBER -> bucketFacet(counts.numbers().get(facetKey(def)));
+                default -> null;
+            };
+            if (values != null && !values.isEmpty()) {
+                facets.add(new SearchFacetDto(def.key(), def.label(), def.type(), def.unit(), values));
+            }
+        }
+        List<SearchFacetValueDto> prices = bucketFacet(counts.numbers().get(ListingSearchIndex.PRICE_FACET));
+        if (!prices.isEmpty()) {
+            facets.add(new SearchFacetDto(ListingSearchIndex.PRICE_FACET, "Cena", AttributeType.NUMBER, null, prices));
         }
+        return facets;
+    }
+
+    // Opcje w kolejności z definicji, z etykietami; pomijamy te bez wyników
+    private static List<SearchFacetValueDto> optionFacet(AttributeDefinitionDto def, Map<String, Long> counts) {
+        if (def.options() == null) return List.of();
+        List<SearchFacetValueDto> values = new ArrayList<>();
+        for (AttributeOptionDto option : def.options()) {
+            Long count = counts.get(option.value().toLowerCase(Locale.ROOT));
+            if (count != null) values.add(new SearchFacetValueDto(option.value(), option.label(), null, null, count));
+        }
+        return values;
+    }
+
+    private static List<SearchFacetValueDto> bucketFacet(List<ListingSearchIndex.Bucket> buckets) {
+        return buckets.stream().map(b -> new SearchFacetValueDto(null, null, b.from(), b.to(), b.count())).toList();
+    }
+
+    private static String facetKey(AttributeDefinitionDto def) {
+        return def.key().toLowerCase(Locale.ROOT);
+    }
+
+    private ListingSearchIndex.Query indexQuery(ListingSearchRequest req, List<Long> categoryIds,
+                                                Sort sort, long offset, int limit) {
+        ListingSearchIndex.GeoCircle circle = hasPoint(req)
+                ? new ListingSearchIndex.GeoCircle(req.latitude(), req.longitude(), hasGeoFilter(req) ? req.radiusKm() : 0)
+                : null;
+        return new ListingSearchIndex.Query(SearchTokenizer.tokenizeFolded(req.query()), categoryIds, sellerUserId(req),
+                req.attributes(), circle, sort, offset, limit);
+    }
+
+    private static String sellerUserId(ListingSearchRequest req) {
+        return req.sellerUserId() != null && !req.sellerUserId().isBlank() ? req.sellerUserId() : null;
+    }
+
+    private boolean hasGeoFilter(ListingSearchRequest req) {
+        return hasPoint(req) && req.radiusKm() != null && req.radiusKm() > 0;
+    }
 
+    private static boolean hasPoint(ListingSearchRequest req) {
+        return req.latitude() != null && req.longitude() != null;
+    }
+
+    private static Expression<Double> distanceKm(Root<Listing> root, CriteriaBuilder cb, double lat, double lon) {
+        return cb.function("geo_distance_km", Double.class, root.get("latitude"), root.get("longitude"), cb.literal(lat), cb.literal(lon));
+    }
 
-        return toCoverDtoPage(listingRepository.findAll(spec, pageable));
+    // Domyślnie od najbliższych
+    private static Sort.Order distanceOrder(ListingSearchRequest req) {
+        boolean desc = req.sort().stream().anyMatch(s -> DISTANCE.equals(s.field()) && "desc".equalsIgnoreCase(s.dir()));
+        return new Sort.Order(desc ? Sort.Direction.DESC : Sort.Direction.ASC, ListingSearchIndex.DISTANCE);
     }
 
     private Sort resolveSort(ListingSearchRequest req) {
         List<Sort.Order> orders = new ArrayList<>();
         if (req.sort() != null) {
             for (ListingSearchRequest.SortSpec s : req.sort()) {
+                if (RELEVANCE.equals(s.field()) || DISTANCE.equals(s.field())) continue;
                 String field = switch (s.field()) {
                     case "price", "priceAmount" -> "priceAmount";
                     case "createdAt" -> "createdAt";
@@ -119,59 +406,31 @@ public class SearchService implements SearchFacade {
         return Sort.by(orders);
     }
 
-    private Specification<Listing> hasAttribute(ListingSearchRequest.AttributeFilter filter) {
-        return (root, query, cb) -> {
-            var subquery = query.subquery(Long.class);
-            var subRoot = subquery.from(ListingAttribute.class);
-            var attributeDefJoin = subRoot.join("attribute");
-            Predicate listingMatch = cb.equal(subRoot.get("listing"), root);
-            Predicate keyMatch = cb.equal(cb.lower(attributeDefJoin.get("key")), filter.key().toLowerCase(Locale.ROOT));
-            Predicate valueMatch = buildValuePredicate(filter, subRoot, cb);
-            subquery.select(cb.literal(1L)).where(cb.and(listingMatch, keyMatch, valueMatch));
-            return cb.exists(subquery);
-        };
+    private boolean isSortRequested(ListingSearchRequest req, String field) {
+        return req.sort() != null && req.sort().stream().anyMatch(s -> field.equals(s.field()));
     }
 
-    private Predicate buildValuePredicate(ListingSearchRequest.AttributeFilter filter, Root<ListingAttribute> subRoot, CriteriaBuilder cb) {
-        String type = Optional.ofNullable(filter.type()).orElse("STRING").toUpperCase(Locale.ROOT);
-        String op = Optional.ofNullable(filter.op()).orElse("eq").toLowerCase(Locale.ROOT);
-        switch (type) {
-            case "ENUM":
-                var optionJoin = subRoot.join("option");
-                if ("in".equals(op) && filter.values() != null && !filter.values().isEmpty()) {
-                    List<String> lowerCaseValues = filter.values().stream().map(String::toLowerCase).toList();
-                    return cb.lower(optionJoin.get("value")).in(lowerCaseValues);
-                }
-                return cb.equal(cb.lower(optionJoin.get("value")), filter.value().toLowerCase(Locale.ROOT));
-            case "NUMBER":
-                if ("between".equals(op)) {
-                    return cb.between(subRoot.get("vNumber"), new java.math.BigDecimal(filter.from()), new java.math.BigDecimal(filter.to()));
-                } else if ("gte".equals(op)) {
-                    return cb.greaterThanOrEqualTo(subRoot.get("vNumber"), new java.math.BigDecimal(filter.value()));
-                } else if ("lte".equals(op)) {
-                    return cb.lessThanOrEqualTo(subRoot.get("vNumber"), new java.math.BigDecimal(filter.value()));
-                }
-                return cb.equal(subRoot.get("vNumber"), new java.math.BigDecimal(filter.value()));
-            case "BOOLEAN":
-                return cb.equal(subRoot.get("vBoolean"), "true".equalsIgnoreCase(filter.value()) || "1".equals(filter.value()));
-            default:
-                if ("like".equals(op)) {
-                    return cb.like(cb.lower(subRoot.get("vText")), "%" + filter.value().toLowerCase() + "%");
+    // Trafność i odległość w kolejności z żądania, potem zwykłe sortowanie jako dogrywka
+    private Specification<Listing> orderByComputed(ListingSearchRequest req, String tsQuery, Sort tieBreak) {
+        return (root, query, cb) -> {
+            // Zapytanie liczące (count) nie może mieć ORDER BY
+            if (!Long.class.equals(query.getResultType())) {
+                List<Order> orders = new ArrayList<>();
+                for (ListingSearchRequest.SortSpec s : req.sort()) {
+                    if (RELEVANCE.equals(s.field()) && tsQuery != null) {
+                        orders.add(cb.desc(cb.function("fts_rank", Double.class, root.get("searchVector"), cb.literal(tsQuery))));
+                    } else if (DISTANCE.equals(s.field()) && hasPoint(req)) {
+                        Expression<Double> distance = distanceKm(root, cb, req.latitude(), req.longitude());
+                        // Ogłoszenia bez lokalizacji na końcu w obu kierunkach - DESC w Postgresie stawia NULL na początku
+                        Predicate unlocated = cb.or(cb.isNull(root.get("latitude")), cb.isNull(root.get("longitude")));
+                        orders.add(cb.asc(cb.selectCase().when(unlocated, 1).otherwise(0)));
+                        orders.add("desc".equalsIgnoreCase(s.dir()) ? cb.desc(distance) : cb.asc(distance));
+                    }
                 }
-                return cb.equal(cb.lower(subRoot.get("vText")), filter.value().toLowerCase());
-        }
-    }
-
-    private Page<ListingCoverDto> toCoverDtoPage(Page<Listing> listings) {
-        List<String> sellerIds = listings.getContent().stream().map(Listing::getSellerUserId).distinct().toList();
-        Map<String, ProfileResponse> sellerProfiles = profileFacade.getProfilesById(sellerIds).stream()
-                .collect(Collectors.toMap(ProfileResponse::userId, Function.identity()));
-        return listings.map(l -> {
-            ProfileResponse sellerProfile = sellerProfiles.get(l.getSellerUserId());
-            String coverImageUrl = mediaRepository.findFirstByListingIdOrderByPositionAsc(l.getId())
-                    .map(ListingMedia::getMediaUrl)
-                    .orElse(null);
-            return listingMapper.toCoverDto(l, sellerProfile, coverImageUrl);
-        });
+                orders.addAll(QueryUtils.toOrders(tieBreak, root, cb));
+                query.orderBy(orders);
+            }
+            return null;
+        };
     }
 }
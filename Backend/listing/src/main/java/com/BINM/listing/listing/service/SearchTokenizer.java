@@ -0,0 +1,52 @@
+package com.BINM.listing.listing.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+final class SearchTokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchTokenizer() {
+    }
+
+    // Dzieli tekst na słowa złożone wyłącznie z liter i cyfr (małe litery)
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        StringBuilder current = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) tokens.add(current.toString());
+        return tokens;
+    }
+
+    // Odpowiednik unaccent z Postgresa: "Żółty Łoś" -> "zolty los"
+    static String fold(String text) {
+        if (text == null) return null;
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('ł', 'l');
+    }
+
+    static List<String> tokenizeFolded(String text) {
+        return tokenize(fold(text));
+    }
+
+    // "audi a4" -> "audi:* & a4:*"; tokeny zawierają tylko litery i cyfry, więc nie wymagają escapowania
+    static String toPrefixTsQuery(String text) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) return null;
+        return String.join(" & ", tokens.stream().map(t -> t + ":*").toList());
+    }
+}
@@ -0,0 +1,227 @@
+package com.BINM.listing.listing.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Skompresowane drzewo prefiksowe (radix trie) do podpowiedzi: krawędzie niosą całe fragmenty kluczy,
+ * a każdy węzeł pamięta największą wagę w swoim poddrzewie. Dzięki temu k najlepszych uzupełnień
+ * prefiksu wyjmujemy przeszukiwaniem "najpierw najlepszy", bez przeglądania całego poddrzewa.
+ * Waga to liczba wystąpień klucza - add z deltą ujemną zmniejsza ją, a przy zerze usuwa klucz.
+ */
+final class SuggestTrie<T> {
+
+    // Przybliżony narzut obiektu węzła (nagłówek, pola, tablica dzieci) - do raportowania zajętej pamięci
+    private static final int NODE_OVERHEAD_BYTES = 64;
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node<T> root = new Node<>("");
+    private int keys;
+    private int nodes = 1;
+    private long chars;
+
+    record Suggestion<T>(String key, T value, long weight) {
+    }
+
+    private static final class Node<T> {
+        private String edge;
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = (Node<T>[]) NO_CHILDREN;
+        private T value;
+        private long weight;
+        private long maxWeight;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        int childIndex(char c) {
+            int lo = 0;
+            int hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = children[mid].edge.charAt(0);
+                if (m < c) lo = mid + 1;
+                else if (m > c) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        void recomputeMax() {
+            long max = weight;
+            for (Node<T> child : children) max = Math.max(max, child.maxWeight);
+            maxWeight = max;
+        }
+    }
+
+    /**
+     * Zmienia wagę klucza o delta. Nowy klucz zapamiętuje value; istniejący zachowuje pierwszą wartość.
+     * Zwraca false, gdy klucza nie dodano, bo przekroczyłby maxKeys.
+     */
+    boolean add(String key, T value, long delta, int maxKeys) {
+        if (key.isEmpty() || delta == 0) return true;
+        lock.writeLock().lock();
+        try {
+            return add(root, key, 0, value, delta, maxKeys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Suggestion<T>> top(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node<T> start = root;
+            StringBuilder path = new StringBuilder();
+            int pos = 0;
+            while (pos < prefix.length()) {
+                int idx = start.childIndex(prefix.charAt(pos));
+                if (idx < 0) return List.of();
+                Node<T> child = start.children[idx];
+                int common = commonPrefix(child.edge, prefix, pos);
+                // Prefiks kończy się w środku krawędzi albo ją rozmija
+                if (common < child.edge.length() && pos + common < prefix.length()) return List.of();
+                path.append(child.edge);
+                pos += common;
+                start = child;
+            }
+            return bestFirst(start, path.toString(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return keys;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) nodes * NODE_OVERHEAD_BYTES + chars * 2;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean add(Node<T> node, String key, int pos, T value, long delta, int maxKeys) {
+        if (pos == key.length()) {
+            if (node.weight == 0) {
+                if (delta < 0) return true;
+                if (keys >= maxKeys) return false;
+                node.value = value;
+                keys++;
+            }
+            node.weight = Math.max(0, node.weight + delta);
+            if (node.weight == 0) {
+                node.value = null;
+                keys--;
+            }
+            node.recomputeMax();
+            return true;
+        }
+        int idx = node.childIndex(key.charAt(pos));
+        if (idx < 0) {
+            // Usunięcie klucza, którego nie ma, albo brak miejsca na nowy
+            if (delta < 0) return true;
+            if (keys >= maxKeys) return false;
+            Node<T> leaf = new Node<>(key.substring(pos));
+            insertChild(node, -(idx + 1), leaf);
+            nodes++;
+            chars += leaf.edge.length();
+            add(leaf, key, key.length(), value, delta, maxKeys);
+            node.recomputeMax();
+            return true;
+        }
+        Node<T> child = node.children[idx];
+        int common = commonPrefix(child.edge, key, pos);
+        if (common < child.edge.length()) {
+            if (delta < 0) return true;
+            if (keys >= maxKeys) return false;
+            // Rozcięcie krawędzi: wspólny fragment trafia do nowego węzła pośredniego
+            Node<T> middle = new Node<>(child.edge.substring(0, common));
+            child.edge = child.edge.substring(common);
+            insertChild(middle, 0, child);
+            middle.recomputeMax();
+            node.children[idx] = middle;
+            nodes++;
+            child = middle;
+        }
+        boolean added = add(child, key, pos + common, value, delta, maxKeys);
+        prune(node, idx);
+        node.recomputeMax();
+        return added;
+    }
+
+    // Po usunięciu klucza: pusty liść znika, węzeł z jednym dzieckiem skleja się z nim
+    private void prune(Node<T> parent, int idx) {
+        Node<T> child = parent.children[idx];
+        if (child.weight > 0) return;
+        if (child.children.length == 0) {
+            Node<T>[] rest = Arrays.copyOf(parent.children, parent.children.length - 1);
+            System.arraycopy(parent.children, idx + 1, rest, idx, parent.children.length - idx - 1);
+            parent.children = rest;
+            nodes--;
+            chars -= child.edge.length();
+        } else if (child.children.length == 1) {
+            Node<T> only = child.children[0];
+            only.edge = child.edge + only.edge;
+            parent.children[idx] = only;
+            nodes--;
+        }
+    }
+
+    private void insertChild(Node<T> node, int at, Node<T> child) {
+        Node<T>[] grown = Arrays.copyOf(node.children, node.children.length + 1);
+        System.arraycopy(node.children, at, grown, at + 1, node.children.length - at);
+        grown[at] = child;
+        node.children = grown;
+    }
+
+    private List<Suggestion<T>> bestFirst(Node<T> start, String startKey, int limit) {
+        record Item<T>(Node<T> node, String key, boolean terminal) {
+            long priority() {
+                return terminal ? node.weight : node.maxWeight;
+            }
+        }
+        // Przy równej wadze krótsze (i alfabetycznie wcześniejsze) klucze najpierw
+        PriorityQueue<Item<T>> queue = new PriorityQueue<>((a, b) -> {
+            int byWeight = Long.compare(b.priority(), a.priority());
+            if (byWeight != 0) return byWeight;
+            if (a.terminal() != b.terminal()) return a.terminal() ? -1 : 1;
+            return a.key().compareTo(b.key());
+        });
+        queue.add(new Item<>(start, startKey, false));
+        List<Suggestion<T>> result = new ArrayList<>(limit);
+        while (!queue.isEmpty() && result.size() < limit) {
+            Item<T> item = queue.poll();
+            Node<T> node = item.node();
+            if (item.terminal()) {
+                result.add(new Suggestion<>(item.key(), node.value, node.weight));
+                continue;
+            }
+            if (node.weight > 0) queue.add(new Item<>(node, item.key(), true));
+            for (Node<T> child : node.children) {
+                queue.add(new Item<>(child, item.key() + child.edge, false));
+            }
+        }
+        return result;
+    }
+
+    private static int commonPrefix(String edge, String key, int pos) {
+        int max = Math.min(edge.length(), key.length() - pos);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(pos + i)) i++;
+        return i;
+    }
+}
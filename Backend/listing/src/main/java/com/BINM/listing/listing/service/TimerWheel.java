@@ -0,0 +1,133 @@
+package com.BINM.listing.listing.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchiczne koło czasowe: 4 poziomy po 64 przegródki, poziom 0 o rozdzielczości jednego taktu.
+ * Dodanie i anulowanie to O(1), a wpis jest przenoszony w dół najwyżej tyle razy, ile jest poziomów -
+ * przy takcie 1 s koło obejmuje 64^4 s (ok. 194 dni) bez sortowania i bez przeglądania wszystkich wpisów.
+ * Anulowanie jest leniwe: wpis zostaje w przegródce, ale nie odpala, jeśli jego termin już nie jest aktualny.
+ * Klasa nie jest bezpieczna wątkowo - synchronizuje ją właściciel.
+ */
+final class TimerWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    // Aktualny termin (w taktach) każdego klucza - wpis w przegródce z innym terminem jest nieaktualny
+    private final Map<K, Long> deadlines = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private final List<Entry<K>>[][] slots = new List[LEVELS][SLOTS];
+    // Terminy poza zasięgiem poziomów - przenoszone, gdy najwyższy poziom zaczyna nowe okrążenie
+    private List<Entry<K>> overflow = new ArrayList<>();
+    // Terminy, które już minęły w chwili dodania lub przeniesienia - oddawane przy najbliższym advance
+    private List<K> ready = new ArrayList<>();
+    private long currentTick;
+
+    private record Entry<K>(K key, long tick) {
+    }
+
+    TimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Ustawia (albo przesuwa) termin klucza. Termin jest zaokrąglany w górę do taktu,
+     * więc klucz nigdy nie odpala przed czasem.
+     */
+    void schedule(K key, long deadlineMillis) {
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        deadlines.put(key, tick);
+        place(new Entry<>(key, tick));
+    }
+
+    void cancel(K key) {
+        deadlines.remove(key);
+    }
+
+    boolean contains(K key) {
+        return deadlines.containsKey(key);
+    }
+
+    int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Przesuwa koło do chwili nowMillis i zwraca klucze, których termin minął.
+     * Po przerwie (np. pauzie GC) nadrabia wszystkie zaległe takty naraz.
+     */
+    List<K> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+                List<Entry<K>> pending = overflow;
+                overflow = new ArrayList<>();
+                for (Entry<K> entry : pending) {
+                    if (isCurrent(entry)) place(entry);
+                }
+            }
+            // Od najwyższego poziomu w dół - wpis przeniesiony z góry może od razu trafić do przegródki tego taktu
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) cascade(level);
+            }
+            fire(slotIndex(currentTick, 0));
+        }
+        List<K> due = ready;
+        ready = new ArrayList<>();
+        return due;
+    }
+
+    private void cascade(int level) {
+        int index = slotIndex(currentTick, level);
+        List<Entry<K>> entries = slots[level][index];
+        if (entries == null) return;
+        slots[level][index] = null;
+        for (Entry<K> entry : entries) {
+            if (isCurrent(entry)) place(entry);
+        }
+    }
+
+    private void fire(int index) {
+        List<Entry<K>> entries = slots[0][index];
+        if (entries == null) return;
+        slots[0][index] = null;
+        for (Entry<K> entry : entries) {
+            if (deadlines.remove(entry.key(), entry.tick())) ready.add(entry.key());
+        }
+    }
+
+    // Najniższy poziom, na którym termin i bieżący takt leżą w tym samym okrążeniu
+    private void place(Entry<K> entry) {
+        if (entry.tick() <= currentTick) {
+            if (deadlines.remove(entry.key(), entry.tick())) ready.add(entry.key());
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * (level + 1);
+            if ((entry.tick() >>> shift) == (currentTick >>> shift)) {
+                int index = slotIndex(entry.tick(), level);
+                if (slots[level][index] == null) slots[level][index] = new ArrayList<>();
+                slots[level][index].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private boolean isCurrent(Entry<K> entry) {
+        Long tick = deadlines.get(entry.key());
+        return tick != null && tick == entry.tick();
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (BITS * level)) & (SLOTS - 1));
+    }
+}
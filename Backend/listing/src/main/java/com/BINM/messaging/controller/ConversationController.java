@@ -3,6 +3,7 @@ package com.BINM.messaging.controller;
 import com.BINM.messaging.dto.ConversationDto;
 import com.BINM.messaging.dto.MessageDto;
 import com.BINM.messaging.service.MessagingFacade;
+import com.BINM.pagination.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -34,6 +35,16 @@ public class ConversationController {
         return messagingFacade.getMessagesForConversation(conversationId, userId, page, size);
     }
 
+    @GetMapping("/{conversationId}/messages/cursor")
+    @ResponseStatus(HttpStatus.OK)
+    public CursorPage<MessageDto> getMessagesCursor(
+            @PathVariable Long conversationId,
+            @CurrentSecurityContext(expression = "authentication.principal.userId") String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return messagingFacade.getMessagesForConversationCursor(conversationId, userId, cursor, size);
+    }
+
     @PatchMapping("/{conversationId}/read")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void markAsRead(
@@ -8,7 +8,8 @@ import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "message", indexes = {
-        @Index(name = "idx_message_conversation", columnList = "conversation_id")
+        @Index(name = "idx_message_conversation", columnList = "conversation_id"),
+        @Index(name = "idx_message_conversation_created", columnList = "conversation_id, created_at, id")
 })
 @Getter
 @Setter
@@ -1,6 +1,7 @@
 package com.BINM.messaging.repository;
 
 import com.BINM.messaging.model.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,12 +9,24 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
     Page<Message> findByConversationId(Long conversationId, Pageable pageable);
 
+    // Stronicowanie keyset od najnowszych: pierwsza strona i kolejne strony "starsze niż" kursor
+    List<Message> findByConversationIdOrderByCreatedAtDescIdDesc(Long conversationId, Limit limit);
+
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId " +
+           "AND (m.createdAt < :beforeCreatedAt OR (m.createdAt = :beforeCreatedAt AND m.id < :beforeId)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findOlderInConversation(@Param("conversationId") Long conversationId,
+                                          @Param("beforeCreatedAt") OffsetDateTime beforeCreatedAt,
+                                          @Param("beforeId") Long beforeId,
+                                          Limit limit);
+
     @Query(value = "SELECT m.* FROM message m " +
             "INNER JOIN ( " +
             "    SELECT conversation_id, MAX(created_at) as max_created_at " +
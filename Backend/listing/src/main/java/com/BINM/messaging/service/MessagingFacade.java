@@ -4,6 +4,7 @@ import com.BINM.messaging.dto.ChatMessageDto;
 import com.BINM.messaging.dto.ConversationDto;
 import com.BINM.messaging.dto.MessageDto;
 import com.BINM.messaging.model.Message;
+import com.BINM.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -35,6 +36,13 @@ public interface MessagingFacade {
      */
     Page<MessageDto> getMessagesForConversation(Long conversationId, String userId, int page, int size);
 
+    /**
+     * Pobiera historię wiadomości stronicowaną kursorem (od najnowszych), bez liczenia wszystkich wiadomości.
+     * @param cursor nextCursor z poprzedniej strony albo null dla najnowszych wiadomości.
+     * @return Strona DTO wiadomości z kursorem do starszych.
+     */
+    CursorPage<MessageDto> getMessagesForConversationCursor(Long conversationId, String userId, String cursor, int size);
+
     /**
      * Oznacza wszystkie wiadomości w danej konwersacji jako przeczytane przez użytkownika.
      * @param conversationId ID konwersacji.
@@ -10,9 +10,13 @@ import com.BINM.messaging.model.Conversation;
 import com.BINM.messaging.model.Message;
 import com.BINM.messaging.repository.ConversationRepository;
 import com.BINM.messaging.repository.MessageRepository;
+import com.BINM.pagination.CursorPage;
+import com.BINM.pagination.KeysetCursor;
+import com.BINM.pagination.PaginationException;
 import com.BINM.user.io.PublicProfileResponse;
 import com.BINM.user.service.ProfileFacade;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +24,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -125,6 +131,39 @@ class MessagingService implements MessagingFacade {
         return messages.map(this::toMessageDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MessageDto> getMessagesForConversationCursor(Long conversationId, String userId, String cursor, int size) {
+        CursorPage.requireSize(size);
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> MessagingException.conversationNotFound(conversationId));
+
+        if (!conversation.getBuyerId().equals(userId) && !conversation.getSellerId().equals(userId)) {
+            throw MessagingException.conversationAccessDenied();
+        }
+
+        // Jeden rekord ponad rozmiar strony mówi, czy są starsze wiadomości
+        Limit limit = Limit.of(size + 1);
+        List<Message> messages;
+        if (cursor == null || cursor.isBlank()) {
+            messages = messageRepository.findByConversationIdOrderByCreatedAtDescIdDesc(conversationId, limit);
+        } else {
+            KeysetCursor before = KeysetCursor.decode(cursor);
+            messages = messageRepository.findOlderInConversation(conversationId, parseTime(before.value(0)), before.id(), limit);
+        }
+        return CursorPage.fromOverfetched(messages, size, m -> KeysetCursor.of(m.getId(), m.getCreatedAt()))
+                .map(this::toMessageDto);
+    }
+
+    private OffsetDateTime parseTime(String value) {
+        if (value == null) throw PaginationException.invalidCursor(null);
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw PaginationException.invalidCursor(value);
+        }
+    }
+
     @Override
     @Transactional
     public void markConversationAsRead(Long conversationId, String userId) {
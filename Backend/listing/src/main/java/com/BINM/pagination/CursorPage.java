@@ -0,0 +1,36 @@
+package com.BINM.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Strona wyników stronicowana kursorem (bez liczenia wszystkich wyników).
+ * nextCursor == null oznacza koniec listy; kursor przekazuje się bez zmian w kolejnym żądaniu (?cursor=...).
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext
+) {
+    public static <T> CursorPage<T> of(List<T> content, String nextCursor) {
+        return new CursorPage<>(content, nextCursor, nextCursor != null);
+    }
+
+    // Wywoływane przed zapytaniem - limit size + 1 i kursor z elementu size - 1 wymagają co najmniej jednego elementu
+    public static int requireSize(int size) {
+        if (size < 1) throw PaginationException.invalidPageSize(size);
+        return size;
+    }
+
+    // rows pobrane z limitem size + 1: nadmiarowy wiersz oznacza, że istnieje następna strona
+    public static <T> CursorPage<T> fromOverfetched(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        requireSize(size);
+        if (rows.size() <= size) return of(rows, null);
+        List<T> page = List.copyOf(rows.subList(0, size));
+        return of(page, cursorOf.apply(page.get(size - 1)).encode());
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor, hasNext);
+    }
+}
@@ -0,0 +1,57 @@
+package com.BINM.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Nieprzezroczysty kursor stronicowania keyset: wartości pól sortowania ostatniego elementu strony oraz jego id.
+ * Wartość jest zapisywana z prefiksem "=", a pusty element oznacza null - null nie myli się z pustym tekstem.
+ * Niepoprawny kursor kończy się PaginationException (400, jak w każdym endpoincie z kursorem).
+ */
+public record KeysetCursor(List<String> values, long id) {
+
+    private static final String SEPARATOR = "|";
+    private static final String PRESENT = "=";
+
+    public KeysetCursor {
+        values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    public static KeysetCursor of(long id, Object... values) {
+        return new KeysetCursor(Arrays.stream(values).map(v -> v != null ? v.toString() : null).toList(), id);
+    }
+
+    public String encode() {
+        List<String> parts = new ArrayList<>(values.size() + 1);
+        values.forEach(v -> parts.add(v != null ? PRESENT + v : ""));
+        parts.add(Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> parts = List.of(raw.split("\\|", -1));
+            long id = Long.parseLong(parts.get(parts.size() - 1));
+            List<String> values = new ArrayList<>(parts.size() - 1);
+            for (String part : parts.subList(0, parts.size() - 1)) {
+                if (!part.isEmpty() && !part.startsWith(PRESENT)) throw PaginationException.invalidCursor(cursor);
+                values.add(part.isEmpty() ? null : part.substring(PRESENT.length()));
+            }
+            return new KeysetCursor(values, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw PaginationException.invalidCursor(cursor);
+        }
+    }
+
+    // null, gdy ostatni element strony nie miał wartości tego pola
+    public String value(int index) {
+        if (index >= values.size()) throw PaginationException.invalidCursor(encode());
+        return values.get(index);
+    }
+}
@@ -0,0 +1,110 @@
+package com.BINM.pagination;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warunek "za kursorem" dla stronicowania keyset: (a, b, id) > (a0, b0, id0) rozpisane leksykograficznie
+ * z uwzględnieniem kierunku każdego pola. Ostatnim kluczem jest zawsze id, w kierunku ostatniego pola sortowania.
+ * Pola opcjonalne sortowane są z NULL na końcu w obu kierunkach, a warunek ma dla nich osobne gałęzie IS NULL -
+ * porównanie z NULL nie jest prawdziwe, więc bez nich wiersze bez wartości znikałyby z kolejnych stron.
+ */
+public final class KeysetSpecifications {
+
+    private KeysetSpecifications() {
+    }
+
+    /**
+     * ORDER BY zgodny z after: pola sortowania z NULL na końcu, a na końcu id. Sort.NullHandling nie działa
+     * w zapytaniach Criteria, więc kolejność ustawia specyfikacja, a findBy dostaje Sort.unsorted().
+     */
+    public static <T> Specification<T> orderedBy(Sort sort, String idProperty) {
+        return (root, query, cb) -> {
+            // Zapytanie liczące (count) nie może mieć ORDER BY
+            if (Long.class.equals(query.getResultType())) return null;
+            List<Order> orders = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                Path<?> path = root.get(order.getProperty());
+                if (isOptional(path)) {
+                    orders.add(cb.asc(cb.selectCase().when(cb.isNull(path), 1).otherwise(0)));
+                }
+                orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+            }
+            Path<?> idPath = root.get(idProperty);
+            orders.add(idAscending(sort) ? cb.asc(idPath) : cb.desc(idPath));
+            query.orderBy(orders);
+            return null;
+        };
+    }
+
+    public static <T> Specification<T> after(Sort sort, String idProperty, KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            List<Sort.Order> orders = sort.toList();
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalSoFar = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++) {
+                Sort.Order order = orders.get(i);
+                Path<Comparable<Object>> path = root.get(order.getProperty());
+                String raw = cursor.value(i);
+                if (raw == null) {
+                    // NULL jest ostatni - za kursorem mogą być tylko kolejne wiersze bez wartości
+                    equalSoFar.add(cb.isNull(path));
+                    continue;
+                }
+                Comparable<Object> value = parse(path, raw);
+                Predicate beyond = beyond(cb, path, value, order.isAscending());
+                alternatives.add(and(cb, equalSoFar, isOptional(path) ? cb.or(beyond, cb.isNull(path)) : beyond));
+                equalSoFar.add(cb.equal(path, value));
+            }
+            Path<Comparable<Object>> idPath = root.get(idProperty);
+            alternatives.add(and(cb, equalSoFar, beyond(cb, idPath, asComparable(cursor.id()), idAscending(sort))));
+            return cb.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    private static boolean idAscending(Sort sort) {
+        return sort.stream().reduce((a, b) -> b).map(Sort.Order::isAscending).orElse(true);
+    }
+
+    // Kolumna bez NOT NULL - dla nich potrzebny jest klucz "NULL na końcu" i gałąź IS NULL
+    private static boolean isOptional(Path<?> path) {
+        return path.getModel() instanceof SingularAttribute<?, ?> attribute && attribute.isOptional();
+    }
+
+    private static Predicate beyond(CriteriaBuilder cb, Path<Comparable<Object>> path, Comparable<Object> value, boolean ascending) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+    private static Predicate and(CriteriaBuilder cb, List<Predicate> equalSoFar, Predicate last) {
+        List<Predicate> all = new ArrayList<>(equalSoFar);
+        all.add(last);
+        return cb.and(all.toArray(Predicate[]::new));
+    }
+
+    private static Comparable<Object> parse(Path<?> path, String raw) {
+        Class<?> type = path.getJavaType();
+        try {
+            if (OffsetDateTime.class.equals(type)) return asComparable(OffsetDateTime.parse(raw));
+            if (BigDecimal.class.equals(type)) return asComparable(new BigDecimal(raw));
+            if (Long.class.equals(type)) return asComparable(Long.valueOf(raw));
+            if (Double.class.equals(type)) return asComparable(Double.valueOf(raw));
+            return asComparable(raw);
+        } catch (RuntimeException ex) {
+            throw PaginationException.invalidCursor(raw);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> asComparable(Object value) {
+        return (Comparable<Object>) value;
+    }
+}
@@ -0,0 +1,17 @@
+package com.BINM.pagination;
+
+import com.BINM.exception.ErrorCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum PaginationErrorCode implements ErrorCode {
+
+    INVALID_CURSOR("PAGE_001", "Invalid pagination cursor", 400),
+    INVALID_PAGE_SIZE("PAGE_002", "Invalid page size", 400);
+
+    private final String code;
+    private final String message;
+    private final int status;
+}
@@ -0,0 +1,26 @@
+package com.BINM.pagination;
+
+import com.BINM.exception.BusinessException;
+import com.BINM.exception.ErrorCode;
+
+/**
+ * Wspólny błąd stronicowania - każdy endpoint z kursorem zwraca ten sam kod i tę samą treść odpowiedzi.
+ */
+public class PaginationException extends BusinessException {
+
+    public PaginationException(ErrorCode errorCode) {
+        super(errorCode);
+    }
+
+    public PaginationException(ErrorCode errorCode, String details) {
+        super(errorCode, details);
+    }
+
+    public static PaginationException invalidCursor(String cursor) {
+        return new PaginationException(PaginationErrorCode.INVALID_CURSOR, cursor);
+    }
+
+    public static PaginationException invalidPageSize(int size) {
+        return new PaginationException(PaginationErrorCode.INVALID_PAGE_SIZE, "Size must be at least 1, got " + size);
+    }
+}
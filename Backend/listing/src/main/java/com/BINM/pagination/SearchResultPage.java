@@ -0,0 +1,24 @@
+package com.BINM.pagination;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Zwykła strona (ten sam JSON co Page) z dodatkowym polem totalExact.
+ * totalExact == false oznacza, że totalElements jest szacunkiem albo dolnym ograniczeniem ("1000+").
+ */
+public class SearchResultPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public SearchResultPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+}
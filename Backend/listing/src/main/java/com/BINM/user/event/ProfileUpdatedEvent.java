@@ -0,0 +1,9 @@
+package com.BINM.user.event;
+
+import com.BINM.events.ReplicatedDomainEvent;
+
+/**
+ * Publikowany po zmianie publicznych danych profilu (nazwa, zdjęcie).
+ */
+public record ProfileUpdatedEvent(String userId, String name, String profileImageUrl) implements ReplicatedDomainEvent {
+}
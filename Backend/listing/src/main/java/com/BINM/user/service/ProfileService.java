@@ -1,6 +1,7 @@
 package com.BINM.user.service;
 
 import com.BINM.mailing.EmailFacade;
+import com.BINM.user.event.ProfileUpdatedEvent;
 import com.BINM.user.exception.LoginErrorException;
 import com.BINM.user.exception.OtpException;
 import com.BINM.user.exception.UserAlreadyExistsException;
@@ -10,6 +11,7 @@ import com.BINM.user.repository.UserRepository;
 import com.BINM.user.util.JwtUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
@@ -39,6 +41,7 @@ class ProfileService implements ProfileFacade {
     private final AuthenticationManager authenticationManager;
     private final AppUserDetailsService appUserDetailsService;
     private final JwtUtil jwtUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public PublicProfileResponse getPublicProfile(String userId) {
@@ -199,7 +202,10 @@ class ProfileService implements ProfileFacade {
             user.setProfileImageUrl(request.profileImageUrl());
         }
 
-        return convertToProfileResponse(userRepository.save(user));
+        UserEntity saved = userRepository.save(user);
+        // Nazwa sprzedawcy jest zdenormalizowana w kartach ogłoszeń (listing_cover)
+        eventPublisher.publishEvent(new ProfileUpdatedEvent(saved.getUserId(), saved.getName(), saved.getProfileImageUrl()));
+        return convertToProfileResponse(saved);
     }
 
     private ProfileResponse convertToProfileResponse(UserEntity userEntity) {
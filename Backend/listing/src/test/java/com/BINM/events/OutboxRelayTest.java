@@ -0,0 +1,247 @@
+package com.BINM.events;
+
+import com.BINM.jobs.service.JobFacade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_ATTEMPTS = 3;
+
+    record ItemEvent(int id) implements DomainEvent {
+    }
+
+    record OtherEvent(String name) implements DomainEvent {
+    }
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private JobFacade jobFacade;
+    @Mock
+    private ObjectProvider<DomainEventHandler<?>> handlers;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void relayOnce_ShouldDeliverInIdOrder_AndMarkDeliveredRowsDone() throws Exception {
+        // Arrange
+        List<Integer> delivered = new ArrayList<>();
+        OutboxRelay relay = relay(DomainEventHandler.of("items", ItemEvent.class,
+                events -> events.forEach(e -> delivered.add(e.id()))));
+        givenClaimed(row(3, new ItemEvent(3), 1), row(1, new ItemEvent(1), 1), row(2, new ItemEvent(2), 1));
+
+        // Act
+        int claimed = relay.relayOnce();
+
+        // Assert
+        assertEquals(3, claimed);
+        assertEquals(List.of(1, 2, 3), delivered);
+        verify(jdbcTemplate).update(contains("SET pending = false WHERE id IN (?, ?, ?)"), eq(1L), eq(2L), eq(3L));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertEquals(3, meterRegistry.get("events.outbox.relayed").counter().count());
+        assertEquals(3, meterRegistry.get("events.delivered").tag("handler", "items").counter().count());
+    }
+
+    @Test
+    void relayOnce_ShouldRescheduleOnlyRowsOfFailedHandler() throws Exception {
+        // Arrange
+        List<String> others = new ArrayList<>();
+        OutboxRelay relay = relay(
+                DomainEventHandler.of("items", ItemEvent.class, events -> {
+                    throw new IllegalStateException("database down");
+                }),
+                DomainEventHandler.of("others", OtherEvent.class, events -> events.forEach(e -> others.add(e.name()))));
+        givenClaimed(row(1, new ItemEvent(1), 2), row(2, new OtherEvent("a"), 1));
+
+        // Act
+        relay.relayOnce();
+
+        // Assert
+        assertEquals(List.of("a"), others);
+        verify(jdbcTemplate).update(contains("pending = false"), eq(2L));
+        List<Object[]> retries = capturedRetries();
+        assertEquals(1, retries.size());
+        assertEquals(2.0, retries.get(0)[0]);
+        assertEquals(2, retries.get(0)[1]);
+        assertTrue(((String) retries.get(0)[2]).contains("database down"));
+        assertEquals(1L, retries.get(0)[3]);
+        assertEquals(1, meterRegistry.get("events.outbox.retries").counter().count());
+        assertEquals(1, meterRegistry.get("events.failed").tag("handler", "items").counter().count());
+    }
+
+    @Test
+    void relayOnce_ShouldParkUndecodableRow_WithoutCallingHandlers() throws Exception {
+        // Arrange
+        OutboxRelay relay = relay(DomainEventHandler.of("items", ItemEvent.class, events -> fail("should not run")));
+        givenClaimed(new Object[]{5L, "com.BINM.events.RemovedEvent", "{}", 1});
+
+        // Act
+        relay.relayOnce();
+
+        // Assert
+        verify(jdbcTemplate, never()).update(contains("pending = false"), any(Object[].class));
+        List<Object[]> retries = capturedRetries();
+        assertEquals(MAX_ATTEMPTS, retries.get(0)[1]);
+        assertEquals(5L, retries.get(0)[3]);
+        assertEquals(1, meterRegistry.get("events.outbox.dead").counter().count());
+    }
+
+    @Test
+    void relayOnce_ShouldReturnZero_WhenNothingToClaim() {
+        // Arrange
+        OutboxRelay relay = relay();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        // Act
+        int claimed = relay.relayOnce();
+
+        // Assert
+        assertEquals(0, claimed);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void accepts_ShouldMatchOnlyEventTypesWithHandler() {
+        // Arrange
+        OutboxRelay relay = relay(DomainEventHandler.of("items", ItemEvent.class, events -> {
+        }));
+
+        // Act & Assert
+        assertTrue(relay.accepts(ItemEvent.class));
+        assertFalse(relay.accepts(OtherEvent.class));
+    }
+
+    @Test
+    void purge_ShouldDeleteDeliveredRowsAfterRetention_AndDeadRowsAfterDeadRetention_WhenLeaseAcquired() {
+        // Arrange
+        OutboxRelay relay = relay();
+        when(jobFacade.runExclusive(eq("outbox-purge"), eq(Duration.ofMinutes(10)), any())).thenAnswer(i -> {
+            IntSupplier task = i.getArgument(2);
+            return OptionalInt.of(task.getAsInt());
+        });
+
+        // Act
+        relay.purge();
+
+        // Assert
+        verify(jdbcTemplate).update(contains("WHERE NOT pending AND created_at <"), eq(3600.0));
+        verify(jdbcTemplate).update(contains("WHERE pending AND attempts >= ? AND created_at <"), eq(MAX_ATTEMPTS), eq(604800.0));
+    }
+
+    @Test
+    void pendingGauge_ShouldReportBacklogCountedByRelay_WithoutQueryingOnRead() {
+        // Arrange
+        OutboxRelay relay = relay();
+        when(jdbcTemplate.queryForObject(contains("WHERE pending AND attempts < ?"), eq(Long.class), eq(MAX_ATTEMPTS)))
+                .thenReturn(42L);
+        relay.refreshBacklog();
+
+        // Act
+        double first = meterRegistry.get("events.outbox.pending").gauge().value();
+        double second = meterRegistry.get("events.outbox.pending").gauge().value();
+
+        // Assert
+        assertEquals(42, first);
+        assertEquals(42, second);
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void refreshBacklog_ShouldCountAtMostOncePerRefreshInterval() {
+        // Arrange
+        OutboxRelay relay = relay();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(7L);
+
+        // Act
+        relay.refreshBacklog();
+        relay.refreshBacklog();
+
+        // Assert
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void pendingGauge_ShouldBeNaN_BeforeBacklogWasCounted() {
+        // Arrange
+        relay();
+
+        // Act
+        double pending = meterRegistry.get("events.outbox.pending").gauge().value();
+
+        // Assert
+        assertTrue(Double.isNaN(pending));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private OutboxRelay relay(DomainEventHandler<?>... eventHandlers) {
+        when(handlers.orderedStream()).thenReturn(Stream.of(eventHandlers));
+        DomainEventDispatcher dispatcher = new DomainEventDispatcher(handlers, meterRegistry);
+        return new OutboxRelay(jdbcTemplate, objectMapper, transactionManager, jobFacade, dispatcher, meterRegistry,
+                true, 1, BATCH_SIZE, Duration.ofSeconds(1), Duration.ofMinutes(1), MAX_ATTEMPTS, Duration.ofSeconds(1),
+                Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofDays(7), Duration.ofMinutes(1));
+    }
+
+    private Object[] row(long id, DomainEvent event, int attempts) throws Exception {
+        return new Object[]{id, event.getClass().getName(), objectMapper.writeValueAsString(event), attempts};
+    }
+
+    private void givenClaimed(Object[]... rows) throws SQLException {
+        List<ResultSet> resultSets = new ArrayList<>();
+        for (Object[] values : rows) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn((Long) values[0]);
+            when(rs.getString("event_type")).thenReturn((String) values[1]);
+            when(rs.getString("payload")).thenReturn((String) values[2]);
+            when(rs.getObject("created_at", OffsetDateTime.class)).thenReturn(OffsetDateTime.now());
+            when(rs.getInt("attempts")).thenReturn((Integer) values[3]);
+            resultSets.add(rs);
+        }
+        when(jdbcTemplate.query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), eq(60.0), eq(MAX_ATTEMPTS), eq(BATCH_SIZE)))
+                .thenAnswer(i -> {
+                    RowMapper<?> mapper = i.getArgument(1);
+                    List<Object> mapped = new ArrayList<>();
+                    for (ResultSet rs : resultSets) mapped.add(mapper.mapRow(rs, mapped.size()));
+                    return mapped;
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedRetries() {
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("last_error"), args.capture());
+        return args.getValue();
+    }
+}
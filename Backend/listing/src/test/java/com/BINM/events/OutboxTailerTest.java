@@ -0,0 +1,158 @@
+package com.BINM.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxTailerTest {
+
+    private static final int BATCH_SIZE = 10;
+
+    record ChangedEvent(int id) implements ReplicatedDomainEvent {
+    }
+
+    record CleanupEvent(int id) implements DomainEvent {
+    }
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void tailOnce_ShouldPublishOnlyReplicatedEventsOfOtherInstances() throws Exception {
+        // Arrange
+        OutboxTailer tailer = tailer(Duration.ofMinutes(1));
+        givenStartAt(0);
+        givenTail(0, row(1, new ChangedEvent(1), "other"), row(2, new ChangedEvent(2), tailer.origin()),
+                row(3, new CleanupEvent(3), "other"));
+
+        // Act
+        int read = tailer.tailOnce();
+
+        // Assert
+        assertEquals(3, read);
+        assertEquals(List.of(new ChangedEvent(1)), published());
+        assertEquals(1, meterRegistry.get("events.outbox.replayed").counter().count());
+    }
+
+    @Test
+    void tailOnce_ShouldPublishRowCommittedLate_WhenItsIdWasSkipped() throws Exception {
+        // Arrange
+        OutboxTailer tailer = tailer(Duration.ofMinutes(1));
+        givenStartAt(5);
+        givenTail(5, row(7, new ChangedEvent(7), "other"));
+        givenTail(7);
+        tailer.tailOnce();
+        givenGaps(row(6, new ChangedEvent(6), "other"));
+
+        // Act
+        tailer.tailOnce();
+
+        // Assert
+        assertEquals(List.of(new ChangedEvent(7), new ChangedEvent(6)), published());
+        assertEquals(0, meterRegistry.get("events.outbox.gaps").gauge().value());
+    }
+
+    @Test
+    void tailOnce_ShouldForgetGap_WhenTimeoutPassed() throws Exception {
+        // Arrange
+        OutboxTailer tailer = tailer(Duration.ZERO);
+        givenStartAt(5);
+        givenTail(5, row(7, new ChangedEvent(7), "other"));
+        givenTail(7);
+        tailer.tailOnce();
+        givenGaps();
+
+        // Act
+        tailer.tailOnce();
+
+        // Assert
+        assertEquals(0, meterRegistry.get("events.outbox.gaps").gauge().value());
+        assertEquals(1, meterRegistry.get("events.outbox.gaps.expired").counter().count());
+    }
+
+    @Test
+    void replicates_ShouldBeFalse_ForEventsWithoutReplicaListeners() {
+        // Arrange
+        OutboxTailer tailer = tailer(Duration.ofMinutes(1));
+
+        // Act & Assert
+        assertTrue(tailer.replicates(ChangedEvent.class));
+        assertFalse(tailer.replicates(CleanupEvent.class));
+    }
+
+    private OutboxTailer tailer(Duration gapTimeout) {
+        return new OutboxTailer(jdbcTemplate, objectMapper, eventPublisher, meterRegistry, true, BATCH_SIZE, gapTimeout,
+                Duration.ofSeconds(1));
+    }
+
+    private Object[] row(long id, DomainEvent event, String origin) throws Exception {
+        return new Object[]{id, event.getClass().getName(), objectMapper.writeValueAsString(event), origin};
+    }
+
+    private void givenStartAt(long id) {
+        when(jdbcTemplate.queryForObject(contains("max(id)"), eq(Long.class), anyDouble())).thenReturn(id);
+    }
+
+    private void givenTail(long afterId, Object[]... rows) throws SQLException {
+        List<ResultSet> resultSets = resultSets(rows);
+        when(jdbcTemplate.query(contains("WHERE id > ?"), any(RowMapper.class), eq(afterId), eq(BATCH_SIZE)))
+                .thenAnswer(i -> map(i.getArgument(1), resultSets));
+    }
+
+    private void givenGaps(Object[]... rows) throws SQLException {
+        List<ResultSet> resultSets = resultSets(rows);
+        when(jdbcTemplate.query(contains("WHERE id IN"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(i -> map(i.getArgument(1), resultSets));
+    }
+
+    private List<ResultSet> resultSets(Object[]... rows) throws SQLException {
+        List<ResultSet> resultSets = new ArrayList<>();
+        for (Object[] values : rows) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn((Long) values[0]);
+            when(rs.getString("event_type")).thenReturn((String) values[1]);
+            when(rs.getString("payload")).thenReturn((String) values[2]);
+            when(rs.getString("origin")).thenReturn((String) values[3]);
+            resultSets.add(rs);
+        }
+        return resultSets;
+    }
+
+    private static List<Object> map(RowMapper<?> mapper, List<ResultSet> resultSets) throws SQLException {
+        List<Object> mapped = new ArrayList<>();
+        for (ResultSet rs : resultSets) mapped.add(mapper.mapRow(rs, mapped.size()));
+        return mapped;
+    }
+
+    private List<Object> published() {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        return events.getAllValues().stream().map(e -> (Object) ((ReplicatedEvent<?>) e).event()).toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.BINM.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxWriterTest {
+
+    record HandledEvent(int id) implements DomainEvent {
+    }
+
+    record UnhandledEvent(int id) implements DomainEvent {
+    }
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private OutboxRelay relay;
+    @Mock
+    private OutboxTailer tailer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void onDomainEvent_ShouldSkipEvent_WhenNoHandlerAndNoReplicaNeedIt() {
+        // Arrange
+        OutboxWriter writer = writer();
+        when(relay.accepts(UnhandledEvent.class)).thenReturn(false);
+        when(tailer.replicates(UnhandledEvent.class)).thenReturn(false);
+
+        // Act
+        writer.onDomainEvent(new UnhandledEvent(1));
+
+        // Assert
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(relay, never()).wakeUp();
+        assertEquals(0, meterRegistry.get("events.outbox.written").counter().count());
+    }
+
+    @Test
+    void onDomainEvent_ShouldWritePendingRow_AndWakeRelay_WhenHandlerExists() {
+        // Arrange
+        OutboxWriter writer = writer();
+        when(relay.accepts(HandledEvent.class)).thenReturn(true);
+        when(tailer.origin()).thenReturn("instance-a");
+
+        // Act
+        writer.onDomainEvent(new HandledEvent(1));
+
+        // Assert
+        Object[] row = insertedRows().get(0);
+        assertEquals(HandledEvent.class.getName(), row[0]);
+        assertEquals(true, row[2]);
+        assertEquals("instance-a", row[3]);
+        verify(relay).wakeUp();
+    }
+
+    @Test
+    void onDomainEvent_ShouldWriteDoneRow_WithoutWakingRelay_WhenOnlyReplicasNeedIt() {
+        // Arrange
+        OutboxWriter writer = writer();
+        when(relay.accepts(UnhandledEvent.class)).thenReturn(false);
+        when(tailer.replicates(UnhandledEvent.class)).thenReturn(true);
+        when(tailer.origin()).thenReturn("instance-a");
+
+        // Act
+        writer.onDomainEvent(new UnhandledEvent(1));
+
+        // Assert
+        assertEquals(false, insertedRows().get(0)[2]);
+        verify(relay, never()).wakeUp();
+    }
+
+    private OutboxWriter writer() {
+        return new OutboxWriter(jdbcTemplate, new ObjectMapper(), relay, tailer, meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> insertedRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO outbox_event"), rows.capture());
+        return rows.getValue();
+    }
+}
@@ -0,0 +1,135 @@
+package com.BINM.jobs.service;
+
+import com.BINM.jobs.model.JobRun;
+import com.BINM.jobs.model.JobRunStatus;
+import com.BINM.jobs.repository.JobLeaseRepository;
+import com.BINM.jobs.repository.JobRunRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobCoordinatorTest {
+
+    private static final String OWNER = "node-1";
+    private static final Duration PERIOD = Duration.ofHours(1);
+
+    @Mock
+    private JobLeaseRepository jobLeaseRepository;
+    @Mock
+    private JobRunRepository jobRunRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JobCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        coordinator = new JobCoordinator(jobLeaseRepository, jobRunRepository, meterRegistry, OWNER, Duration.ofDays(14));
+    }
+
+    @Test
+    void runExclusive_ShouldSkip_WhenLeaseHeldByAnotherInstance() {
+        // Arrange
+        when(jobLeaseRepository.tryAcquire("sweep", OWNER, 3600)).thenReturn(0);
+
+        // Act
+        OptionalInt result = coordinator.runExclusive("sweep", PERIOD, () -> fail("should not run"));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(jobRunRepository);
+        assertEquals(1, meterRegistry.get("jobs.skipped").tag("job", "sweep").counter().count());
+    }
+
+    @Test
+    void runExclusive_ShouldRecordRun_AndKeepLease_WhenTaskSucceeds() {
+        // Arrange
+        when(jobLeaseRepository.tryAcquire("sweep", OWNER, 3600)).thenReturn(1);
+
+        // Act
+        OptionalInt result = coordinator.runExclusive("sweep", PERIOD, () -> 42);
+
+        // Assert
+        assertEquals(OptionalInt.of(42), result);
+        ArgumentCaptor<JobRun> run = ArgumentCaptor.forClass(JobRun.class);
+        verify(jobRunRepository).save(run.capture());
+        assertEquals(JobRunStatus.SUCCEEDED, run.getValue().getStatus());
+        assertEquals(42, run.getValue().getItems());
+        assertEquals(OWNER, run.getValue().getOwner());
+        assertNull(run.getValue().getPartition());
+        verify(jobLeaseRepository, never()).release(anyString(), anyString());
+        assertEquals(1, meterRegistry.get("jobs.run").tags("job", "sweep", "outcome", "succeeded").timer().count());
+    }
+
+    @Test
+    void runExclusive_ShouldReleaseLease_AndRecordFailure_WhenTaskThrows() {
+        // Arrange
+        when(jobLeaseRepository.tryAcquire("sweep", OWNER, 3600)).thenReturn(1);
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> coordinator.runExclusive("sweep", PERIOD, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Assert
+        verify(jobLeaseRepository).release("sweep", OWNER);
+        ArgumentCaptor<JobRun> run = ArgumentCaptor.forClass(JobRun.class);
+        verify(jobRunRepository).save(run.capture());
+        assertEquals(JobRunStatus.FAILED, run.getValue().getStatus());
+        assertTrue(run.getValue().getError().contains("boom"));
+    }
+
+    @Test
+    void runPartitioned_ShouldRunOnlyAcquiredPartitions() {
+        // Arrange
+        when(jobLeaseRepository.tryAcquire(anyString(), eq(OWNER), anyLong()))
+                .thenAnswer(i -> Set.of("sweep#0", "sweep#2").contains(i.<String>getArgument(0)) ? 1 : 0);
+        List<long[]> ranges = new ArrayList<>();
+
+        // Act
+        int total = coordinator.runPartitioned("sweep", PERIOD, 1, 100, 4, (fromId, toId) -> {
+            ranges.add(new long[]{fromId, toId});
+            return 5;
+        });
+
+        // Assert
+        assertEquals(10, total);
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+        assertArrayEquals(new long[]{1, 26}, ranges.get(0));
+        assertArrayEquals(new long[]{51, 76}, ranges.get(1));
+        verify(jobLeaseRepository, times(4)).tryAcquire(anyString(), eq(OWNER), anyLong());
+        verify(jobRunRepository, times(2)).save(any(JobRun.class));
+    }
+
+    @Test
+    void isLeader_ShouldReuseAnswer_WithinHalfOfLease() {
+        // Arrange
+        when(jobLeaseRepository.tryAcquire("wheel", OWNER, 30)).thenReturn(1);
+
+        // Act
+        boolean first = coordinator.isLeader("wheel", Duration.ofSeconds(30));
+        boolean second = coordinator.isLeader("wheel", Duration.ofSeconds(30));
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        verify(jobLeaseRepository, times(1)).tryAcquire("wheel", OWNER, 30);
+    }
+}
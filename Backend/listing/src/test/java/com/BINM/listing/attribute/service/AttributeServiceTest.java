@@ -8,6 +8,7 @@ import com.BINM.listing.attribute.model.AttributeOption;
 import com.BINM.listing.attribute.model.AttributeType;
 import com.BINM.listing.attribute.repostiory.AttributeDefinitionRepository;
 import com.BINM.listing.attribute.repostiory.AttributeOptionRepository;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
 import com.BINM.listing.category.model.Category;
 import com.BINM.listing.category.repository.CategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -37,6 +38,8 @@ class AttributeServiceTest {
     private CategoryRepository categoryRepository;
     @Mock
     private AttributeMapper attributeMapper;
+    @Mock
+    private CatalogSnapshotHolder catalog;
 
     @InjectMocks
     private AttributeService attributeService;
@@ -67,6 +70,7 @@ class AttributeServiceTest {
         // Assert
         verify(definitionRepository).save(any(AttributeDefinition.class));
         verify(optionRepository, times(2)).save(any(AttributeOption.class)); // 2 opcje
+        verify(catalog).refreshAfterCommit();
     }
 
     @Test
@@ -0,0 +1,75 @@
+package com.BINM.listing.catalog;
+
+import com.BINM.listing.attribute.repostiory.AttributeDefinitionRepository;
+import com.BINM.listing.attribute.repostiory.AttributeOptionRepository;
+import com.BINM.listing.category.repository.CategoryClosureRepository;
+import com.BINM.listing.category.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotHolderTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+    @Mock
+    private AttributeDefinitionRepository definitionRepository;
+    @Mock
+    private AttributeOptionRepository optionRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogSnapshotHolder holder;
+
+    @BeforeEach
+    void setUp() {
+        holder = new CatalogSnapshotHolder(categoryRepository, categoryClosureRepository, definitionRepository,
+                optionRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void pollVersion_ShouldRebuild_OnlyWhenAnotherReplicaBumpedVersion() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(contains("SELECT coalesce(max(version)"), eq(Long.class))).thenReturn(3L, 3L, 4L, 4L);
+
+        // Act
+        CatalogSnapshot initial = holder.current();
+        holder.pollVersion();
+        CatalogSnapshot unchanged = holder.current();
+        holder.pollVersion();
+
+        // Assert
+        assertSame(initial, unchanged);
+        assertEquals(4, holder.current().version());
+        assertEquals("c4", holder.etag(holder.current()));
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    void refreshAfterCommit_ShouldBumpSharedVersion_AndRebuild_WhenNoTransaction() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(contains("ON CONFLICT"), eq(Long.class))).thenReturn(8L);
+        when(jdbcTemplate.queryForObject(contains("SELECT coalesce(max(version)"), eq(Long.class))).thenReturn(8L);
+
+        // Act
+        holder.refreshAfterCommit();
+
+        // Assert
+        assertEquals(8, holder.current().version());
+        verify(categoryRepository).findAll();
+    }
+}
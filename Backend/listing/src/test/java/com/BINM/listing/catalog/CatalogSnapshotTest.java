@@ -0,0 +1,102 @@
+package com.BINM.listing.catalog;
+
+import com.BINM.listing.attribute.dto.AttributeDefinitionDto;
+import com.BINM.listing.attribute.model.AttributeDefinition;
+import com.BINM.listing.attribute.model.AttributeOption;
+import com.BINM.listing.attribute.model.AttributeType;
+import com.BINM.listing.category.dto.CategoryTreeDto;
+import com.BINM.listing.category.model.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private Category motoryzacja;
+    private Category osobowe;
+    private Category rowery;
+    private AttributeDefinition condition;
+    private AttributeDefinition brand;
+    private AttributeDefinition childCondition;
+    private AttributeOption audi;
+
+    @BeforeEach
+    void setUp() {
+        motoryzacja = category(1L, null, "Motoryzacja", 1);
+        osobowe = category(2L, motoryzacja, "Samochody osobowe", 0);
+        rowery = category(3L, null, "Rowery", 0);
+        condition = definition(10L, motoryzacja, "condition", "Stan", AttributeType.STRING, true);
+        brand = definition(11L, osobowe, "brand", "Marka", AttributeType.ENUM, true);
+        childCondition = definition(12L, osobowe, "Condition", "Stan auta", AttributeType.STRING, true);
+        audi = AttributeOption.builder().id(100L).attribute(brand).value("audi").label("Audi").sortOrder(0).build();
+    }
+
+    @Test
+    void build_ShouldSortTreeAndNestChildren() {
+        // Act
+        CatalogSnapshot snapshot = snapshot();
+
+        // Assert
+        List<CategoryTreeDto> tree = snapshot.tree();
+        assertEquals(List.of("Rowery", "Motoryzacja"), tree.stream().map(CategoryTreeDto::name).toList());
+        assertEquals("Samochody osobowe", tree.get(1).children().get(0).name());
+        assertThrows(UnsupportedOperationException.class, () -> tree.get(1).children().add(null));
+    }
+
+    @Test
+    void effectiveDefinitions_ShouldInheritFromAncestors_AndLetChildOverride() {
+        // Act
+        CatalogSnapshot snapshot = snapshot();
+
+        // Assert
+        List<AttributeDefinitionDto> defs = snapshot.effectiveDefinitions(2L);
+        assertEquals(List.of("Stan auta", "Marka"), defs.stream().map(AttributeDefinitionDto::label).toList());
+        assertEquals("audi", defs.get(1).options().get(0).value());
+        assertNull(defs.get(0).options());
+        assertSame(brand, snapshot.effectiveDefinitionsByKey(2L).get("brand"));
+        assertEquals(List.of(condition), List.copyOf(snapshot.effectiveDefinitionsByKey(1L).values()));
+    }
+
+    @Test
+    void option_ShouldMatchValueIgnoringCase() {
+        // Act
+        CatalogSnapshot snapshot = snapshot();
+
+        // Assert
+        assertSame(audi, snapshot.option(11L, "AUDI").orElseThrow());
+        assertTrue(snapshot.option(11L, "bmw").isEmpty());
+        assertTrue(snapshot.option(10L, null).isEmpty());
+    }
+
+    @Test
+    void build_ShouldSkipInactiveDefinitions() {
+        // Arrange
+        AttributeDefinition inactive = definition(13L, rowery, "frame", "Rama", AttributeType.STRING, false);
+
+        // Act
+        CatalogSnapshot snapshot = CatalogSnapshot.build(7, List.of(motoryzacja, osobowe, rowery), List.of(),
+                List.of(inactive), List.of());
+
+        // Assert
+        assertTrue(snapshot.effectiveDefinitions(3L).isEmpty());
+        assertEquals(7, snapshot.version());
+    }
+
+    private CatalogSnapshot snapshot() {
+        return CatalogSnapshot.build(1, List.of(motoryzacja, osobowe, rowery), List.of(),
+                List.of(condition, brand, childCondition), List.of(audi));
+    }
+
+    private static Category category(Long id, Category parent, String name, int sortOrder) {
+        return Category.builder().id(id).parent(parent).name(name).sortOrder(sortOrder)
+                .depth(parent == null ? 0 : parent.getDepth() + 1).isLeaf(parent != null).build();
+    }
+
+    private static AttributeDefinition definition(Long id, Category category, String key, String label, AttributeType type, boolean active) {
+        return AttributeDefinition.builder().id(id).category(category).key(key).label(label).type(type)
+                .sortOrder(id.intValue()).active(active).build();
+    }
+}
@@ -1,9 +1,13 @@
 package com.BINM.listing.category.service;
 
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
 import com.BINM.listing.category.dto.CategoryCreateRequest;
 import com.BINM.listing.category.dto.CategoryDto;
 import com.BINM.listing.category.mapper.CategoryMapper;
 import com.BINM.listing.category.model.Category;
+import com.BINM.listing.category.model.CategoryClosure;
+import com.BINM.listing.category.repository.CategoryClosureRepository;
 import com.BINM.listing.category.repository.CategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
@@ -12,7 +16,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,7 +29,11 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
     @Mock
+    private CategoryClosureRepository categoryClosureRepository;
+    @Mock
     private CategoryMapper categoryMapper;
+    @Mock
+    private CatalogSnapshotHolder catalog;
 
     @InjectMocks
     private CategoryService categoryService;
@@ -68,7 +75,7 @@ class CategoryServiceTest {
         
         when(categoryRepository.save(any(Category.class))).thenAnswer(i -> {
             Category c = i.getArgument(0);
-            c.setId(2L);
+            if (c.getId() == null) c.setId(2L);
             return c;
         });
 
@@ -82,6 +89,9 @@ class CategoryServiceTest {
         assertEquals("Laptopy", result.name());
         assertEquals(1L, result.parentId());
         verify(categoryRepository, times(2)).save(any(Category.class)); // Raz parent (update isLeaf), raz child
+        verify(categoryClosureRepository).insertSelf(2L);
+        verify(categoryClosureRepository).insertAncestors(2L, 1L);
+        verify(catalog).refreshAfterCommit();
     }
 
     @Test
@@ -102,11 +112,7 @@ class CategoryServiceTest {
         Category middle = new Category(); middle.setId(2L); middle.setName("Middle"); middle.setParent(root);
         Category leaf = new Category(); leaf.setId(3L); leaf.setName("Leaf"); leaf.setParent(middle);
 
-        when(categoryRepository.findById(3L)).thenReturn(Optional.of(leaf));
-
-        when(categoryMapper.toDto(root)).thenReturn(new CategoryDto(1L, null, "Root", null, 0, 0, false));
-        when(categoryMapper.toDto(middle)).thenReturn(new CategoryDto(2L, 1L, "Middle", null, 0, 1, false));
-        when(categoryMapper.toDto(leaf)).thenReturn(new CategoryDto(3L, 2L, "Leaf", null, 0, 2, true));
+        when(catalog.current()).thenReturn(CatalogSnapshot.build(1, List.of(root, middle, leaf), List.of(), List.of(), List.of()));
 
         // Act
         List<CategoryDto> path = categoryService.getPath(3L);
@@ -116,29 +122,34 @@ class CategoryServiceTest {
         assertEquals("Root", path.get(0).name());
         assertEquals("Middle", path.get(1).name());
         assertEquals("Leaf", path.get(2).name());
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
-    void collectDescendantIds_ShouldReturnAllSubCategoryIds() {
+    void getPath_ShouldThrowException_WhenCategoryNotInCatalog() {
         // Arrange
-        Category root = new Category(); root.setId(1L);
-        Category child1 = new Category(); child1.setId(2L);
-        Category child2 = new Category(); child2.setId(3L);
-        Category grandChild = new Category(); grandChild.setId(4L);
+        when(catalog.current()).thenReturn(CatalogSnapshot.build(1, List.of(), List.of(), List.of(), List.of()));
 
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(root));
-        
-        // Mockowanie pobierania dzieci
-        when(categoryRepository.findByParentIdOrderBySortOrderAscNameAsc(1L)).thenReturn(List.of(child1, child2));
-        when(categoryRepository.findByParentIdOrderBySortOrderAscNameAsc(2L)).thenReturn(List.of(grandChild));
-        when(categoryRepository.findByParentIdOrderBySortOrderAscNameAsc(3L)).thenReturn(Collections.emptyList());
-        when(categoryRepository.findByParentIdOrderBySortOrderAscNameAsc(4L)).thenReturn(Collections.emptyList());
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> categoryService.getPath(3L));
+    }
+
+    @Test
+    void collectDescendantIds_ShouldReturnAllSubCategoryIds() {
+        // Arrange
+        when(catalog.current()).thenReturn(CatalogSnapshot.build(1, List.of(), List.of(
+                new CategoryClosure(1L, 1L, 0), new CategoryClosure(1L, 2L, 1), new CategoryClosure(1L, 3L, 1), new CategoryClosure(1L, 4L, 2),
+                new CategoryClosure(2L, 2L, 0), new CategoryClosure(2L, 4L, 1),
+                new CategoryClosure(3L, 3L, 0),
+                new CategoryClosure(4L, 4L, 0)), List.of(), List.of()));
 
         // Act
         List<Long> ids = categoryService.collectDescendantIds(1L);
 
         // Assert
-        assertEquals(4, ids.size()); // 1, 2, 3, 4
-        assertTrue(ids.containsAll(List.of(1L, 2L, 3L, 4L)));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids);
+        assertEquals(List.of(2L, 4L), categoryService.collectDescendantIds(2L));
+        assertTrue(categoryService.collectDescendantIds(999L).isEmpty());
+        verifyNoInteractions(categoryRepository, categoryClosureRepository);
     }
 }
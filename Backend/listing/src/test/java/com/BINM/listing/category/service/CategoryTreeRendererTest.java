@@ -0,0 +1,74 @@
+package com.BINM.listing.category.service;
+
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
+import com.BINM.listing.category.dto.CategoryTreeJson;
+import com.BINM.listing.category.model.Category;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryTreeRendererTest {
+
+    @Mock
+    private CatalogSnapshotHolder catalog;
+
+    private CategoryTreeRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new CategoryTreeRenderer(catalog, new ObjectMapper());
+    }
+
+    @Test
+    void current_ShouldRenderOncePerCatalogVersion() {
+        // Arrange
+        CatalogSnapshot v1 = snapshot(1, "Motoryzacja");
+        CatalogSnapshot v2 = snapshot(2, "Elektronika");
+        when(catalog.current()).thenReturn(v1, v1, v2);
+        when(catalog.etag(any())).thenAnswer(i -> "c-" + i.<CatalogSnapshot>getArgument(0).version());
+
+        // Act
+        CategoryTreeJson first = renderer.current();
+        CategoryTreeJson again = renderer.current();
+        CategoryTreeJson changed = renderer.current();
+
+        // Assert
+        assertSame(first, again);
+        assertEquals("c-2", changed.etag());
+        assertTrue(new String(changed.json()).contains("Elektronika"));
+    }
+
+    @Test
+    void current_ShouldGzipSameJson() throws Exception {
+        // Arrange
+        CatalogSnapshot v1 = snapshot(1, "Motoryzacja");
+        when(catalog.current()).thenReturn(v1);
+        when(catalog.etag(v1)).thenReturn("c-1");
+
+        // Act
+        CategoryTreeJson tree = renderer.current();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(tree.gzip()))) {
+            assertArrayEquals(tree.json(), in.readAllBytes());
+        }
+    }
+
+    private static CatalogSnapshot snapshot(long version, String name) {
+        Category root = Category.builder().id(1L).name(name).sortOrder(0).depth(0).isLeaf(true).build();
+        return CatalogSnapshot.build(version, List.of(root), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,53 @@
+package com.BINM.listing.listing.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoCellsTest {
+
+    private static final double WARSAW_LAT = 52.2297;
+    private static final double WARSAW_LON = 21.0122;
+
+    @Test
+    void distanceKm_ShouldMatchKnownDistance_BetweenWarsawAndKrakow() {
+        // Act
+        double km = GeoCells.distanceKm(WARSAW_LAT, WARSAW_LON, 50.0647, 19.9450);
+
+        // Assert
+        assertEquals(252, km, 2);
+    }
+
+    @Test
+    void covering_ShouldContainEveryPointInsideRadius() {
+        // Arrange
+        GeoCells.Box box = GeoCells.Box.around(WARSAW_LAT, WARSAW_LON, 10);
+
+        // Act
+        List<GeoCells.Range> ranges = GeoCells.covering(box);
+
+        // Assert
+        assertTrue(ranges.size() <= GeoCells.MAX_CELLS);
+        for (double dLat = -0.089; dLat <= 0.089; dLat += 0.0089) {
+            for (double dLon = -0.146; dLon <= 0.146; dLon += 0.0146) {
+                long cell = GeoCells.encode(WARSAW_LAT + dLat, WARSAW_LON + dLon);
+                assertTrue(ranges.stream().anyMatch(r -> cell >= r.from() && cell <= r.to()),
+                        "point " + dLat + "," + dLon + " outside covering");
+            }
+        }
+    }
+
+    @Test
+    void covering_ShouldExcludeDistantCity() {
+        // Arrange
+        List<GeoCells.Range> ranges = GeoCells.covering(GeoCells.Box.around(WARSAW_LAT, WARSAW_LON, 10));
+
+        // Act
+        long krakow = GeoCells.encode(50.0647, 19.9450);
+
+        // Assert
+        assertTrue(ranges.stream().noneMatch(r -> krakow >= r.from() && krakow <= r.to()));
+    }
+}
@@ -0,0 +1,175 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.attribute.model.AttributeDefinition;
+import com.BINM.listing.attribute.model.AttributeOption;
+import com.BINM.listing.attribute.model.AttributeType;
+import com.BINM.listing.catalog.CatalogSnapshot;
+import com.BINM.listing.catalog.CatalogSnapshotHolder;
+import com.BINM.listing.category.model.Category;
+import com.BINM.listing.listing.dto.ListingSearchRequest.AttributeFilter;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingAttribute;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttributeFilterPlannerTest {
+
+    @Mock
+    private CatalogSnapshotHolder catalog;
+    @Mock
+    private AttributeValueHistogram histogram;
+    @Mock
+    private EntityManager entityManager;
+
+    private AttributeFilterPlanner planner;
+
+    private final AttributeFilter damaged = new AttributeFilter("damaged", "BOOLEAN", "eq", "true", null, null, null);
+    private final AttributeFilter mileage = new AttributeFilter("mileage", "NUMBER", "lte", "20000", null, null, null);
+    private final AttributeFilter brand = new AttributeFilter("Brand", "ENUM", "eq", "audi", null, null, null);
+
+    @BeforeEach
+    void setUp() {
+        // Limit 0 - żaden filtr nie pobiera kandydatów, cały plan trafia do EXISTS
+        planner = new AttributeFilterPlanner(catalog, histogram, entityManager, 0);
+        Category cars = Category.builder().id(1L).name("Samochody").sortOrder(0).depth(0).isLeaf(true).build();
+        AttributeDefinition brandDef = definition(11L, cars, "brand", AttributeType.ENUM);
+        AttributeOption audi = AttributeOption.builder().id(100L).attribute(brandDef).value("audi").label("Audi").sortOrder(0).build();
+        when(catalog.current()).thenReturn(CatalogSnapshot.build(1, List.of(cars), List.of(),
+                List.of(brandDef, definition(12L, cars, "mileage", AttributeType.NUMBER), definition(13L, cars, "damaged", AttributeType.BOOLEAN)),
+                List.of(audi)));
+    }
+
+    @Test
+    void plan_ShouldOrderFiltersBySelectivity() {
+        // Arrange
+        givenHistogram();
+
+        // Act
+        AttributeFilterPlanner.Plan plan = planner.plan(List.of(damaged, mileage, brand));
+
+        // Assert
+        assertFalse(plan.matchesNothing());
+        assertNull(plan.candidateIds());
+        assertEquals(List.of(brand, mileage, damaged), plan.remaining().stream().map(AttributeFilterPlanner.Step::filter).toList());
+        assertEquals(List.of(30L, 100L, 500L), plan.remaining().stream().map(AttributeFilterPlanner.Step::estimate).toList());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void plan_ShouldIntersectFetchedCandidates_AndFilterByIdIn_WhenFiltersFitCandidateLimit() {
+        // Arrange
+        EntityManager fetching = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+        AttributeFilterPlanner withCandidates = new AttributeFilterPlanner(catalog, histogram, fetching, 1000);
+        givenHistogram();
+        when(fetching.createQuery(any(CriteriaQuery.class)).setMaxResults(1001).getResultList())
+                .thenReturn(List.of(1L, 2L, 3L), List.of(2L, 3L), List.of(3L));
+        Path<Object> candidateIds = fetching.getCriteriaBuilder().createQuery(Long.class)
+                .from(ListingAttribute.class).join("listing").get("id");
+        Root<Listing> root = mock(Root.class, RETURNS_DEEP_STUBS);
+
+        // Act
+        AttributeFilterPlanner.Plan plan = withCandidates.plan(List.of(damaged, mileage, brand));
+        withCandidates.toSpecification(plan).toPredicate(root, mock(CriteriaQuery.class), mock(CriteriaBuilder.class));
+
+        // Assert
+        assertEquals(Set.of(3L), plan.candidateIds());
+        assertTrue(plan.remaining().isEmpty());
+        verify(candidateIds).in(Set.of(1L, 2L, 3L));
+        verify(candidateIds).in(Set.of(2L, 3L));
+        verify(root.get("id")).in(Set.of(3L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void plan_ShouldLeaveEveryFilterToExists_WhenCandidateFetchExceedsLimit() {
+        // Arrange
+        EntityManager fetching = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+        AttributeFilterPlanner withCandidates = new AttributeFilterPlanner(catalog, histogram, fetching, 50);
+        givenHistogram();
+        // Histogram szacował 30 ogłoszeń marki, a pasuje więcej niż limit
+        when(fetching.createQuery(any(CriteriaQuery.class)).setMaxResults(51).getResultList())
+                .thenReturn(LongStream.rangeClosed(1, 51).boxed().toList());
+        CriteriaQuery<?> query = mock(CriteriaQuery.class, RETURNS_DEEP_STUBS);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+
+        // Act
+        AttributeFilterPlanner.Plan plan = withCandidates.plan(List.of(damaged, mileage, brand));
+        withCandidates.toSpecification(plan).toPredicate(mock(Root.class), query, cb);
+
+        // Assert
+        assertNull(plan.candidateIds());
+        assertEquals(List.of(brand, mileage, damaged), plan.remaining().stream().map(AttributeFilterPlanner.Step::filter).toList());
+        verify(cb, times(3)).exists(any());
+    }
+
+    @Test
+    void plan_ShouldKeepRequestOrder_WhenHistogramNotLoaded() {
+        // Arrange
+        when(histogram.isLoaded()).thenReturn(false);
+
+        // Act
+        AttributeFilterPlanner.Plan plan = planner.plan(List.of(damaged, brand));
+
+        // Assert
+        assertEquals(List.of(damaged, brand), plan.remaining().stream().map(AttributeFilterPlanner.Step::filter).toList());
+        assertEquals(List.of(13L), plan.remaining().get(0).attributeIds());
+    }
+
+    @Test
+    void plan_ShouldMatchNothing_WhenKeyUnknown() {
+        // Act
+        AttributeFilterPlanner.Plan plan = planner.plan(List.of(brand,
+                new AttributeFilter("color", "STRING", "eq", "red", null, null, null)));
+
+        // Assert
+        assertTrue(plan.matchesNothing());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void plan_ShouldResolveEnumValuesToOptionIds_AndMatchNothing_WhenOptionUnknown() {
+        // Arrange
+        when(histogram.isLoaded()).thenReturn(false);
+        AttributeFilter brands = new AttributeFilter("brand", "ENUM", "in", null, List.of("AUDI", "skoda"), null, null);
+
+        // Act
+        AttributeFilterPlanner.Plan plan = planner.plan(List.of(brands));
+        AttributeFilterPlanner.Plan unknown = planner.plan(List.of(new AttributeFilter("brand", "ENUM", "eq", "skoda", null, null, null)));
+
+        // Assert
+        assertEquals(List.of(100L), plan.remaining().get(0).optionIds());
+        assertTrue(unknown.matchesNothing());
+    }
+
+    private void givenHistogram() {
+        when(histogram.isLoaded()).thenReturn(true);
+        when(histogram.option(100L)).thenReturn(30L);
+        when(histogram.total(12L)).thenReturn(1000L);
+        when(histogram.range(12L)).thenReturn(new AttributeValueHistogram.Range(BigDecimal.ZERO, new BigDecimal("200000")));
+        when(histogram.bool(13L, true)).thenReturn(500L);
+    }
+
+    private static AttributeDefinition definition(Long id, Category category, String key, AttributeType type) {
+        return AttributeDefinition.builder().id(id).category(category).key(key).label(key).type(type)
+                .sortOrder(id.intValue()).active(true).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.dto.ListingCoverDto;
+import com.BINM.listing.listing.dto.SellerInfo;
+import com.BINM.listing.listing.mapper.ListingMapper;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingMedia;
+import com.BINM.listing.listing.repository.ListingMediaRepository;
+import com.BINM.user.io.ProfileResponse;
+import com.BINM.user.service.ProfileFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingCoverAssemblerTest {
+
+    @Mock
+    private ListingMediaRepository listingMediaRepository;
+    @Mock
+    private ProfileFacade profileFacade;
+    @Mock
+    private ListingMapper listingMapper;
+
+    @InjectMocks
+    private ListingCoverAssembler coverAssembler;
+
+    @Test
+    void toCoverDtos_ShouldQueryOnce_RegardlessOfPageSize() {
+        for (int pageSize : new int[]{1, 20, 100}) {
+            // Arrange
+            reset(listingMediaRepository, profileFacade, listingMapper);
+            List<Listing> listings = LongStream.rangeClosed(1, pageSize).mapToObj(this::listing).toList();
+            when(profileFacade.getProfilesById(any())).thenReturn(List.of());
+            when(listingMediaRepository.findCoversByListingIdIn(any())).thenReturn(List.of());
+
+            // Act
+            coverAssembler.toCoverDtos(listings);
+
+            // Assert
+            verify(profileFacade, times(1)).getProfilesById(any());
+            verify(listingMediaRepository, times(1)).findCoversByListingIdIn(any());
+            verify(listingMapper, times(pageSize)).toCoverDto(any(), any(), any());
+        }
+    }
+
+    @Test
+    void toCoverDtos_ShouldMatchCoverAndSeller_WhenLoadedInBatch() {
+        // Arrange
+        Listing first = listing(1L);
+        Listing second = listing(2L);
+        ProfileResponse seller = new ProfileResponse("seller-1", "Jan", "jan@example.com", true, null);
+        ListingMedia cover = ListingMedia.builder().listing(second).mediaUrl("https://img/2.jpg").position(0).mediaType("image").build();
+        ListingCoverDto secondDto = new ListingCoverDto(second.getPublicId(), "Ogłoszenie 2", new SellerInfo("seller-1", "Jan"),
+                BigDecimal.TEN, false, "https://img/2.jpg", null, null);
+
+        when(profileFacade.getProfilesById(List.of("seller-1"))).thenReturn(List.of(seller));
+        when(listingMediaRepository.findCoversByListingIdIn(List.of(1L, 2L))).thenReturn(List.of(cover));
+        when(listingMapper.toCoverDto(any(), any(), any())).thenAnswer(i -> i.getArgument(0) == second ? secondDto : null);
+
+        // Act
+        List<ListingCoverDto> result = coverAssembler.toCoverDtos(List.of(first, second));
+
+        // Assert
+        verify(listingMapper).toCoverDto(first, seller, null);
+        verify(listingMapper).toCoverDto(second, seller, "https://img/2.jpg");
+        assertEquals(secondDto, result.get(1));
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void toCoverDtos_ShouldSkipQueries_WhenPageIsEmpty() {
+        // Act
+        List<ListingCoverDto> result = coverAssembler.toCoverDtos(List.of());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(listingMediaRepository, profileFacade, listingMapper);
+    }
+
+    private Listing listing(long id) {
+        Listing l = new Listing();
+        l.setId(id);
+        l.setPublicId(UUID.randomUUID());
+        l.setSellerUserId("seller-1");
+        l.setTitle("Ogłoszenie " + id);
+        l.setPriceAmount(BigDecimal.TEN);
+        return l;
+    }
+}
@@ -0,0 +1,140 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.category.model.Category;
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingCover;
+import com.BINM.listing.listing.model.ListingMedia;
+import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.listing.listing.repository.ListingCoverRepository;
+import com.BINM.listing.listing.repository.ListingMediaRepository;
+import com.BINM.listing.listing.repository.ListingRepository;
+import com.BINM.user.event.ProfileUpdatedEvent;
+import com.BINM.user.io.ProfileResponse;
+import com.BINM.user.service.ProfileFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingCoverProjectorTest {
+
+    @Mock
+    private ListingCoverRepository listingCoverRepository;
+    @Mock
+    private ListingRepository listingRepository;
+    @Mock
+    private ListingMediaRepository listingMediaRepository;
+    @Mock
+    private ProfileFacade profileFacade;
+
+    @InjectMocks
+    private ListingCoverProjector projector;
+
+    @Test
+    void onListingChanged_ShouldCreateCover_WhenListingHasNoCoverYet() {
+        // Arrange
+        Category category = new Category();
+        category.setId(7L);
+        Listing listing = Listing.builder()
+                .id(1L).publicId(UUID.randomUUID()).sellerUserId("seller-1").category(category)
+                .title("Audi A4").priceAmount(new BigDecimal("50000")).negotiable(true).locationCity("Gdańsk")
+                .status(ListingStatus.WAITING).createdAt(OffsetDateTime.now())
+                .build();
+        ListingMedia media = ListingMedia.builder().listing(listing).mediaUrl("https://img/1.jpg").position(0).mediaType("image").build();
+
+        when(listingRepository.findByPublicId(listing.getPublicId())).thenReturn(Optional.of(listing));
+        when(listingCoverRepository.findAllById(List.of(1L))).thenReturn(List.of());
+        when(listingMediaRepository.findCoversByListingIdIn(List.of(1L))).thenReturn(List.of(media));
+        when(profileFacade.getProfilesById(List.of("seller-1")))
+                .thenReturn(List.of(new ProfileResponse("seller-1", "Jan", "jan@example.com", true, null)));
+
+        // Act
+        projector.onListingChanged(new ListingChangedEvent(listing.getPublicId(), 7L, ListingStatus.WAITING));
+
+        // Assert
+        ListingCover cover = savedCovers().get(0);
+        assertEquals(1L, cover.getListingId());
+        assertEquals("Audi A4", cover.getTitle());
+        assertEquals("https://img/1.jpg", cover.getCoverImageUrl());
+        assertEquals("Jan", cover.getSellerName());
+        assertEquals(ListingStatus.WAITING, cover.getStatus());
+        assertEquals(7L, cover.getCategoryId());
+    }
+
+    @Test
+    void onListingChanged_ShouldDeleteCover_WhenListingDeleted() {
+        // Arrange
+        UUID publicId = UUID.randomUUID();
+
+        // Act
+        projector.onListingChanged(ListingChangedEvent.deleted(publicId, 7L));
+
+        // Assert
+        verify(listingCoverRepository).deleteByPublicId(publicId);
+        verify(listingCoverRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void projectAll_ShouldQueryOnce_AndKeepSellerName_WhenCoverAlreadyExists() {
+        // Arrange
+        Category category = new Category();
+        category.setId(7L);
+        Listing first = Listing.builder().id(1L).publicId(UUID.randomUUID()).sellerUserId("seller-1").category(category)
+                .title("Audi A4").status(ListingStatus.ACTIVE).build();
+        Listing second = Listing.builder().id(2L).publicId(UUID.randomUUID()).sellerUserId("seller-2").category(category)
+                .title("BMW 3").status(ListingStatus.ACTIVE).build();
+        ListingCover existing = ListingCover.builder().listingId(1L).publicId(first.getPublicId())
+                .sellerName("Jan").randomKey(0.5).build();
+
+        when(listingCoverRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existing));
+        when(listingMediaRepository.findCoversByListingIdIn(List.of(1L, 2L))).thenReturn(List.of());
+        when(profileFacade.getProfilesById(List.of("seller-2")))
+                .thenReturn(List.of(new ProfileResponse("seller-2", "Anna", "anna@example.com", true, null)));
+
+        // Act
+        projector.projectAll(List.of(first, second));
+
+        // Assert
+        List<ListingCover> covers = savedCovers();
+        assertEquals(2, covers.size());
+        assertSame(existing, covers.get(0));
+        assertEquals("Audi A4", covers.get(0).getTitle());
+        assertEquals("Jan", covers.get(0).getSellerName());
+        assertEquals(0.5, covers.get(0).getRandomKey());
+        assertEquals("Anna", covers.get(1).getSellerName());
+        assertNull(covers.get(1).getCoverImageUrl());
+        verify(listingCoverRepository, times(1)).findAllById(any());
+        verify(listingMediaRepository, times(1)).findCoversByListingIdIn(any());
+        verify(profileFacade, times(1)).getProfilesById(any());
+    }
+
+    @Test
+    void onProfileUpdated_ShouldRenameSellerOnAllCovers() {
+        // Act
+        projector.onProfileUpdated(new ProfileUpdatedEvent("seller-1", "Janek", null));
+
+        // Assert
+        verify(listingCoverRepository).updateSellerName("seller-1", "Janek");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ListingCover> savedCovers() {
+        ArgumentCaptor<List<ListingCover>> captor = ArgumentCaptor.forClass(List.class);
+        verify(listingCoverRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,94 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.mapper.ListingMapper;
+import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingAttribute;
+import com.BINM.listing.listing.model.ListingMedia;
+import com.BINM.listing.listing.repository.ListingAttributeRepository;
+import com.BINM.listing.listing.repository.ListingMediaRepository;
+import com.BINM.user.io.ProfileResponse;
+import com.BINM.user.service.ProfileFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingDetailAssemblerTest {
+
+    @Mock
+    private ListingAttributeRepository listingAttributeRepository;
+    @Mock
+    private ListingMediaRepository listingMediaRepository;
+    @Mock
+    private ProfileFacade profileFacade;
+    @Mock
+    private ListingMapper listingMapper;
+
+    @InjectMocks
+    private ListingDetailAssembler detailAssembler;
+
+    @Test
+    void toDtos_ShouldQueryOnce_RegardlessOfListingCount() {
+        for (int count : new int[]{1, 20, 50}) {
+            // Arrange
+            reset(listingAttributeRepository, listingMediaRepository, profileFacade, listingMapper);
+            List<Listing> listings = LongStream.rangeClosed(1, count).mapToObj(this::listing).toList();
+            when(listingAttributeRepository.findWithDefinitionsByListingIdIn(any())).thenReturn(List.of());
+            when(listingMediaRepository.findByListingIdInOrderByPositionAsc(any())).thenReturn(List.of());
+            when(profileFacade.getProfilesById(any())).thenReturn(List.of());
+
+            // Act
+            detailAssembler.toDtos(listings);
+
+            // Assert
+            verify(listingAttributeRepository, times(1)).findWithDefinitionsByListingIdIn(any());
+            verify(listingMediaRepository, times(1)).findByListingIdInOrderByPositionAsc(any());
+            verify(profileFacade, times(1)).getProfilesById(any());
+            verify(listingAttributeRepository, never()).findByListingId(anyLong());
+            verify(listingMediaRepository, never()).findByListingIdOrderByPositionAsc(anyLong());
+            verify(profileFacade, never()).getProfile(any());
+            verify(listingMapper, times(count)).toDto(any(), any(), any(), any());
+        }
+    }
+
+    @Test
+    void toDtos_ShouldGroupAttributesAndMediaByListing() {
+        // Arrange
+        Listing first = listing(1L);
+        Listing second = listing(2L);
+        ProfileResponse seller = new ProfileResponse("seller-1", "Jan", "jan@example.com", true, null);
+        ListingAttribute attribute = ListingAttribute.builder().listing(second).vText("czerwony").build();
+        ListingMedia photo1 = ListingMedia.builder().listing(first).mediaUrl("https://img/1a.jpg").position(0).mediaType("image").build();
+        ListingMedia photo2 = ListingMedia.builder().listing(first).mediaUrl("https://img/1b.jpg").position(1).mediaType("image").build();
+
+        when(listingAttributeRepository.findWithDefinitionsByListingIdIn(List.of(1L, 2L))).thenReturn(List.of(attribute));
+        when(listingMediaRepository.findByListingIdInOrderByPositionAsc(List.of(1L, 2L))).thenReturn(List.of(photo1, photo2));
+        when(profileFacade.getProfilesById(List.of("seller-1"))).thenReturn(List.of(seller));
+
+        // Act
+        detailAssembler.toDtos(List.of(first, second));
+
+        // Assert
+        verify(listingMapper).toDto(first, seller, List.of(), List.of(photo1, photo2));
+        verify(listingMapper).toDto(second, seller, List.of(attribute), List.of());
+    }
+
+    private Listing listing(long id) {
+        Listing l = new Listing();
+        l.setId(id);
+        l.setPublicId(UUID.randomUUID());
+        l.setSellerUserId("seller-1");
+        l.setTitle("Ogłoszenie " + id);
+        return l;
+    }
+}
@@ -0,0 +1,191 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.exception.ListingException;
+import com.BINM.listing.listing.dto.ListingDetail;
+import com.BINM.listing.listing.dto.ListingDto;
+import com.BINM.listing.listing.dto.SellerInfo;
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.model.ListingStatus;
+import com.BINM.user.event.ProfileUpdatedEvent;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ListingDetailCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ListingDetailCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cache(new ListingDtoCodec(1000));
+    }
+
+    @Test
+    void get_ShouldLoadOnce_AndInvalidateOnListingChange() {
+        // Arrange
+        UUID publicId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get(publicId, () -> dto(publicId, "seller-1", loads));
+        cache.get(publicId, () -> dto(publicId, "seller-1", loads));
+        cache.onListingChanged(new ListingChangedEvent(publicId, 1L, ListingStatus.WAITING));
+        cache.get(publicId, () -> dto(publicId, "seller-1", loads));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(0.33, meterRegistry.get("listing.detail.cache.hit.ratio").gauge().value(), 0.01);
+        // Caffeine przelicza wagę w asynchronicznym maintenance - pod obciążeniem chwilę po zapisie
+        assertTrue(eventually(() -> meterRegistry.get("listing.detail.cache.memory").gauge().value() > 0));
+    }
+
+    @Test
+    void get_ShouldExposeContentEtag_AndChangeItWithContent() {
+        // Arrange
+        UUID publicId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        Optional<String> beforeLoad = cache.cachedEtag(publicId);
+        ListingDetail first = cache.get(publicId, () -> dto(publicId, "seller-1", loads));
+        Optional<String> cached = cache.cachedEtag(publicId);
+        cache.onListingChanged(new ListingChangedEvent(publicId, 1L, ListingStatus.ACTIVE));
+        ListingDetail changed = cache.get(publicId, () -> dto(publicId, "seller-2", loads));
+
+        // Assert
+        assertTrue(beforeLoad.isEmpty());
+        assertEquals(Optional.of(first.etag()), cached);
+        assertNotEquals(first.etag(), changed.etag());
+    }
+
+    @Test
+    void get_ShouldGiveSameEtag_WhenCodecDictionariesDiffer() {
+        // Arrange
+        UUID publicId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        ListingDtoCodec warmedCodec = new ListingDtoCodec(1000);
+        // Inna kolejność pierwszego użycia tekstów - inne identyfikatory słownika, tak jak na innej replice
+        warmedCodec.encode(new ListingDto(UUID.randomUUID(), 2L, new SellerInfo("seller-9", "Ewa"), "Rower", "Opis", BigDecimal.ONE,
+                "PLN", false, "Kraków", null, null, null, "ACTIVE", null, null, null, null, List.of(), List.of()));
+        ListingDetailCache otherReplica = new ListingDetailCache(new SimpleMeterRegistry(), mock(PlatformTransactionManager.class),
+                warmedCodec, JsonMapper.builder().findAndAddModules().build(), true, DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+
+        // Act
+        ListingDetail here = cache.get(publicId, () -> dto(publicId, "seller-1", loads));
+        ListingDetail there = otherReplica.get(publicId, () -> dto(publicId, "seller-1", loads));
+
+        // Assert
+        assertEquals(here.etag(), there.etag());
+    }
+
+    @Test
+    void onProfileUpdated_ShouldDropOnlyThatSellersListings() {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(first, () -> dto(first, "seller-1", loads));
+        cache.get(second, () -> dto(second, "seller-2", loads));
+
+        // Act
+        cache.onProfileUpdated(new ProfileUpdatedEvent("seller-1", "Nowa nazwa", null));
+        cache.get(first, () -> dto(first, "seller-1", loads));
+        cache.get(second, () -> dto(second, "seller-2", loads));
+
+        // Assert
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_ShouldLoadOnce_WhenConcurrentMissesOnSameKey() throws Exception {
+        // Arrange
+        UUID publicId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<ListingDetail>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get(publicId, () -> {
+                    sleep();
+                    return dto(publicId, "seller-1", loads);
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<ListingDetail> result : results) assertNotNull(result.get().listing());
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheFailure() {
+        // Arrange
+        UUID publicId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        assertThrows(ListingException.class, () -> cache.get(publicId, () -> {
+            throw ListingException.notActive(publicId.toString());
+        }));
+        ListingDto result = cache.get(publicId, () -> dto(publicId, "seller-1", loads)).listing();
+
+        // Assert
+        assertEquals(publicId, result.publicId());
+        assertEquals(1, loads.get());
+    }
+
+    private ListingDetailCache cache(ListingDtoCodec codec) {
+        return new ListingDetailCache(meterRegistry, mock(PlatformTransactionManager.class), codec,
+                JsonMapper.builder().findAndAddModules().build(), true, DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+    }
+
+    private static ListingDto dto(UUID publicId, String sellerId, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new ListingDto(publicId, 1L, new SellerInfo(sellerId, "Jan"), "Audi A4", "Opis", BigDecimal.TEN, "PLN",
+                false, "Gdańsk", null, null, null, "ACTIVE", null, null, null, null, List.of(), List.of());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean eventually(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+}
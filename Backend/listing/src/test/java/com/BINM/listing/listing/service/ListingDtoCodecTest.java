@@ -0,0 +1,92 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.attribute.model.AttributeType;
+import com.BINM.listing.listing.dto.ListingAttributeDto;
+import com.BINM.listing.listing.dto.ListingDto;
+import com.BINM.listing.listing.dto.ListingMediaDto;
+import com.BINM.listing.listing.dto.SellerInfo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingDtoCodecTest {
+
+    private final ListingDtoCodec codec = new ListingDtoCodec(1000);
+
+    @Test
+    void decode_ShouldRestoreEveryField() {
+        // Arrange
+        ListingDto dto = listing("Gdańsk");
+
+        // Act
+        ListingDto decoded = codec.decode(codec.encode(dto));
+
+        // Assert
+        assertEquals(dto, decoded);
+    }
+
+    @Test
+    void decode_ShouldKeepNulls() {
+        // Arrange
+        ListingDto dto = new ListingDto(UUID.randomUUID(), null, null, "Rower", null, null, null, null,
+                null, null, null, null, "ACTIVE", null, null, null, null, null, null);
+
+        // Act
+        ListingDto decoded = codec.decode(codec.encode(dto));
+
+        // Assert
+        assertEquals(dto, decoded);
+    }
+
+    @Test
+    void encode_ShouldShareRepeatedStrings_AndBeSmallerThanObjectGraph() {
+        // Arrange
+        ListingDto first = listing("Gdańsk");
+        ListingDto second = listing("Gdańsk");
+
+        // Act
+        byte[] bytes = codec.encode(first);
+        ListingDto a = codec.decode(bytes);
+        ListingDto b = codec.decode(codec.encode(second));
+
+        // Assert
+        assertSame(a.locationCity(), b.locationCity());
+        assertSame(a.attributes().get(0).label(), b.attributes().get(0).label());
+        assertTrue(bytes.length * 3 < ListingDetailCache.estimateBytes(first),
+                "serialized " + bytes.length + " B vs ~" + ListingDetailCache.estimateBytes(first) + " B");
+    }
+
+    @Test
+    void encode_ShouldWriteInline_WhenDictionaryFull() {
+        // Arrange
+        ListingDtoCodec small = new ListingDtoCodec(2);
+        ListingDto dto = listing("Sopot");
+
+        // Act
+        ListingDto decoded = small.decode(small.encode(dto));
+
+        // Assert
+        assertEquals(dto, decoded);
+        assertEquals(2, small.dictionarySize());
+    }
+
+    private static ListingDto listing(String city) {
+        OffsetDateTime published = OffsetDateTime.of(2025, 3, 1, 12, 30, 15, 123_000_000, ZoneOffset.ofHours(1));
+        return new ListingDto(UUID.randomUUID(), 12L, new SellerInfo("seller-1", "Jan Kowalski"),
+                "Audi A4 B8 Avant 2.0 TDI", "Zadbany, serwisowany w ASO, drugi właściciel.",
+                new BigDecimal("45999.00"), "PLN", true, city, "Pomorskie", 54.352, 18.6466, "ACTIVE",
+                published, published.plusDays(30), published.minusHours(2), published,
+                List.of(new ListingAttributeDto("brand", "Marka", AttributeType.ENUM, null, null, null, "audi", "Audi"),
+                        new ListingAttributeDto("mileage", "Przebieg", AttributeType.NUMBER, null, new BigDecimal("187000.0000"), null, null, null),
+                        new ListingAttributeDto("damaged", "Uszkodzony", AttributeType.BOOLEAN, null, null, false, null, null),
+                        new ListingAttributeDto("vin", "VIN", AttributeType.STRING, "WAUZZZ8K9BA000000", null, null, null, null)),
+                List.of(new ListingMediaDto("https://binm.blob.core.windows.net/media/a1.jpg", "image", 0),
+                        new ListingMediaDto("https://binm.blob.core.windows.net/media/a2.jpg", "image", 1)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.jobs.service.JobFacade;
+import com.BINM.listing.listing.event.ListingsExpiredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingExpiryJobTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private JobFacade jobFacade;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ListingExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ListingExpiryJob(jdbcTemplate, eventPublisher, jobFacade, transactionManager, meterRegistry,
+                BATCH_SIZE, 4, Duration.ofHours(1));
+    }
+
+    @Test
+    void run_ShouldExpireInBatches_UntilPartialBatch() throws Exception {
+        // Arrange
+        List<List<Object[]>> batches = List.of(
+                List.<Object[]>of(row(1L, 10L), row(2L, 10L)),
+                List.<Object[]>of(row(3L, 11L)));
+        List<Integer> calls = new ArrayList<>();
+        givenPartitionedRun(10L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("EXPIRED"), eq("ACTIVE"), any(), eq(1L), eq(11L), eq(BATCH_SIZE)))
+                .thenAnswer(i -> map(i.getArgument(1), batches.get(calls.size()), calls));
+
+        // Act
+        int expired = job.run();
+
+        // Assert
+        assertEquals(3, expired);
+        assertEquals(2, calls.size());
+        ArgumentCaptor<ListingsExpiredEvent> events = ArgumentCaptor.forClass(ListingsExpiredEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(1L, 2L), events.getAllValues().get(0).listingIds());
+        assertEquals(Set.of(10L), events.getAllValues().get(0).categoryIds());
+        assertEquals(List.of(3L), events.getAllValues().get(1).listingIds());
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(3, meterRegistry.get("listing.expiry.expired").counter().count());
+        assertEquals(2, meterRegistry.get("listing.expiry.batches").counter().count());
+        assertEquals(3, meterRegistry.get("listing.expiry.run.expired").gauge().value());
+    }
+
+    @Test
+    void run_ShouldStopAndPublishNothing_WhenNothingOverdue() {
+        // Arrange
+        givenPartitionedRun(10L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        // Act
+        int expired = job.run();
+
+        // Assert
+        assertEquals(0, expired);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void run_ShouldKeepCommittedBatches_WhenLaterBatchFails() {
+        // Arrange
+        List<Integer> calls = new ArrayList<>();
+        givenPartitionedRun(10L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(i -> {
+                    if (!calls.isEmpty()) throw new IllegalStateException("connection lost");
+                    return map(i.getArgument(1), List.<Object[]>of(row(1L, 10L), row(2L, 10L)), calls);
+                });
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> job.run());
+
+        // Assert
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+        assertEquals(2, meterRegistry.get("listing.expiry.expired").counter().count());
+    }
+
+    @Test
+    void expire_ShouldUpdateGivenIdsInChunks() {
+        // Arrange
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<Integer> calls = new ArrayList<>();
+        when(jdbcTemplate.query(contains("public_id IN (?, ?)"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(i -> map(i.getArgument(1), List.<Object[]>of(row(1L, 10L), row(2L, 10L)), calls));
+        when(jdbcTemplate.query(contains("public_id IN (?)"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(i -> map(i.getArgument(1), List.of(), calls));
+
+        // Act
+        int expired = job.expire(ids);
+
+        // Assert
+        assertEquals(2, expired);
+        assertEquals(List.of(2, 0), calls);
+        verify(eventPublisher, times(1)).publishEvent(any(ListingsExpiredEvent.class));
+    }
+
+    @Test
+    void run_ShouldSplitIdSpaceIntoConfiguredPartitions() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1000L);
+        when(jobFacade.runPartitioned(eq("listing-expiry-sweep"), eq(Duration.ofHours(1)), eq(1L), eq(1000L), eq(4), any()))
+                .thenReturn(7);
+
+        // Act
+        int expired = job.run();
+
+        // Assert
+        assertEquals(7, expired);
+        verifyNoInteractions(transactionManager);
+    }
+
+    // Jedna partycja obejmująca całe id - zachowanie jak przy jednej replice
+    private void givenPartitionedRun(long maxId) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(maxId);
+        when(jobFacade.runPartitioned(anyString(), any(), eq(1L), eq(maxId), anyInt(), any()))
+                .thenAnswer(i -> i.<JobFacade.PartitionTask>getArgument(5).run(1L, maxId + 1));
+    }
+
+    private static Object[] row(long id, long categoryId) {
+        return new Object[]{id, UUID.randomUUID(), categoryId};
+    }
+
+    private static List<Object> map(RowMapper<?> mapper, List<Object[]> rows, List<Integer> calls) throws SQLException {
+        calls.add(rows.size());
+        List<Object> mapped = new ArrayList<>();
+        for (Object[] values : rows) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn((Long) values[0]);
+            when(rs.getObject("public_id", UUID.class)).thenReturn((UUID) values[1]);
+            when(rs.getObject("category_id", Long.class)).thenReturn((Long) values[2]);
+            mapped.add(mapper.mapRow(rs, mapped.size()));
+        }
+        return mapped;
+    }
+}
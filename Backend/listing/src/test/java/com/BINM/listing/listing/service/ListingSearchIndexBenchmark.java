@@ -0,0 +1,158 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.dto.ListingSearchRequest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Porównanie ListingSearchIndex ze skanem całej kolekcji na tym samym, deterministycznym zbiorze danych.
+ * Skan odwzorowuje to, co ścieżka Criteria/Specification robi bez użytecznego indeksu w bazie
+ * (przegląd wszystkich wierszy, filtr, pełne sortowanie, strona) - bez kosztu SQL i sieci, więc jest
+ * dolnym ograniczeniem tamtej ścieżki, a nie jej pomiarem. Wyniki obu wariantów są porównywane,
+ * więc benchmark sprawdza też zgodność indeksu z semantyką filtrów.
+ * Pomiar samej ścieżki Criteria na Postgresie robi SearchServiceDbBenchmark.
+ * <p>
+ * Nie uruchamia się w zwykłym buildzie:
+ * {@code mvn test -Dtest=ListingSearchIndexBenchmark -Dbenchmark=true [-Dbenchmark.docs=100000]}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingSearchIndexBenchmark {
+
+    private static final int WARMUP = 100;
+    private static final int MEASURED = 300;
+    private static final String[] BRANDS = {"audi", "bmw", "skoda", "toyota", "ford", "opel", "kia", "volvo"};
+    private static final String[] WORDS = {"sedan", "kombi", "hatchback", "diesel", "benzyna", "hybryda", "zadbany",
+            "bezwypadkowy", "garażowany", "serwisowany", "rower", "górski", "szosowy", "miejski", "telefon", "laptop"};
+
+    private record Doc(int docId, ListingSearchIndex.IndexedListing listing, List<String> tokens) {
+    }
+
+    private record Case(String name, ListingSearchIndex.Query query) {
+    }
+
+    private final ListingSearchIndex index = new ListingSearchIndex();
+    private final List<Doc> docs = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        int count = Integer.getInteger("benchmark.docs", 100_000);
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            List<String> tokens = List.of(brand, WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)]);
+            ListingSearchIndex.IndexedListing listing = new ListingSearchIndex.IndexedListing(
+                    i + 1, UUID.randomUUID(), 1 + random.nextInt(200), "seller-" + random.nextInt(20_000),
+                    i, i, BigDecimal.valueOf(100 + random.nextInt(200_000)),
+                    49 + random.nextDouble() * 5, 14 + random.nextDouble() * 10,
+                    Map.of("brand", brand), Map.of("year", BigDecimal.valueOf(1995 + random.nextInt(30))));
+            index.add(listing, tokens);
+            docs.add(new Doc(i, listing, tokens));
+        }
+        System.out.printf("Seeded %d listings in %d ms%n", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Test
+    void searchIndex_VersusFullScan() {
+        Sort byPrice = Sort.by(Sort.Direction.ASC, "priceAmount");
+        Sort newest = Sort.by(Sort.Direction.DESC, "createdAt");
+        List<Case> cases = List.of(
+                new Case("category + enum, price asc", query(List.of(), List.of(7L, 8L, 9L), null,
+                        List.of(filter("brand", "ENUM", "in", null, List.of("audi", "bmw"), null, null)), byPrice)),
+                new Case("prefix text, newest", query(List.of("bezwyp", "kom"), null, null, List.of(), newest)),
+                new Case("number range, newest", query(List.of(), null, null,
+                        List.of(filter("year", "NUMBER", "between", null, null, "2010", "2012")), newest)),
+                new Case("seller, newest", query(List.of(), null, "seller-123", List.of(), newest)),
+                new Case("no filters, price asc, page 10", new ListingSearchIndex.Query(List.of(), null, null, List.of(),
+                        null, byPrice, 200, 20)));
+
+        System.out.printf("%-32s %12s %12s %12s %12s %9s%n", "case", "index p50", "index p99", "scan p50", "scan p99", "speedup");
+        for (Case c : cases) {
+            assertEquals(scan(c.query()), index.search(c.query()).ids(), c.name());
+            long[] indexNanos = measure(() -> index.search(c.query()));
+            long[] scanNanos = measure(() -> scan(c.query()));
+            System.out.printf("%-32s %10d us %10d us %10d us %10d us %8.1fx%n", c.name(),
+                    percentile(indexNanos, 50) / 1000, percentile(indexNanos, 99) / 1000,
+                    percentile(scanNanos, 50) / 1000, percentile(scanNanos, 99) / 1000,
+                    (double) percentile(scanNanos, 50) / Math.max(1, percentile(indexNanos, 50)));
+        }
+    }
+
+    // Filtr, pełne sortowanie i strona - ta sama kolejność co w indeksie (remisy: nowszy dokument pierwszy)
+    private List<Long> scan(ListingSearchIndex.Query q) {
+        Predicate<Doc> match = doc -> true;
+        for (String token : q.tokens()) {
+            match = match.and(doc -> doc.tokens().stream().anyMatch(t -> t.startsWith(token)));
+        }
+        if (q.categoryIds() != null) {
+            match = match.and(doc -> q.categoryIds().contains(doc.listing().categoryId()));
+        }
+        if (q.sellerUserId() != null) {
+            match = match.and(doc -> q.sellerUserId().equals(doc.listing().sellerUserId()));
+        }
+        for (ListingSearchRequest.AttributeFilter f : q.attributes()) {
+            if ("NUMBER".equals(f.type())) {
+                BigDecimal from = new BigDecimal(f.from());
+                BigDecimal to = new BigDecimal(f.to());
+                match = match.and(doc -> {
+                    BigDecimal n = doc.listing().numbers().get(f.key());
+                    return n != null && n.compareTo(from) >= 0 && n.compareTo(to) <= 0;
+                });
+            } else {
+                match = match.and(doc -> f.values().contains(doc.listing().values().get(f.key())));
+            }
+        }
+        Sort.Order order = q.sort().iterator().next();
+        Comparator<Doc> comparator = "priceAmount".equals(order.getProperty())
+                ? Comparator.comparing(doc -> doc.listing().price())
+                : Comparator.comparingLong(doc -> doc.listing().createdAt());
+        if (order.isDescending()) comparator = comparator.reversed();
+        comparator = comparator.thenComparing(Comparator.comparingInt(Doc::docId).reversed());
+        return docs.stream().filter(match).sorted(comparator)
+                .skip(q.offset()).limit(q.limit())
+                .map(doc -> doc.listing().id())
+                .toList();
+    }
+
+    static long[] measure(Runnable run) {
+        for (int i = 0; i < WARMUP; i++) run.run();
+        long[] nanos = new long[MEASURED];
+        for (int i = 0; i < MEASURED; i++) {
+            long start = System.nanoTime();
+            run.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    static long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+
+    private static ListingSearchIndex.Query query(List<String> tokens, List<Long> categoryIds, String seller,
+                                                  List<ListingSearchRequest.AttributeFilter> attributes, Sort sort) {
+        return new ListingSearchIndex.Query(tokens, categoryIds, seller, attributes, null, sort, 0, 20);
+    }
+
+    private static ListingSearchRequest.AttributeFilter filter(String key, String type, String op, String value,
+                                                               List<String> values, String from, String to) {
+        return new ListingSearchRequest.AttributeFilter(key, type, op, value, values, from, to);
+    }
+}
@@ -0,0 +1,193 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.dto.ListingSearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListingSearchIndexTest {
+
+    private static final Sort NEWEST = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    private ListingSearchIndex index;
+    private UUID audiId;
+
+    @BeforeEach
+    void setUp() {
+        index = new ListingSearchIndex();
+        audiId = UUID.randomUUID();
+        add(1L, audiId, 10L, "seller-1", "Audi A4 Avant", "1000", Map.of("brand", "audi"), Map.of("year", new BigDecimal("2012")));
+        add(2L, UUID.randomUUID(), 10L, "seller-2", "BMW 320d", "3000", Map.of("brand", "bmw"), Map.of("year", new BigDecimal("2018")));
+        add(3L, UUID.randomUUID(), 20L, "seller-1", "Rower górski", "2000", Map.of(), Map.of());
+    }
+
+    @Test
+    void search_ShouldMatchByWordPrefix_WhenQueryHasAccents() {
+        // Act
+        ListingSearchIndex.Result result = index.search(query(SearchTokenizer.tokenizeFolded("gór"), null, null, NEWEST));
+
+        // Assert
+        assertEquals(List.of(3L), result.ids());
+        assertEquals(1, result.total());
+    }
+
+    @Test
+    void search_ShouldIntersectCategoryAndEnumFilter_WhenBothGiven() {
+        // Arrange
+        var brand = new ListingSearchRequest.AttributeFilter("brand", "ENUM", "in", null, List.of("Audi", "Skoda"), null, null);
+
+        // Act
+        ListingSearchIndex.Result result = index.search(query(List.of(), List.of(10L), List.of(brand), NEWEST));
+
+        // Assert
+        assertEquals(List.of(1L), result.ids());
+    }
+
+    @Test
+    void search_ShouldFilterNumberRange_WhenBetweenGiven() {
+        // Arrange
+        var year = new ListingSearchRequest.AttributeFilter("year", "NUMBER", "between", null, null, "2015", "2020");
+
+        // Act
+        ListingSearchIndex.Result result = index.search(query(List.of(), null, List.of(year), NEWEST));
+
+        // Assert
+        assertEquals(List.of(2L), result.ids());
+    }
+
+    @Test
+    void search_ShouldSortByPriceAndPage_WhenOffsetGiven() {
+        // Act
+        ListingSearchIndex.Result result = index.search(new ListingSearchIndex.Query(
+                List.of(), null, null, null, null, Sort.by(Sort.Direction.ASC, "priceAmount"), 1, 1));
+
+        // Assert
+        assertEquals(List.of(3L), result.ids());
+        assertEquals(3, result.total());
+    }
+
+    @Test
+    void search_ShouldSkipListing_WhenRemoved() {
+        // Act
+        index.remove(audiId);
+        ListingSearchIndex.Result result = index.search(query(List.of("audi"), null, null, NEWEST));
+
+        // Assert
+        assertTrue(result.ids().isEmpty());
+        assertEquals(2, index.liveCount());
+    }
+
+    @Test
+    void add_ShouldReplacePreviousVersion_WhenListingReindexed() {
+        // Act
+        add(1L, audiId, 10L, "seller-1", "Audi A6", "1500", Map.of("brand", "audi"), Map.of());
+
+        // Assert
+        assertTrue(index.search(query(List.of("a4"), null, null, NEWEST)).ids().isEmpty());
+        assertEquals(List.of(1L), index.search(query(List.of("a6"), null, null, NEWEST)).ids());
+        assertEquals(3, index.liveCount());
+    }
+
+    @Test
+    void facets_ShouldIgnoreOwnFilter_WhenCountingFilteredAttribute() {
+        // Arrange
+        var brand = new ListingSearchRequest.AttributeFilter("brand", "ENUM", "eq", "audi", null, null, null);
+
+        // Act
+        ListingSearchIndex.Facets facets = index.facets(query(List.of(), List.of(10L), List.of(brand), NEWEST),
+                List.of("brand"), List.of("year"), 5);
+
+        // Assert
+        assertEquals(Map.of("audi", 1L, "bmw", 1L), facets.values().get("brand"));
+        // Rok liczony już z filtrem marki - tylko Audi
+        assertEquals(List.of(new ListingSearchIndex.Bucket(new BigDecimal("2012"), new BigDecimal("2012"), 1)),
+                facets.numbers().get("year"));
+    }
+
+    @Test
+    void facets_ShouldBucketPricesIntoRoundRanges() {
+        // Act
+        ListingSearchIndex.Facets facets = index.facets(query(List.of(), null, null, NEWEST),
+                List.of(), List.of(ListingSearchIndex.PRICE_FACET), 4);
+
+        // Assert
+        assertEquals(List.of(
+                new ListingSearchIndex.Bucket(new BigDecimal("1000"), new BigDecimal("1500"), 1),
+                new ListingSearchIndex.Bucket(new BigDecimal("2000"), new BigDecimal("2500"), 1),
+                new ListingSearchIndex.Bucket(new BigDecimal("3000"), new BigDecimal("3500"), 1)
+        ), facets.numbers().get(ListingSearchIndex.PRICE_FACET));
+    }
+
+    @Test
+    void search_ShouldFilterByRadiusAndSortByDistance() {
+        // Arrange
+        index = new ListingSearchIndex();
+        addAt(1L, 52.2297, 21.0122);  // ok. 6,5 km od środka okręgu
+        addAt(2L, 52.2500, 21.1000);  // środek okręgu
+        addAt(3L, 52.4100, 21.0122);  // ok. 18,8 km - w prostokącie, ale poza okręgiem 18 km
+        addAt(4L, 50.0647, 19.9450);  // Kraków
+        Sort byDistance = Sort.by(ListingSearchIndex.DISTANCE);
+
+        // Act
+        ListingSearchIndex.Result result = index.search(new ListingSearchIndex.Query(List.of(), null, null, null,
+                new ListingSearchIndex.GeoCircle(52.2500, 21.1000, 18), byDistance, 0, 20));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result.ids());
+    }
+
+    @Test
+    void search_ShouldPutListingsWithoutLocationLast_WhenSortedByDistanceDescending() {
+        // Arrange
+        index = new ListingSearchIndex();
+        addAt(1L, 52.2297, 21.0122);
+        addAt(2L, Double.NaN, Double.NaN);
+        addAt(3L, 50.0647, 19.9450);
+
+        // Act
+        ListingSearchIndex.Result result = index.search(new ListingSearchIndex.Query(List.of(), null, null, null,
+                new ListingSearchIndex.GeoCircle(52.2500, 21.1000, 0), Sort.by(Sort.Direction.DESC, ListingSearchIndex.DISTANCE), 0, 20));
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), result.ids());
+    }
+
+    @Test
+    void search_ShouldReturnNothing_WhenFilterHasNoValue() {
+        // Arrange
+        var brand = new ListingSearchRequest.AttributeFilter("brand", "ENUM", "eq", null, null, null, null);
+        var model = new ListingSearchRequest.AttributeFilter("model", "STRING", "like", null, null, null, null);
+
+        // Act
+        ListingSearchIndex.Result byEnum = index.search(query(List.of(), null, List.of(brand), NEWEST));
+        ListingSearchIndex.Result byString = index.search(query(List.of(), null, List.of(model), NEWEST));
+
+        // Assert
+        assertTrue(byEnum.ids().isEmpty());
+        assertTrue(byString.ids().isEmpty());
+    }
+
+    private void addAt(long id, double lat, double lon) {
+        index.add(new ListingSearchIndex.IndexedListing(id, UUID.randomUUID(), 10L, "seller-1", id, id, BigDecimal.ONE,
+                lat, lon, Map.of(), Map.of()), List.of());
+    }
+
+    private ListingSearchIndex.Query query(List<String> tokens, List<Long> categoryIds,
+                                           List<ListingSearchRequest.AttributeFilter> attributes, Sort sort) {
+        return new ListingSearchIndex.Query(tokens, categoryIds, null, attributes, null, sort, 0, 20);
+    }
+
+    private void add(long id, UUID publicId, long categoryId, String seller, String title, String price,
+                     Map<String, String> values, Map<String, BigDecimal> numbers) {
+        index.add(new ListingSearchIndex.IndexedListing(id, publicId, categoryId, seller, id, id, new BigDecimal(price),
+                Double.NaN, Double.NaN, values, numbers), SearchTokenizer.tokenizeFolded(title));
+    }
+}
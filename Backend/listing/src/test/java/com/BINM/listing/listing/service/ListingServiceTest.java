@@ -4,17 +4,23 @@ import com.BINM.listing.attribute.service.AttributeFacade;
 import com.BINM.listing.category.model.Category;
 import com.BINM.listing.category.repository.CategoryRepository;
 import com.BINM.listing.category.service.CategoryFacade;
+import com.BINM.listing.exception.ListingException;
+import com.BINM.listing.listing.dto.ListingCoverDto;
 import com.BINM.listing.listing.dto.ListingCreateRequest;
+import com.BINM.listing.listing.dto.ListingDetail;
 import com.BINM.listing.listing.dto.ListingDto;
 import com.BINM.listing.listing.dto.SellerInfo;
 import com.BINM.listing.listing.mapper.ListingMapper;
 import com.BINM.listing.listing.model.Listing;
+import com.BINM.listing.listing.model.ListingCover;
 import com.BINM.listing.listing.model.ListingStatus;
 import com.BINM.listing.listing.repository.ListingAttributeRepository;
+import com.BINM.listing.listing.repository.ListingCoverRepository;
 import com.BINM.listing.listing.repository.ListingMediaRepository;
 import com.BINM.listing.listing.repository.ListingRepository;
-import com.BINM.user.io.ProfileResponse;
-import com.BINM.user.service.ProfileFacade;
+import com.BINM.pagination.CursorPage;
+import com.BINM.pagination.KeysetCursor;
+import com.BINM.pagination.PaginationException;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,15 +28,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.util.Collections;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,9 +54,9 @@ class ListingServiceTest {
     @Mock
     private ListingMediaRepository listingMediaRepository;
     @Mock
-    private AttributeFacade attributeService;
+    private ListingCoverRepository listingCoverRepository;
     @Mock
-    private ProfileFacade profileFacade;
+    private AttributeFacade attributeService;
     @Mock
     private CategoryFacade categoryService;
     @Mock
@@ -56,6 +65,14 @@ class ListingServiceTest {
     private ListingValidator listingValidator;
     @Mock
     private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ListingCoverAssembler coverAssembler;
+    @Mock
+    private ListingDetailAssembler detailAssembler;
+    @Mock
+    private ListingDetailCache detailCache;
+    @Mock
+    private ListingExpiryJob expiryJob;
 
     @InjectMocks
     private ListingService listingService;
@@ -84,10 +101,9 @@ class ListingServiceTest {
         when(listingRepository.save(any(Listing.class))).thenReturn(listingEntity);
         
         when(attributeService.getEffectiveDefinitionsByKey(1L)).thenReturn(Collections.emptyMap());
-        when(profileFacade.getProfile(sellerId)).thenReturn(new ProfileResponse(sellerId, "Jan", "jan@wp.pl", true, null));
         
         // Poprawna kolejność argumentów w ListingDto
-        when(listingMapper.toDto(any(), any(), any(), any())).thenReturn(
+        when(detailAssembler.toDto(listingEntity)).thenReturn(
                 new ListingDto(
                         UUID.randomUUID(), // publicId
                         1L, // categoryId
@@ -171,9 +187,9 @@ class ListingServiceTest {
         listing.setStatus(ListingStatus.ACTIVE);
         listing.setSellerUserId("user-1");
 
+        when(detailCache.get(eq(publicId), any())).thenAnswer(i -> new ListingDetail(i.<Supplier<ListingDto>>getArgument(1).get(), "etag"));
         when(listingRepository.findByPublicId(publicId)).thenReturn(Optional.of(listing));
-        when(profileFacade.getProfile("user-1")).thenReturn(new ProfileResponse("user-1", "Jan", "email", true, null));
-        when(listingMapper.toDto(any(), any(), any(), any())).thenReturn(mock(ListingDto.class));
+        when(detailAssembler.toDto(listing)).thenReturn(mock(ListingDto.class));
 
         // Act
         ListingDto result = listingService.get(publicId);
@@ -189,10 +205,143 @@ class ListingServiceTest {
         Listing listing = new Listing();
         listing.setStatus(ListingStatus.DRAFT);
 
+        when(detailCache.get(eq(publicId), any())).thenAnswer(i -> new ListingDetail(i.<Supplier<ListingDto>>getArgument(1).get(), "etag"));
         when(listingRepository.findByPublicId(publicId)).thenReturn(Optional.of(listing));
 
         // Act & Assert
         // Oczekujemy wyjątku z ListingException (który może być RuntimeException)
         assertThrows(RuntimeException.class, () -> listingService.get(publicId));
     }
+
+    @Test
+    void getMany_ShouldKeepRequestOrder_AndSkipMissing() {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Listing firstListing = new Listing();
+        firstListing.setPublicId(first);
+        Listing secondListing = new Listing();
+        secondListing.setPublicId(second);
+        List<ListingDto> dtos = List.of(mock(ListingDto.class), mock(ListingDto.class));
+
+        when(listingRepository.findAllByPublicIdInAndStatus(List.of(second, missing, first), ListingStatus.ACTIVE))
+                .thenReturn(List.of(firstListing, secondListing));
+        when(detailAssembler.toDtos(List.of(secondListing, firstListing))).thenReturn(dtos);
+
+        // Act
+        List<ListingDto> result = listingService.getMany(List.of(second, missing, first, second));
+
+        // Assert
+        assertSame(dtos, result);
+    }
+
+    @Test
+    void getMany_ShouldThrow_WhenTooManyIds() {
+        // Arrange
+        List<UUID> ids = LongStream.range(0, 51).mapToObj(i -> UUID.randomUUID()).toList();
+
+        // Act & Assert
+        assertThrows(ListingException.class, () -> listingService.getMany(ids));
+        verifyNoInteractions(listingRepository, detailAssembler);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "deprecation"})
+    void listRandom_ShouldReturnLastPage_WithoutCountingActiveListings() {
+        // Arrange
+        List<ListingCover> covers = List.of(
+                ListingCover.builder().listingId(1L).randomKey(0.5).build(),
+                ListingCover.builder().listingId(2L).randomKey(0.6).build());
+        when(listingCoverRepository.findRandomFeedChunk(eq(ListingStatus.ACTIVE), anyDouble(), anyLong(), anyDouble(), any(Limit.class)))
+                .thenReturn(covers, List.of());
+        when(coverAssembler.fromCovers(any(Page.class))).thenAnswer(i -> ((Page<ListingCover>) i.getArgument(0)).map(c -> (ListingCoverDto) null));
+
+        // Act
+        Page<ListingCoverDto> result = listingService.listRandom(3, 10);
+
+        // Assert
+        assertEquals(3, result.getNumber());
+        assertFalse(result.hasNext());
+        assertEquals(32, result.getTotalElements());
+    }
+
+    @Test
+    void listRandomFeed_ShouldReturnEveryListingOnce_WhenPagingUntilEnd() {
+        // Arrange
+        List<ListingCover> active = LongStream.rangeClosed(1, 23)
+                .mapToObj(id -> ListingCover.builder().listingId(id).randomKey((id * 0.37) % 1).build())
+                .sorted(Comparator.comparing(ListingCover::getRandomKey).thenComparing(ListingCover::getListingId))
+                .toList();
+        when(listingCoverRepository.findRandomFeedChunk(eq(ListingStatus.ACTIVE), anyDouble(), anyLong(), anyDouble(), any(Limit.class)))
+                .thenAnswer(i -> {
+                    double afterKey = i.getArgument(1);
+                    long afterId = i.getArgument(2);
+                    double upperKey = i.getArgument(3);
+                    Limit limit = i.getArgument(4);
+                    return active.stream()
+                            .filter(c -> c.getRandomKey() < upperKey)
+                            .filter(c -> c.getRandomKey() > afterKey || (c.getRandomKey() == afterKey && c.getListingId() > afterId))
+                            .limit(limit.max())
+                            .toList();
+                });
+        when(listingMapper.toCoverDto(any(ListingCover.class))).thenAnswer(i -> {
+            ListingCover c = i.getArgument(0);
+            return new ListingCoverDto(new UUID(0, c.getListingId()), null, null, null, null, null, null, null);
+        });
+
+        // Act
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<ListingCoverDto> page = listingService.listRandomFeed(cursor, 5);
+            page.content().forEach(dto -> seen.add(dto.publicId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        // Assert
+        assertEquals(23, seen.size());
+        assertEquals(23, new HashSet<>(seen).size());
+        assertEquals(5, pages);
+    }
+
+    @Test
+    void listRandomFeed_ShouldThrow_WhenCursorIsMalformed() {
+        // Act & Assert
+        assertThrows(PaginationException.class, () -> listingService.listRandomFeed("not-a-cursor", 10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listForUserCursor_ShouldEncodeLastRow_WhenMoreRowsExist() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ListingCover> rows = List.of(
+                ListingCover.builder().listingId(30L).createdAt(now).build(),
+                ListingCover.builder().listingId(20L).createdAt(now.minusDays(1)).build(),
+                ListingCover.builder().listingId(10L).createdAt(now.minusDays(2)).build()
+        );
+        when(listingCoverRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+
+        // Act
+        CursorPage<ListingCoverDto> result = listingService.listForUserCursor("user-1", null, 2, null);
+
+        // Assert
+        assertEquals(2, result.content().size());
+        assertTrue(result.hasNext());
+        KeysetCursor cursor = KeysetCursor.decode(result.nextCursor());
+        assertEquals(20L, cursor.id());
+        assertEquals(now.minusDays(1).toString(), cursor.value(0));
+        verify(listingCoverRepository, never()).findBySellerUserId(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listForUserCursor_ShouldRejectSize_WhenBelowOne_BeforeQuerying() {
+        // Act & Assert
+        assertThrows(PaginationException.class, () -> listingService.listForUserCursor("user-1", null, 0, null));
+        verify(listingCoverRepository, never()).findBy(any(Specification.class), any());
+    }
 }
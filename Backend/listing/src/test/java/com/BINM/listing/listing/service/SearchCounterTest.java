@@ -0,0 +1,97 @@
+package com.BINM.listing.listing.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCounterTest {
+
+    private SearchCounter counter;
+    private AtomicInteger exactCalls;
+    private AtomicInteger cappedCalls;
+
+    @BeforeEach
+    void setUp() {
+        counter = new SearchCounter(100, Duration.ofSeconds(30), 100);
+        exactCalls = new AtomicInteger();
+        cappedCalls = new AtomicInteger();
+    }
+
+    @Test
+    void count_ShouldReuseCachedExactCount_WhenSameFiltersRequestedAgain() {
+        // Act
+        SearchCounter.Count first = counter.count(SearchCountMode.EXACT, "audi|10", source(5000, null));
+        SearchCounter.Count second = counter.count(SearchCountMode.EXACT, "audi|10", source(5000, null));
+
+        // Assert
+        assertEquals(new SearchCounter.Count(5000, true), first);
+        assertEquals(first, second);
+        assertEquals(1, exactCalls.get());
+    }
+
+    @Test
+    void count_ShouldReturnLowerBound_WhenCappedResultExceedsCap() {
+        // Act
+        SearchCounter.Count count = counter.count(SearchCountMode.CAPPED, "bmw", source(5000, null));
+
+        // Assert
+        assertEquals(new SearchCounter.Count(101, false), count);
+        assertEquals(0, exactCalls.get());
+    }
+
+    @Test
+    void count_ShouldBeExact_WhenAutoResultBelowCap() {
+        // Act
+        SearchCounter.Count count = counter.count(SearchCountMode.AUTO, "rower", source(42, 40L));
+
+        // Assert
+        assertEquals(new SearchCounter.Count(42, true), count);
+        assertEquals(0, exactCalls.get());
+    }
+
+    @Test
+    void count_ShouldUseEstimate_WhenAutoResultAboveCap() {
+        // Act
+        SearchCounter.Count count = counter.count(SearchCountMode.AUTO, "", source(5000, 4900L));
+
+        // Assert
+        assertEquals(new SearchCounter.Count(4900, false), count);
+        assertEquals(1, cappedCalls.get());
+        assertEquals(0, exactCalls.get());
+    }
+
+    @Test
+    void count_ShouldFallBackToCapped_WhenEstimateUnavailable() {
+        // Act
+        SearchCounter.Count count = counter.count(SearchCountMode.ESTIMATE, "", source(5000, null));
+
+        // Assert
+        assertEquals(new SearchCounter.Count(101, false), count);
+    }
+
+    @Test
+    void from_ShouldRejectUnknownMode() {
+        // Act & Assert
+        assertEquals(SearchCountMode.EXACT, SearchCountMode.from(null));
+        assertEquals(SearchCountMode.AUTO, SearchCountMode.from("auto"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCountMode.from("fast"));
+    }
+
+    private SearchCounter.Source source(long total, Long estimate) {
+        return new SearchCounter.Source(
+                () -> {
+                    exactCalls.incrementAndGet();
+                    return total;
+                },
+                limit -> {
+                    cappedCalls.incrementAndGet();
+                    return Math.min(total, limit);
+                },
+                () -> estimate != null ? OptionalLong.of(estimate) : OptionalLong.empty());
+    }
+}
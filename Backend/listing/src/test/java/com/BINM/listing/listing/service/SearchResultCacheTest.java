@@ -0,0 +1,88 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.event.ListingChangedEvent;
+import com.BINM.listing.listing.model.ListingStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchResultCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchResultCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SearchResultCache(meterRegistry, 1000, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_ShouldLoadOnce_WhenSameKeyRequestedTwice() {
+        // Act
+        cache.get("audi", () -> hits(Set.of(10L)));
+        cache.get("audi", () -> hits(Set.of(10L)));
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "listing.search.results").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void onListingChanged_ShouldEvictOnlyAffectedCategories() {
+        // Arrange
+        cache.get("cars", () -> hits(Set.of(10L, 11L)));
+        cache.get("bikes", () -> hits(Set.of(20L)));
+        cache.get("everything", () -> hits(null));
+
+        // Act
+        cache.onListingChanged(new ListingChangedEvent(UUID.randomUUID(), 11L, ListingStatus.ACTIVE));
+        cache.get("cars", () -> hits(Set.of(10L, 11L)));
+        cache.get("bikes", () -> hits(Set.of(20L)));
+        cache.get("everything", () -> hits(null));
+
+        // Assert
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void onListingChanged_ShouldKeepEntries_WhenDraftChanged() {
+        // Arrange
+        cache.get("everything", () -> hits(null));
+
+        // Act
+        cache.onListingChanged(new ListingChangedEvent(UUID.randomUUID(), 11L, ListingStatus.DRAFT));
+        cache.get("everything", () -> hits(null));
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotStoreResult_WhenInvalidatedWhileLoading() {
+        // Act
+        cache.get("cars", () -> {
+            cache.invalidate(10L);
+            return hits(Set.of(10L));
+        });
+        cache.get("cars", () -> hits(Set.of(10L)));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    private SearchResultCache.Hits hits(Set<Long> categoryIds) {
+        loads.incrementAndGet();
+        return new SearchResultCache.Hits(List.of(1L, 2L), 2, true, categoryIds);
+    }
+}
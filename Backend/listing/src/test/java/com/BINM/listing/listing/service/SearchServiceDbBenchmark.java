@@ -0,0 +1,118 @@
+package com.BINM.listing.listing.service;
+
+import com.BINM.listing.listing.dto.ListingCoverDto;
+import com.BINM.listing.listing.dto.ListingSearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * SearchService.search z indeksem w pamięci i bez niego - ta sama metoda, te same żądania, ta sama baza.
+ * Ścieżka bazy to Specification/Criteria na Postgresie razem z pobraniem kart i count(*) (countMode EXACT).
+ * Cache wyników i liczników jest pomijany, żeby każde wywołanie wykonywało pełne zapytania.
+ * <p>
+ * Wymaga bazy z danymi (np. kopii środowiska testowego) skonfigurowanej jak dla aplikacji; przypadki
+ * (największa kategoria, najaktywniejszy sprzedawca, częste słowo z tytułów) są wybierane z tych danych.
+ * Nie uruchamia się w zwykłym buildzie:
+ * {@code mvn test -Dtest=SearchServiceDbBenchmark -Dbenchmark.db=true}
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.db", matches = "true")
+class SearchServiceDbBenchmark {
+
+    private record Case(String name, ListingSearchRequest request) {
+    }
+
+    @Autowired
+    private SearchService searchService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoSpyBean
+    private ListingSearchIndexer searchIndexer;
+    @MockitoSpyBean
+    private SearchResultCache resultCache;
+    @MockitoSpyBean
+    private SearchCounter searchCounter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void bypassCaches() {
+        doAnswer(i -> ((Supplier<SearchResultCache.Hits>) i.getArgument(1)).get())
+                .when(resultCache).get(anyString(), any());
+        doAnswer(i -> new SearchCounter.Count(((SearchCounter.Source) i.getArgument(2)).exact().getAsLong(), true))
+                .when(searchCounter).count(any(), anyString(), any());
+    }
+
+    @Test
+    void search_IndexVersusDatabase() {
+        assumeTrue(searchIndexer.current().isPresent(), "Search index is not built - check listing.search.index.enabled");
+        List<Case> cases = cases();
+
+        System.out.printf("%-32s %9s %12s %12s %12s %12s %9s%n",
+                "case", "total", "index p50", "index p99", "db p50", "db p99", "speedup");
+        for (Case c : cases) {
+            Page<ListingCoverDto> fromIndex = searchService.search(c.request());
+            long[] indexNanos = ListingSearchIndexBenchmark.measure(() -> searchService.search(c.request()));
+
+            doReturn(Optional.empty()).when(searchIndexer).current();
+            Page<ListingCoverDto> fromDatabase = searchService.search(c.request());
+            long[] dbNanos = ListingSearchIndexBenchmark.measure(() -> searchService.search(c.request()));
+            doCallRealMethod().when(searchIndexer).current();
+
+            // Remisy w sortowaniu mogą wyjść w innej kolejności, więc porównujemy liczbę wyników
+            assertEquals(fromDatabase.getTotalElements(), fromIndex.getTotalElements(), c.name());
+            System.out.printf("%-32s %9d %10d us %10d us %10d us %10d us %8.1fx%n", c.name(), fromIndex.getTotalElements(),
+                    ListingSearchIndexBenchmark.percentile(indexNanos, 50) / 1000,
+                    ListingSearchIndexBenchmark.percentile(indexNanos, 99) / 1000,
+                    ListingSearchIndexBenchmark.percentile(dbNanos, 50) / 1000,
+                    ListingSearchIndexBenchmark.percentile(dbNanos, 99) / 1000,
+                    (double) ListingSearchIndexBenchmark.percentile(dbNanos, 50)
+                            / Math.max(1, ListingSearchIndexBenchmark.percentile(indexNanos, 50)));
+        }
+    }
+
+    private List<Case> cases() {
+        List<ListingSearchRequest.SortSpec> newest = List.of(new ListingSearchRequest.SortSpec("createdAt", "desc"));
+        List<ListingSearchRequest.SortSpec> byPrice = List.of(new ListingSearchRequest.SortSpec("price", "asc"));
+        List<Case> cases = new ArrayList<>();
+        cases.add(new Case("no filters, newest", request(null, null, null, newest, 0)));
+        cases.add(new Case("no filters, price asc, page 10", request(null, null, null, byPrice, 10)));
+        Long category = mostCommon("category_id", Long.class);
+        if (category != null) cases.add(new Case("largest category, price asc", request(null, category, null, byPrice, 0)));
+        String seller = mostCommon("seller_user_id", String.class);
+        if (seller != null) cases.add(new Case("most active seller, newest", request(null, null, seller, newest, 0)));
+        String word = mostCommon("split_part(lower(title), ' ', 1)", String.class);
+        if (word != null && word.length() >= 3) {
+            cases.add(new Case("prefix text, newest", request(word.substring(0, 3), null, null, newest, 0)));
+        }
+        return cases;
+    }
+
+    private <T> T mostCommon(String column, Class<T> type) {
+        List<T> values = jdbcTemplate.queryForList("SELECT " + column + " FROM listing WHERE status = 'ACTIVE' "
+                + "GROUP BY 1 ORDER BY count(*) DESC LIMIT 1", type);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    private static ListingSearchRequest request(String query, Long categoryId, String sellerUserId,
+                                                List<ListingSearchRequest.SortSpec> sort, int page) {
+        return new ListingSearchRequest(query, categoryId, sellerUserId, List.of(), sort, page, 20,
+                null, null, null, null, "exact", false);
+    }
+}
@@ -0,0 +1,65 @@
+package com.BINM.listing.listing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestTrieTest {
+
+    @Test
+    void top_ShouldReturnCompletionsByWeight_WhenPrefixEndsInsideEdge() {
+        // Arrange
+        SuggestTrie<String> trie = new SuggestTrie<>();
+        trie.add("audi a4", "Audi A4", 3, 100);
+        trie.add("audi a6", "Audi A6", 7, 100);
+        trie.add("audi", "Audi", 1, 100);
+        trie.add("bmw", "BMW", 50, 100);
+
+        // Act
+        List<SuggestTrie.Suggestion<String>> top = trie.top("au", 2);
+        List<SuggestTrie.Suggestion<String>> all = trie.top("audi", 10);
+
+        // Assert
+        assertEquals(List.of("Audi A6", "Audi A4"), top.stream().map(SuggestTrie.Suggestion::value).toList());
+        assertEquals(List.of("audi a6", "audi a4", "audi"), all.stream().map(SuggestTrie.Suggestion::key).toList());
+        assertTrue(trie.top("audx", 5).isEmpty());
+    }
+
+    @Test
+    void add_ShouldRemoveKey_WhenWeightDropsToZero() {
+        // Arrange
+        SuggestTrie<String> trie = new SuggestTrie<>();
+        trie.add("audi a4", "Audi A4", 2, 100);
+        trie.add("audi a6", "Audi A6", 1, 100);
+        long bytesBefore = trie.estimatedBytes();
+
+        // Act
+        trie.add("audi a6", null, -1, 100);
+        trie.add("audi a4", null, -1, 100);
+
+        // Assert
+        assertEquals(1, trie.size());
+        assertEquals(List.of(1L), trie.top("audi", 5).stream().map(SuggestTrie.Suggestion::weight).toList());
+        assertTrue(trie.estimatedBytes() < bytesBefore);
+    }
+
+    @Test
+    void add_ShouldRefuseNewKey_WhenMaxKeysReached() {
+        // Arrange
+        SuggestTrie<String> trie = new SuggestTrie<>();
+        trie.add("audi", "Audi", 1, 2);
+        trie.add("bmw", "BMW", 1, 2);
+
+        // Act
+        boolean added = trie.add("opel", "Opel", 1, 2);
+        boolean existing = trie.add("bmw", "BMW", 1, 2);
+
+        // Assert
+        assertFalse(added);
+        assertTrue(existing);
+        assertEquals(2, trie.size());
+        assertEquals(2L, trie.top("bmw", 1).get(0).weight());
+    }
+}
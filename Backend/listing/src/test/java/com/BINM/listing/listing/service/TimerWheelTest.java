@@ -0,0 +1,111 @@
+package com.BINM.listing.listing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void advance_ShouldFireAtDeadline_NotBefore() {
+        // Arrange
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, START);
+        wheel.schedule("a", START + 5_500);
+
+        // Act
+        List<String> early = wheel.advance(START + 5_000);
+        List<String> due = wheel.advance(START + 6_000);
+
+        // Assert
+        assertTrue(early.isEmpty());
+        assertEquals(List.of("a"), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldFireFarDeadlines_AfterCascading() {
+        // Arrange
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, START);
+        long thirtyDays = 30L * 24 * 3600 * 1000;
+        wheel.schedule("hour", START + 3_600_000);
+        wheel.schedule("month", START + thirtyDays);
+
+        // Act
+        List<String> beforeHour = wheel.advance(START + 3_599_000);
+        List<String> atHour = wheel.advance(START + 3_600_000);
+        List<String> beforeMonth = wheel.advance(START + thirtyDays - 1_000);
+        List<String> atMonth = wheel.advance(START + thirtyDays);
+
+        // Assert
+        assertTrue(beforeHour.isEmpty());
+        assertEquals(List.of("hour"), atHour);
+        assertTrue(beforeMonth.isEmpty());
+        assertEquals(List.of("month"), atMonth);
+    }
+
+    @Test
+    void advance_ShouldSkipCancelled_AndUseLatestDeadline() {
+        // Arrange
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, START);
+        wheel.schedule("cancelled", START + 10_000);
+        wheel.schedule("moved", START + 10_000);
+        wheel.cancel("cancelled");
+        wheel.schedule("moved", START + 200_000);
+
+        // Act
+        List<String> atOld = wheel.advance(START + 10_000);
+        List<String> atNew = wheel.advance(START + 200_000);
+
+        // Assert
+        assertTrue(atOld.isEmpty());
+        assertEquals(List.of("moved"), atNew);
+        assertFalse(wheel.contains("cancelled"));
+    }
+
+    @Test
+    void advance_ShouldReturnPastDeadlineOnNextAdvance() {
+        // Arrange
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, START);
+        wheel.advance(START + 60_000);
+
+        // Act
+        wheel.schedule("overdue", START + 1_000);
+        List<String> due = wheel.advance(START + 60_000);
+
+        // Assert
+        assertEquals(List.of("overdue"), due);
+    }
+
+    @Test
+    void advance_ShouldFireEveryKeyExactlyOnceInDeadlineTick() {
+        // Arrange
+        TimerWheel<Integer> wheel = new TimerWheel<>(TICK, START);
+        Random random = new Random(42);
+        long[] deadlines = new long[2000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = START + random.nextLong(1, 7L * 24 * 3600 * 1000);
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        // Act
+        List<Integer> fired = new ArrayList<>();
+        for (long now = START; now <= START + 7L * 24 * 3600 * 1000; now += 7 * TICK) {
+            for (Integer key : wheel.advance(now)) {
+                long deadline = deadlines[key];
+                assertTrue(deadline <= now && now - deadline < 8 * TICK, "key " + key + " fired at " + now);
+                fired.add(key);
+            }
+        }
+
+        // Assert
+        assertEquals(deadlines.length, fired.size());
+        assertEquals(deadlines.length, fired.stream().distinct().count());
+    }
+}
@@ -9,12 +9,15 @@ import com.BINM.messaging.model.Conversation;
 import com.BINM.messaging.model.Message;
 import com.BINM.messaging.repository.ConversationRepository;
 import com.BINM.messaging.repository.MessageRepository;
+import com.BINM.pagination.CursorPage;
+import com.BINM.pagination.PaginationException;
 import com.BINM.user.service.ProfileFacade;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -171,4 +174,42 @@ class MessagingServiceTest {
             messagingService.getMessagesForConversation(conversationId, userId, 0, 10)
         );
     }
+
+    @Test
+    void getMessagesForConversationCursor_ShouldReturnNextCursor_WhenMoreMessagesExist() {
+        // Arrange
+        Conversation conversation = Conversation.builder().id(1L).buyerId("buyer").sellerId("seller").build();
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Message> newest = List.of(
+                Message.builder().id(3L).conversation(conversation).senderId("buyer").recipientId("seller").content("c").createdAt(now).build(),
+                Message.builder().id(2L).conversation(conversation).senderId("buyer").recipientId("seller").content("b").createdAt(now.minusMinutes(1)).build(),
+                Message.builder().id(1L).conversation(conversation).senderId("buyer").recipientId("seller").content("a").createdAt(now.minusMinutes(2)).build()
+        );
+        when(conversationRepository.findById(1L)).thenReturn(Optional.of(conversation));
+        when(messageRepository.findByConversationIdOrderByCreatedAtDescIdDesc(eq(1L), eq(Limit.of(3)))).thenReturn(newest);
+        when(messageRepository.findOlderInConversation(eq(1L), any(OffsetDateTime.class), eq(2L), eq(Limit.of(3))))
+                .thenReturn(List.of(newest.get(2)));
+
+        // Act
+        CursorPage<MessageDto> first = messagingService.getMessagesForConversationCursor(1L, "buyer", null, 2);
+        CursorPage<MessageDto> second = messagingService.getMessagesForConversationCursor(1L, "buyer", first.nextCursor(), 2);
+
+        // Assert
+        assertEquals(2, first.content().size());
+        assertTrue(first.hasNext());
+        assertEquals(1, second.content().size());
+        assertNull(second.nextCursor());
+        verify(messageRepository, never()).findByConversationId(any(), any());
+    }
+
+    @Test
+    void getMessagesForConversationCursor_ShouldThrow_WhenCursorIsMalformed() {
+        // Arrange
+        Conversation conversation = Conversation.builder().id(1L).buyerId("buyer").sellerId("seller").build();
+        when(conversationRepository.findById(1L)).thenReturn(Optional.of(conversation));
+
+        // Act & Assert
+        assertThrows(PaginationException.class,
+                () -> messagingService.getMessagesForConversationCursor(1L, "buyer", "%%%", 2));
+    }
 }
@@ -0,0 +1,37 @@
+package com.BINM.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_ShouldKeepNullApartFromEmptyText() {
+        // Arrange
+        String encoded = KeysetCursor.of(7L, null, "", "2024-01-01T00:00Z").encode();
+
+        // Act
+        KeysetCursor cursor = KeysetCursor.decode(encoded);
+
+        // Assert
+        assertEquals(Arrays.asList(null, "", "2024-01-01T00:00Z"), cursor.values());
+        assertNull(cursor.value(0));
+        assertEquals("", cursor.value(1));
+        assertEquals(7L, cursor.id());
+    }
+
+    @Test
+    void decode_ShouldThrowPaginationException_WhenValueHasNoMarker() {
+        // Arrange
+        String legacy = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-01-01T00:00Z|7".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThrows(PaginationException.class, () -> KeysetCursor.decode(legacy));
+    }
+}
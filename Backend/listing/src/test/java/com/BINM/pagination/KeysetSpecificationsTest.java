@@ -0,0 +1,104 @@
+package com.BINM.pagination;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.OffsetDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"unchecked", "rawtypes"})
+class KeysetSpecificationsTest {
+
+    private static final Sort BY_PUBLISHED_DESC = Sort.by(Sort.Direction.DESC, "publishedAt");
+
+    @Mock
+    private Root<Object> root;
+    @Mock
+    private CriteriaQuery<?> query;
+    @Mock
+    private CriteriaBuilder cb;
+    @Mock
+    private Path publishedAt;
+    @Mock
+    private Path id;
+    @Mock
+    private SingularAttribute optionalAttribute;
+
+    @Test
+    void after_ShouldIncludeRowsWithoutValue_WhenCursorValueIsPresent() {
+        // Arrange
+        givenOptionalPublishedAt();
+        OffsetDateTime last = OffsetDateTime.parse("2024-01-01T00:00Z");
+        KeysetCursor cursor = KeysetCursor.of(7L, last);
+        when(publishedAt.getJavaType()).thenReturn(OffsetDateTime.class);
+        Predicate older = mock(Predicate.class);
+        Predicate missing = mock(Predicate.class);
+        when(cb.lessThan(publishedAt, last)).thenReturn(older);
+        when(cb.isNull(publishedAt)).thenReturn(missing);
+
+        // Act
+        KeysetSpecifications.after(BY_PUBLISHED_DESC, "id", cursor).toPredicate(root, query, cb);
+
+        // Assert
+        verify(cb).or(older, missing);
+        verify(cb).equal(publishedAt, last);
+    }
+
+    @Test
+    void after_ShouldCompareOnlyIdAmongNulls_WhenCursorValueIsNull() {
+        // Arrange
+        when(root.get("publishedAt")).thenReturn(publishedAt);
+        when(root.get("id")).thenReturn(id);
+        KeysetCursor cursor = KeysetCursor.of(7L, (Object) null);
+
+        // Act
+        KeysetSpecifications.after(BY_PUBLISHED_DESC, "id", cursor).toPredicate(root, query, cb);
+
+        // Assert
+        verify(cb).isNull(publishedAt);
+        verify(cb).lessThan(id, 7L);
+        verify(cb, never()).lessThan(eq(publishedAt), any(Comparable.class));
+        verify(cb, never()).equal(eq(publishedAt), any(Object.class));
+    }
+
+    @Test
+    void orderedBy_ShouldPutNullsLast_ForOptionalField() {
+        // Arrange
+        givenOptionalPublishedAt();
+        CriteriaBuilder.Case<Integer> nullsLast = mock(CriteriaBuilder.Case.class);
+        when(cb.selectCase()).thenReturn((CriteriaBuilder.Case) nullsLast);
+        when(nullsLast.when(any(), eq(1))).thenReturn(nullsLast);
+        when(nullsLast.otherwise(0)).thenReturn(nullsLast);
+
+        // Act
+        KeysetSpecifications.orderedBy(BY_PUBLISHED_DESC, "id").toPredicate(root, query, cb);
+
+        // Assert
+        var order = inOrder(cb);
+        order.verify(cb).asc(nullsLast);
+        order.verify(cb).desc(publishedAt);
+        order.verify(cb).desc(id);
+        verify(query).orderBy(anyList());
+    }
+
+    private void givenOptionalPublishedAt() {
+        when(root.get("publishedAt")).thenReturn(publishedAt);
+        when(root.get("id")).thenReturn(id);
+        when(publishedAt.getModel()).thenReturn(optionalAttribute);
+        when(optionalAttribute.isOptional()).thenReturn(true);
+    }
+}
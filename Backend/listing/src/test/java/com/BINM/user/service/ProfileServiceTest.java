@@ -5,7 +5,9 @@ import com.BINM.user.exception.OtpException;
 import com.BINM.user.exception.UserAlreadyExistsException;
 import com.BINM.user.io.AuthResponse;
 import com.BINM.user.io.ProfileRequest;
+import com.BINM.user.event.ProfileUpdatedEvent;
 import com.BINM.user.io.ProfileResponse;
+import com.BINM.user.io.ProfileUpdateRequest;
 import com.BINM.user.model.UserEntity;
 import com.BINM.user.model.UserRole;
 import com.BINM.user.repository.UserRepository;
@@ -15,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -43,6 +46,8 @@ class ProfileServiceTest {
     private AppUserDetailsService appUserDetailsService;
     @Mock
     private JwtUtil jwtUtil;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ProfileService profileService;
@@ -152,4 +157,19 @@ class ProfileServiceTest {
         assertThrows(OtpException.class, () -> profileService.verifyOtp(email, otp));
         assertFalse(user.getIsAccountVerified() != null && user.getIsAccountVerified());
     }
+
+    @Test
+    void updateProfile_ShouldPublishEvent_WhenNameChanged() {
+        // Arrange
+        UserEntity user = UserEntity.builder().userId("user-1").name("Jan").email("jan@example.com").build();
+        when(userRepository.findByUserId("user-1")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(UserEntity.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ProfileResponse result = profileService.updateProfile("user-1", new ProfileUpdateRequest("Janek", null));
+
+        // Assert
+        assertEquals("Janek", result.name());
+        verify(eventPublisher).publishEvent(new ProfileUpdatedEvent("user-1", "Janek", null));
+    }
 }